@@ -0,0 +1,85 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Lets the requests of a client run in parallel with each other, but not with the {@link ConnectionValidator}.
+ * <p>
+ * Requests run between {@link #enter()} and {@link #exit()} holding the read lock of a read/write lock, and the
+ * validation holds its write lock: it starts once the requests in flight are done, and new requests wait until it
+ * finishes. Every successful validation starts a new generation, so a request that failed in an older generation
+ * is retried with the refreshed connection instead of validating it again.
+ */
+final class ConnectionValidationGate {
+
+    interface Validation {
+        /**
+         * @return true if the connection is valid again and the failed request should be retried
+         */
+        boolean validate();
+    }
+
+    private final ReentrantReadWriteLock mLock = new ReentrantReadWriteLock();
+    private volatile long mGeneration = 0;
+
+    /**
+     * Waits for an ongoing validation, if any, before letting a request in.
+     *
+     * @return generation the request is executed in, to pass to {@link #validate(long, Validation)}
+     */
+    long enter() {
+        mLock.readLock().lock();
+        return mGeneration;
+    }
+
+    void exit() {
+        mLock.readLock().unlock();
+    }
+
+    /**
+     * Runs the validation once no request is in flight, unless another validation succeeded since the failed
+     * request entered. Must not be called by a thread between {@link #enter()} and {@link #exit()}.
+     *
+     * @param generation generation the failed request was executed in
+     * @return true if the failed request should be retried
+     */
+    boolean validate(long generation, Validation validation) {
+        mLock.writeLock().lock();
+        try {
+            if (mGeneration != generation) {
+                return true;
+            }
+            boolean valid = validation.validate();
+            if (valid) {
+                mGeneration++;
+            }
+            return valid;
+        } finally {
+            mLock.writeLock().unlock();
+        }
+    }
+}
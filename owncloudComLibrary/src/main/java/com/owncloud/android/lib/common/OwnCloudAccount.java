@@ -25,12 +25,13 @@
 package com.owncloud.android.lib.common;
 
 import android.accounts.Account;
-import android.accounts.AccountManager;
 import android.accounts.AuthenticatorException;
 import android.accounts.OperationCanceledException;
 import android.content.Context;
 import android.net.Uri;
 
+import com.owncloud.android.lib.common.accounts.AccountMetadata;
+import com.owncloud.android.lib.common.accounts.AccountMetadataCache;
 import com.owncloud.android.lib.common.accounts.AccountUtils;
 import com.owncloud.android.lib.common.accounts.AccountUtils.AccountNotFoundException;
 import com.owncloud.android.lib.common.authentication.OwnCloudCredentials;
@@ -73,13 +74,13 @@ public class OwnCloudAccount {
         mSavedAccountName = savedAccount.name;
         mCredentials = null;    // load of credentials is delayed
 
-        AccountManager ama = AccountManager.get(context.getApplicationContext());
-        String baseUrl = ama.getUserData(mSavedAccount, AccountUtils.Constants.KEY_OC_BASE_URL);
-        if (baseUrl == null) {
+        // cached metadata, to avoid querying the AccountManager every time an operation is run
+        AccountMetadata metadata = AccountMetadataCache.get(mSavedAccount, context);
+        if (metadata.getBaseUri() == null) {
             throw new AccountNotFoundException(mSavedAccount, "Account not found", null);
         }
-        mBaseUri = Uri.parse(AccountUtils.getBaseUrlForAccount(context, mSavedAccount));
-        mDisplayName = ama.getUserData(mSavedAccount, AccountUtils.Constants.KEY_DISPLAY_NAME);
+        mBaseUri = metadata.getBaseUri();
+        mDisplayName = metadata.getDisplayName();
     }
 
     /**
@@ -25,16 +25,23 @@
 
 package com.owncloud.android.lib.common;
 
+import android.accounts.Account;
 import android.content.Context;
 import android.net.Uri;
 
-import com.owncloud.android.lib.common.accounts.AccountUtils;
+import com.owncloud.android.lib.common.accounts.AccountMetadata;
+import com.owncloud.android.lib.common.accounts.AccountMetadataCache;
 import com.owncloud.android.lib.common.authentication.OwnCloudCredentials;
 import com.owncloud.android.lib.common.authentication.OwnCloudCredentialsFactory;
 import com.owncloud.android.lib.common.authentication.OwnCloudCredentialsFactory.OwnCloudAnonymousCredentials;
+import com.owncloud.android.lib.common.http.CircuitBreaker;
+import com.owncloud.android.lib.common.http.CircuitBreakerOpenException;
 import com.owncloud.android.lib.common.http.HttpClient;
 import com.owncloud.android.lib.common.http.HttpConstants;
+import com.owncloud.android.lib.common.http.RequestHeadersTemplate;
+import com.owncloud.android.lib.common.http.RetryPolicy;
 import com.owncloud.android.lib.common.http.methods.HttpBaseMethod;
+import com.owncloud.android.lib.common.http.methods.nonwebdav.GetMethod;
 import com.owncloud.android.lib.common.utils.RandomUtils;
 import okhttp3.Cookie;
 import okhttp3.HttpUrl;
@@ -44,30 +51,34 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
-import static com.owncloud.android.lib.common.http.HttpConstants.AUTHORIZATION_HEADER;
 import static com.owncloud.android.lib.common.http.HttpConstants.HTTP_MOVED_PERMANENTLY;
 
 public class OwnCloudClient extends HttpClient {
 
     public static final String WEBDAV_FILES_PATH_4_0 = "/remote.php/dav/files/";
     public static final String STATUS_PATH = "/status.php";
-    private static final String WEBDAV_UPLOADS_PATH_4_0 = "/remote.php/dav/uploads/";
+    public static final String WEBDAV_UPLOADS_PATH_4_0 = "/remote.php/dav/uploads/";
     private static final int MAX_RETRY_COUNT = 2;
+    private static final long PROBE_TIMEOUT_MILLIS = 5_000;
 
     private static int sIntanceCounter = 0;
-    private OwnCloudCredentials mCredentials = null;
+    private volatile OwnCloudCredentials mCredentials = null;
     private int mInstanceNumber;
     private Uri mBaseUri;
     private OwnCloudAccount mAccount;
+    private volatile AccountMetadata mAccountMetadata;
+    private volatile RequestHeadersTemplate mRequestHeadersTemplate;
+    private volatile RetryPolicy mDefaultRetryPolicy = RetryPolicy.DEFAULT;
     private final ConnectionValidator mConnectionValidator;
-    private Object mRequestMutex = new Object();
 
-    // If set to true a mutex will be used to prevent parallel execution of the execute() method
-    // if false the execute() method can be called even though the mutex is already aquired.
-    // This is used for the ConnectionValidator, which has to be able to execute OperationsWhile all "normal" operations net
-    // to be set on hold.
+    // If set to true, requests go through mValidationGate, so all "normal" operations are set on hold while the
+    // ConnectionValidator runs, but still run in parallel with each other.
+    // If false, no gate is used. This is used for the ConnectionValidator client, which has to be able to execute
+    // operations while the gate is closed.
     private final Boolean mSynchronizeRequests;
+    private final ConnectionValidationGate mValidationGate;
 
     private SingleSessionManager mSingleSessionManager = null;
 
@@ -85,6 +96,7 @@ public class OwnCloudClient extends HttpClient {
         }
         mBaseUri = baseUri;
         mSynchronizeRequests = synchronizeRequests;
+        mValidationGate = synchronizeRequests ? new ConnectionValidationGate() : null;
         mSingleSessionManager = singleSessionManager;
 
         mInstanceNumber = sIntanceCounter++;
@@ -102,13 +114,7 @@ public class OwnCloudClient extends HttpClient {
     }
 
     public int executeHttpMethod(HttpBaseMethod method) throws Exception {
-        if (mSynchronizeRequests) {
-            synchronized (mRequestMutex) {
-                return saveExecuteHttpMethod(method);
-            }
-        } else {
-            return saveExecuteHttpMethod(method);
-        }
+        return saveExecuteHttpMethod(method);
     }
 
     private int saveExecuteHttpMethod(HttpBaseMethod method) throws Exception {
@@ -127,19 +133,14 @@ public class OwnCloudClient extends HttpClient {
 
             // Header to allow tracing requests in apache and ownCloud logs
             Timber.d("Executing in request with id %s", requestId);
-            method.setRequestHeader(HttpConstants.OC_X_REQUEST_ID, requestId);
-            method.setRequestHeader(HttpConstants.USER_AGENT_HEADER, SingleSessionManager.getUserAgent());
-            method.setRequestHeader(HttpConstants.ACCEPT_LANGUAGE_HEADER, Locale.getDefault().getLanguage());
-            method.setRequestHeader(HttpConstants.ACCEPT_ENCODING_HEADER, HttpConstants.ACCEPT_ENCODING_IDENTITY);
-            if (mCredentials.getHeaderAuth() != null && !mCredentials.getHeaderAuth().isEmpty()) {
-                method.setRequestHeader(AUTHORIZATION_HEADER, mCredentials.getHeaderAuth());
-            }
-
-            status = method.execute(this);
+            long[] generation = new long[1];
+            status = executeWithRetries(method, requestId, generation);
 
             if (shouldConnectionValidatorBeCalled(method, status)) {
-                retry = mConnectionValidator.validate(this, mSingleSessionManager, getContext()); // retry on success fail on no success
+                invalidateAccountMetadata();
+                retry = validateConnection(generation[0]); // retry on success fail on no success
             } else if (method.getFollowPermanentRedirects() && status == HTTP_MOVED_PERMANENTLY) {
+                invalidateAccountMetadata();
                 retry = true;
                 method.setFollowRedirects(true);
             }
@@ -149,6 +150,159 @@ public class OwnCloudClient extends HttpClient {
         return status;
     }
 
+    /**
+     * Drops the cached metadata of the saved account, so it is read again from the AccountManager. Rejected
+     * credentials and redirections are the usual symptoms of an account whose data changed, e.g. after its base URL
+     * was migrated.
+     */
+    private void invalidateAccountMetadata() {
+        Account savedAccount = mAccount != null ? mAccount.getSavedAccount() : null;
+        if (savedAccount != null) {
+            AccountMetadataCache.invalidate(savedAccount.name);
+        }
+        mAccountMetadata = null;
+    }
+
+    /**
+     * Runs the ConnectionValidator once no other request of this client is executing. If another request already
+     * validated the connection while this one was executing or waiting, the request is just retried.
+     *
+     * @param generation validation generation the failed request was executed in
+     * @return true if the request should be retried
+     */
+    private boolean validateConnection(long generation) {
+        if (mValidationGate == null) {
+            return mConnectionValidator.validate(this, mSingleSessionManager, getContext());
+        }
+        return mValidationGate.validate(generation,
+                () -> mConnectionValidator.validate(this, mSingleSessionManager, getContext()));
+    }
+
+    /**
+     * Executes the method, executing it again after transient failures as its {@link RetryPolicy} allows. Every
+     * attempt enters mValidationGate on its own, so a validation is not held back while waiting between attempts.
+     *
+     * @param generation receives the validation generation the last attempt was executed in
+     */
+    private int executeWithRetries(HttpBaseMethod method, String requestId, long[] generation) throws Exception {
+        RetryPolicy policy = method.getRetryPolicy() != null ? method.getRetryPolicy() : mDefaultRetryPolicy;
+        CircuitBreaker circuitBreaker = CircuitBreaker.forUrl(method.getHttpUrl());
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            if (circuitBreaker != null) {
+                checkCircuitBreaker(circuitBreaker, method.getHttpUrl());
+            }
+            long delayMillis;
+            try {
+                int status = executeAttempt(method, requestId, generation);
+                if (circuitBreaker != null) {
+                    circuitBreaker.onSuccess();
+                }
+                delayMillis = policy.retryDelayMillis(method, attempt, status);
+                if (delayMillis == RetryPolicy.NO_RETRY) {
+                    return status;
+                }
+                Timber.w("Attempt %d of %s got status %d, retrying in %d ms", attempt,
+                        method.getHttpUrl().encodedPath(), status, delayMillis);
+                method.closeResponse();
+            } catch (Exception e) {
+                delayMillis = policy.retryDelayMillis(method, attempt, e);
+                if (delayMillis == RetryPolicy.NO_RETRY) {
+                    // Counted once the request gives up, so its retries do not open the circuit on their own
+                    if (circuitBreaker != null && CircuitBreaker.isConnectionFailure(e)) {
+                        circuitBreaker.onConnectionFailure();
+                    }
+                    throw e;
+                }
+                Timber.w("Attempt %d of %s failed with %s, retrying in %d ms", attempt,
+                        method.getHttpUrl().encodedPath(), e.getClass().getSimpleName(), delayMillis);
+            }
+            Thread.sleep(delayMillis);
+        }
+    }
+
+    private int executeAttempt(HttpBaseMethod method, String requestId, long[] generation) throws Exception {
+        generation[0] = mValidationGate != null ? mValidationGate.enter() : 0;
+        try {
+            // Set on every attempt, as the credentials may have been refreshed while waiting for it
+            method.setRequestHeaders(getRequestHeadersTemplate().getHeaders(), requestId);
+            return method.execute(this);
+        } finally {
+            if (mValidationGate != null) {
+                mValidationGate.exit();
+            }
+        }
+    }
+
+    /**
+     * Lets the request go only if the server is not known to be unreachable. When the circuit is ready to be
+     * half-opened, the server is probed first with a light request.
+     *
+     * @throws CircuitBreakerOpenException if the request must fail fast
+     */
+    private void checkCircuitBreaker(CircuitBreaker circuitBreaker, HttpUrl url) throws CircuitBreakerOpenException {
+        switch (circuitBreaker.acquire(System.currentTimeMillis())) {
+            case ALLOW:
+                return;
+            case PROBE:
+                if (probeServer(circuitBreaker, url)) {
+                    return;
+                }
+                // fall through
+            default:
+                throw new CircuitBreakerOpenException(url.host(),
+                        circuitBreaker.remainingOpenMillis(System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Requests status.php, or the root of any other host, and reports to the circuit breaker whether the server
+     * could be reached, whatever the response was.
+     */
+    private boolean probeServer(CircuitBreaker circuitBreaker, HttpUrl url) {
+        try {
+            HttpUrl baseUrl = HttpUrl.parse(mBaseUri.toString());
+            HttpUrl probeUrl = (baseUrl != null && CircuitBreaker.keyOf(baseUrl).equals(CircuitBreaker.keyOf(url)))
+                    ? HttpUrl.parse(mBaseUri + STATUS_PATH)
+                    : url.newBuilder().encodedPath("/").query(null).build();
+            GetMethod probe = new GetMethod(probeUrl.url());
+            probe.setConnectionTimeout(PROBE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            probe.setReadTimeout(PROBE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            probe.setRequestHeaders(getRequestHeadersTemplate().getHeaders(), RandomUtils.generateRandomUUID());
+            int status = probe.execute(this);
+            probe.closeResponse();
+            Timber.d("Circuit breaker probe to %s got status %d, closing circuit", probeUrl.host(), status);
+            circuitBreaker.onSuccess();
+            return true;
+        } catch (Exception e) {
+            if (CircuitBreaker.isConnectionFailure(e)) {
+                Timber.d("Circuit breaker probe to %s failed, keeping circuit open", url.host());
+                circuitBreaker.onConnectionFailure(System.currentTimeMillis());
+                return false;
+            }
+            // The server was reached, the problem is somewhere else
+            circuitBreaker.onSuccess();
+            return true;
+        }
+    }
+
+    /**
+     * Headers shared by every request of this client. Rebuilt only when the credentials, the user agent or the
+     * default language change, e.g. after the ConnectionValidator refreshed the credentials.
+     */
+    private RequestHeadersTemplate getRequestHeadersTemplate() {
+        String userAgent = SingleSessionManager.getUserAgent();
+        String language = Locale.getDefault().getLanguage();
+        OwnCloudCredentials credentials = mCredentials;
+        RequestHeadersTemplate template = mRequestHeadersTemplate;
+        if (template == null || !template.matches(userAgent, language, credentials)) {
+            template = new RequestHeadersTemplate(userAgent, language, credentials);
+            mRequestHeadersTemplate = template;
+        }
+        return template;
+    }
+
     private boolean shouldConnectionValidatorBeCalled(HttpBaseMethod method, int status) {
 
         return mConnectionValidator != null && (
@@ -182,21 +336,47 @@ public class OwnCloudClient extends HttpClient {
     }
 
     public Uri getUserFilesWebDavUri() {
-        return (mCredentials instanceof OwnCloudAnonymousCredentials || mAccount == null)
+        AccountMetadata metadata = getAccountMetadata();
+        return (mCredentials instanceof OwnCloudAnonymousCredentials || metadata == null)
                 ? Uri.parse(mBaseUri + WEBDAV_FILES_PATH_4_0)
-                : Uri.parse(mBaseUri + WEBDAV_FILES_PATH_4_0 + AccountUtils.getUserId(
-                        mAccount.getSavedAccount(), getContext()
-                )
-        );
+                : metadata.getUserFilesWebDavUri();
     }
 
     public Uri getUploadsWebDavUri() {
-        return mCredentials instanceof OwnCloudAnonymousCredentials
+        AccountMetadata metadata = getAccountMetadata();
+        return (mCredentials instanceof OwnCloudAnonymousCredentials || metadata == null)
                 ? Uri.parse(mBaseUri + WEBDAV_UPLOADS_PATH_4_0)
-                : Uri.parse(mBaseUri + WEBDAV_UPLOADS_PATH_4_0 + AccountUtils.getUserId(
-                        mAccount.getSavedAccount(), getContext()
-                )
-        );
+                : metadata.getUploadsWebDavUri();
+    }
+
+    /**
+     * @return id of the user of the saved account of this client, or null if there is none
+     */
+    public String getUserId() {
+        AccountMetadata metadata = getAccountMetadata();
+        return metadata != null ? metadata.getUserId() : null;
+    }
+
+    /**
+     * Metadata of the saved account of this client, with the endpoints built over the current base URI.
+     * <p>
+     * The {@link android.accounts.AccountManager} is only queried when the metadata is not in
+     * {@link AccountMetadataCache}.
+     *
+     * @return metadata of the saved account, or null if the client has no saved account
+     */
+    public AccountMetadata getAccountMetadata() {
+        Account savedAccount = mAccount != null ? mAccount.getSavedAccount() : null;
+        if (savedAccount == null) {
+            return null;
+        }
+        AccountMetadata cachedMetadata = AccountMetadataCache.get(savedAccount, getContext());
+        AccountMetadata metadata = mAccountMetadata;
+        if (metadata == null || !metadata.isDerivedFrom(cachedMetadata) || !mBaseUri.equals(metadata.getBaseUri())) {
+            metadata = cachedMetadata.withBaseUri(mBaseUri);
+            mAccountMetadata = metadata;
+        }
+        return metadata;
     }
 
     public Uri getBaseUri() {
@@ -229,6 +409,19 @@ public class OwnCloudClient extends HttpClient {
         }
     }
 
+    public RetryPolicy getDefaultRetryPolicy() {
+        return mDefaultRetryPolicy;
+    }
+
+    /**
+     * Sets the retry policy for the methods executed by this client that do not have their own one.
+     *
+     * @param retryPolicy policy to apply; {@link RetryPolicy#NEVER} disables retries
+     */
+    public void setDefaultRetryPolicy(RetryPolicy retryPolicy) {
+        mDefaultRetryPolicy = retryPolicy != null ? retryPolicy : RetryPolicy.DEFAULT;
+    }
+
     public void setCookiesForBaseUri(List<Cookie> cookies) {
         getOkHttpClient().cookieJar().saveFromResponse(
                 HttpUrl.parse(mBaseUri.toString()),
@@ -247,6 +440,7 @@ public class OwnCloudClient extends HttpClient {
 
     public void setAccount(OwnCloudAccount account) {
         this.mAccount = account;
+        this.mAccountMetadata = null;
     }
 
     public void setFollowRedirects(boolean followRedirects) {
@@ -24,16 +24,32 @@
 
 package com.owncloud.android.lib.common;
 
+import android.accounts.Account;
+import android.accounts.AccountManager;
 import android.accounts.AuthenticatorException;
+import android.accounts.OnAccountsUpdateListener;
 import android.accounts.OperationCanceledException;
 import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
 import android.net.Uri;
+import android.os.Build;
 
+import com.owncloud.android.lib.common.accounts.AccountMetadataCache;
 import com.owncloud.android.lib.common.accounts.AccountUtils;
 import com.owncloud.android.lib.common.authentication.OwnCloudCredentials;
+import com.owncloud.android.lib.common.http.CircuitBreaker;
 import timber.log.Timber;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -49,9 +65,14 @@ public class SingleSessionManager {
     private static SingleSessionManager sDefaultSingleton;
     private static String sUserAgent;
     private static ConnectionValidator sConnectionValidator;
+    private static boolean sPersistentCookies = false;
+
+    private static final String COOKIES_DIRECTORY = "cookies";
 
     private ConcurrentMap<String, OwnCloudClient> mClientsWithKnownUsername = new ConcurrentHashMap<>();
     private ConcurrentMap<String, OwnCloudClient> mClientsWithUnknownUsername = new ConcurrentHashMap<>();
+    private OnAccountsUpdateListener mCookiesCleanupListener = null;
+    private ConnectivityManager.NetworkCallback mNetworkChangeCallback = null;
 
     public static SingleSessionManager getDefaultSingleton() {
         if (sDefaultSingleton == null) {
@@ -76,6 +97,16 @@ public class SingleSessionManager {
         sUserAgent = userAgent;
     }
 
+    /**
+     * Enables the persistence of the cookies of the clients created for saved accounts, so that sessions
+     * (e.g. session affinity in load balancers) are kept across process restarts.
+     *
+     * @param persistentCookies true to persist the cookies in the private storage of the app.
+     */
+    public static void setPersistentCookies(boolean persistentCookies) {
+        sPersistentCookies = persistentCookies;
+    }
+
     private static OwnCloudClient createOwnCloudClient(Uri uri,
                                                        Context context,
                                                        ConnectionValidator connectionValidator,
@@ -135,6 +166,7 @@ public class SingleSessionManager {
                 client.clearCredentials();
 
                 client.setAccount(account);
+                AccountMetadataCache.invalidate(accountName);
 
                 account.loadCredentials(context);
                 client.setCredentials(account.getCredentials());
@@ -157,6 +189,13 @@ public class SingleSessionManager {
             client.clearCookies();
             client.clearCredentials();
 
+            registerCircuitBreakersReset(context);
+
+            if (sPersistentCookies && accountName != null) {
+                registerCookiesCleanup(context);
+                client.setCookiesPersistenceFile(getCookiesFile(context, accountName));
+            }
+
             client.setAccount(account);
 
             account.loadCredentials(context);
@@ -211,9 +250,123 @@ public class SingleSessionManager {
             return;
         }
         ownCloudClient.setCredentials(credentials);
+        AccountMetadataCache.invalidate(accountName);
         mClientsWithKnownUsername.replace(accountName, ownCloudClient);
     }
 
+    private static File getCookiesFile(Context context, String accountName) {
+        return new File(getCookiesDirectory(context), getCookiesFileName(accountName));
+    }
+
+    private static File getCookiesDirectory(Context context) {
+        return new File(context.getFilesDir(), COOKIES_DIRECTORY);
+    }
+
+    private static String getCookiesFileName(String accountName) {
+        try {
+            return URLEncoder.encode(accountName, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            return String.valueOf(accountName.hashCode());
+        }
+    }
+
+    /**
+     * Deletes the persisted cookies of accounts removed from the device, both when they are removed and, for those
+     * removed while the app was not running, as soon as cookies start being persisted.
+     */
+    private synchronized void registerCookiesCleanup(Context context) {
+        if (mCookiesCleanupListener != null) {
+            return;
+        }
+        File cookiesDirectory = getCookiesDirectory(context);
+        mCookiesCleanupListener = accounts -> deleteCookiesOfRemovedAccounts(cookiesDirectory, accounts);
+        try {
+            AccountManager.get(context.getApplicationContext())
+                    .addOnAccountsUpdatedListener(mCookiesCleanupListener, null, true);
+        } catch (Exception e) {
+            Timber.w(e, "Could not listen to account updates; cookies of removed accounts will not be deleted");
+        }
+    }
+
+    /**
+     * Closes every {@link CircuitBreaker} when a new network is validated as the default one, as servers unreachable
+     * through the previous network may be reachable through the new one.
+     */
+    private synchronized void registerCircuitBreakersReset(Context context) {
+        if (mNetworkChangeCallback != null) {
+            return;
+        }
+        mNetworkChangeCallback = new ValidatedNetworkCallback(CircuitBreaker::resetAll);
+        try {
+            ConnectivityManager connectivityManager = (ConnectivityManager) context.getApplicationContext()
+                    .getSystemService(Context.CONNECTIVITY_SERVICE);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                connectivityManager.registerDefaultNetworkCallback(mNetworkChangeCallback);
+            } else {
+                NetworkRequest validatedNetworks = new NetworkRequest.Builder()
+                        .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                        .addCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED)
+                        .build();
+                connectivityManager.registerNetworkCallback(validatedNetworks, mNetworkChangeCallback);
+            }
+        } catch (Exception e) {
+            Timber.w(e, "Could not listen to network changes; circuit breakers will not be reset on them");
+        }
+    }
+
+    /**
+     * Runs an action every time a network other than the last one seen validated gets validated. Losing a network
+     * does not run it: requests would fail anyway until another network is validated.
+     */
+    static class ValidatedNetworkCallback extends ConnectivityManager.NetworkCallback {
+
+        private final Runnable mOnNetworkValidated;
+
+        // Callbacks are delivered in a single thread
+        private Network mValidatedNetwork = null;
+
+        ValidatedNetworkCallback(Runnable onNetworkValidated) {
+            mOnNetworkValidated = onNetworkValidated;
+        }
+
+        @Override
+        public void onCapabilitiesChanged(Network network, NetworkCapabilities networkCapabilities) {
+            if (networkCapabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED) &&
+                    !network.equals(mValidatedNetwork)) {
+                mValidatedNetwork = network;
+                mOnNetworkValidated.run();
+            }
+        }
+
+        @Override
+        public void onLost(Network network) {
+            if (network.equals(mValidatedNetwork)) {
+                mValidatedNetwork = null;
+            }
+        }
+    }
+
+    private void deleteCookiesOfRemovedAccounts(File cookiesDirectory, Account[] accounts) {
+        Set<String> existingFileNames = new HashSet<>();
+        for (Account account : accounts) {
+            existingFileNames.add(getCookiesFileName(account.name));
+        }
+        for (Map.Entry<String, OwnCloudClient> entry : mClientsWithKnownUsername.entrySet()) {
+            if (!existingFileNames.contains(getCookiesFileName(entry.getKey()))) {
+                entry.getValue().deleteCookiesPersistenceFile();
+            }
+        }
+        File[] cookiesFiles = cookiesDirectory.listFiles();
+        if (cookiesFiles == null) {
+            return;
+        }
+        for (File cookiesFile : cookiesFiles) {
+            if (!existingFileNames.contains(cookiesFile.getName()) && cookiesFile.delete()) {
+                Timber.d("Deleted persisted cookies of removed account %s", cookiesFile.getName());
+            }
+        }
+    }
+
     // this method is just a patch; we need to distinguish accounts in the same host but
     // different paths; but that requires updating the accountNames for apps upgrading
     private void keepUriUpdated(OwnCloudAccount account, OwnCloudClient reusedClient) {
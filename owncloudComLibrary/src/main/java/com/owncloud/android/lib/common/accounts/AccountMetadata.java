@@ -0,0 +1,137 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.accounts;
+
+import android.accounts.Account;
+import android.accounts.AccountManager;
+import android.content.Context;
+import android.net.Uri;
+
+import com.owncloud.android.lib.common.OwnCloudClient;
+
+/**
+ * Immutable snapshot of the data of a saved ownCloud account needed to build requests, with the endpoint
+ * prefixes precomputed from them.
+ * <p>
+ * Instances are cached by {@link AccountMetadataCache}, so the request path does not need to query
+ * the {@link AccountManager}.
+ */
+public class AccountMetadata {
+
+    public static final String OCS_PATH = "/ocs/v2.php/";
+
+    private final String mAccountName;
+    private final String mUserId;
+    private final String mDisplayName;
+    private final Uri mBaseUri;
+    private final Uri mUserFilesWebDavUri;
+    private final Uri mUploadsWebDavUri;
+    private final Uri mOcsBaseUri;
+    private final AccountMetadata mOrigin;
+
+    AccountMetadata(String accountName, String userId, String displayName, Uri baseUri, AccountMetadata origin) {
+        mOrigin = origin != null ? origin : this;
+        mAccountName = accountName;
+        mUserId = userId;
+        mDisplayName = displayName;
+        mBaseUri = baseUri;
+        if (baseUri != null) {
+            mUserFilesWebDavUri = Uri.parse(baseUri + OwnCloudClient.WEBDAV_FILES_PATH_4_0 + userId);
+            mUploadsWebDavUri = Uri.parse(baseUri + OwnCloudClient.WEBDAV_UPLOADS_PATH_4_0 + userId);
+            mOcsBaseUri = Uri.parse(baseUri + OCS_PATH);
+        } else {
+            mUserFilesWebDavUri = null;
+            mUploadsWebDavUri = null;
+            mOcsBaseUri = null;
+        }
+    }
+
+    /**
+     * Reads the metadata of a saved account from the {@link AccountManager}.
+     *
+     * @param account Saved ownCloud account
+     * @param context Valid Android {@link Context}, needed to access the {@link AccountManager}
+     * @return metadata of the account; its base URI is null if the account is not found
+     */
+    public static AccountMetadata load(Account account, Context context) {
+        AccountManager accountManager = AccountManager.get(context.getApplicationContext());
+        String baseUrl = accountManager.getUserData(account, AccountUtils.Constants.KEY_OC_BASE_URL);
+        return new AccountMetadata(
+                account.name,
+                accountManager.getUserData(account, AccountUtils.Constants.KEY_ID),
+                accountManager.getUserData(account, AccountUtils.Constants.KEY_DISPLAY_NAME),
+                baseUrl != null ? Uri.parse(baseUrl) : null,
+                null
+        );
+    }
+
+    /**
+     * @param baseUri Base URI of the server
+     * @return metadata with the endpoint prefixes computed from the given base URI; this same instance if it
+     * does not change
+     */
+    public AccountMetadata withBaseUri(Uri baseUri) {
+        if (baseUri == null || baseUri.equals(mBaseUri)) {
+            return this;
+        }
+        return new AccountMetadata(mAccountName, mUserId, mDisplayName, baseUri, mOrigin);
+    }
+
+    /**
+     * @param metadata Metadata loaded from the {@link AccountManager}
+     * @return true if this metadata is the given one or was derived from it with {@link #withBaseUri(Uri)}
+     */
+    public boolean isDerivedFrom(AccountMetadata metadata) {
+        return mOrigin == metadata;
+    }
+
+    public String getAccountName() {
+        return mAccountName;
+    }
+
+    public String getUserId() {
+        return mUserId;
+    }
+
+    public String getDisplayName() {
+        return mDisplayName;
+    }
+
+    public Uri getBaseUri() {
+        return mBaseUri;
+    }
+
+    public Uri getUserFilesWebDavUri() {
+        return mUserFilesWebDavUri;
+    }
+
+    public Uri getUploadsWebDavUri() {
+        return mUploadsWebDavUri;
+    }
+
+    public Uri getOcsBaseUri() {
+        return mOcsBaseUri;
+    }
+}
@@ -0,0 +1,111 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.accounts;
+
+import android.accounts.Account;
+import android.accounts.AccountManager;
+import android.accounts.OnAccountsUpdateListener;
+import android.content.Context;
+
+import timber.log.Timber;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process wide cache of {@link AccountMetadata}, keyed by account name.
+ * <p>
+ * Entries of removed accounts are dropped by an {@link OnAccountsUpdateListener}, which is not notified when the
+ * user data of an existing account changes. The library does not write that data, so the entry of an account is
+ * dropped instead whenever its data may have changed: when a request of its client gets its credentials rejected or
+ * is redirected, and when its credentials are refreshed. Apps changing the user data of an account may still call
+ * {@link #invalidate(String)} for the change to apply right away.
+ */
+public class AccountMetadataCache {
+
+    private static final ConcurrentMap<String, AccountMetadata> sMetadata = new ConcurrentHashMap<>();
+
+    private static volatile boolean sListenerRegistered = false;
+
+    private static final OnAccountsUpdateListener sAccountsUpdateListener = accounts -> {
+        Set<String> existingAccountNames = new HashSet<>();
+        for (Account account : accounts) {
+            existingAccountNames.add(account.name);
+        }
+        sMetadata.keySet().retainAll(existingAccountNames);
+    };
+
+    private AccountMetadataCache() {
+    }
+
+    /**
+     * @param account Saved ownCloud account
+     * @param context Valid Android {@link Context}, needed to access the {@link AccountManager} the first time
+     * @return metadata of the account, read from the {@link AccountManager} only if not cached yet
+     */
+    public static AccountMetadata get(Account account, Context context) {
+        AccountMetadata metadata = sMetadata.get(account.name);
+        if (metadata != null) {
+            return metadata;
+        }
+        registerListener(context);
+        metadata = AccountMetadata.load(account, context);
+        if (sListenerRegistered && metadata.getBaseUri() != null && metadata.getUserId() != null) {
+            // incomplete metadata of accounts being created is not cached
+            sMetadata.put(account.name, metadata);
+        }
+        return metadata;
+    }
+
+    public static void invalidate(String accountName) {
+        if (accountName != null) {
+            sMetadata.remove(accountName);
+        }
+    }
+
+    public static void invalidateAll() {
+        sMetadata.clear();
+    }
+
+    private static void registerListener(Context context) {
+        if (sListenerRegistered) {
+            return;
+        }
+        synchronized (AccountMetadataCache.class) {
+            if (sListenerRegistered) {
+                return;
+            }
+            try {
+                AccountManager.get(context.getApplicationContext())
+                        .addOnAccountsUpdatedListener(sAccountsUpdateListener, null, false);
+                sListenerRegistered = true;
+            } catch (Exception e) {
+                Timber.w(e, "Could not listen to account updates; account metadata will not be cached");
+            }
+        }
+    }
+}
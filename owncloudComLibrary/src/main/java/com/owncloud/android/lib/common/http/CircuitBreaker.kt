@@ -0,0 +1,183 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.http
+
+import okhttp3.HttpUrl
+import java.io.IOException
+import java.net.ConnectException
+import java.net.NoRouteToHostException
+import java.net.SocketTimeoutException
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Circuit breaker for a single server, so requests fail fast while it cannot be reached instead of waiting for
+ * the connection or read timeout one by one.
+ *
+ * After [failureThreshold] consecutive requests failing to connect the circuit opens and requests are rejected
+ * for [openMillis]. Then the first request in is told to probe the server; every other one is still rejected
+ * until the probe reports back. A successful probe closes the circuit, a failed one opens it again for twice as
+ * long, up to [maxOpenMillis].
+ */
+class CircuitBreaker @JvmOverloads constructor(
+    val failureThreshold: Int = DEFAULT_FAILURE_THRESHOLD,
+    val openMillis: Long = DEFAULT_OPEN_MILLIS,
+    val maxOpenMillis: Long = DEFAULT_MAX_OPEN_MILLIS,
+) {
+
+    enum class State { CLOSED, OPEN, HALF_OPEN }
+
+    enum class Permission {
+        /** Go ahead */
+        ALLOW,
+
+        /** Check first whether the server can be reached, and report the result */
+        PROBE,
+
+        /** Fail fast */
+        REJECT
+    }
+
+    var state = State.CLOSED
+        @Synchronized get
+        private set
+
+    private var consecutiveFailures = 0
+    private var currentOpenMillis = openMillis
+    private var openUntilMillis = 0L
+
+    @JvmOverloads
+    @Synchronized
+    fun acquire(nowMillis: Long = System.currentTimeMillis()): Permission =
+        when (state) {
+            State.CLOSED -> Permission.ALLOW
+            State.HALF_OPEN -> Permission.REJECT
+            State.OPEN ->
+                if (nowMillis < openUntilMillis) {
+                    Permission.REJECT
+                } else {
+                    state = State.HALF_OPEN
+                    Permission.PROBE
+                }
+        }
+
+    /**
+     * Milliseconds left until a probe will be allowed; 0 if the circuit is not open.
+     */
+    @JvmOverloads
+    @Synchronized
+    fun remainingOpenMillis(nowMillis: Long = System.currentTimeMillis()): Long =
+        if (state == State.OPEN) (openUntilMillis - nowMillis).coerceAtLeast(0) else 0
+
+    /**
+     * The server was reached, whatever the response was.
+     */
+    @Synchronized
+    fun onSuccess() {
+        state = State.CLOSED
+        consecutiveFailures = 0
+        currentOpenMillis = openMillis
+    }
+
+    @JvmOverloads
+    @Synchronized
+    fun onConnectionFailure(nowMillis: Long = System.currentTimeMillis()) {
+        when (state) {
+            State.HALF_OPEN -> {
+                currentOpenMillis = (currentOpenMillis * 2).coerceAtMost(maxOpenMillis)
+                open(nowMillis)
+            }
+            State.CLOSED -> {
+                consecutiveFailures++
+                if (consecutiveFailures >= failureThreshold) {
+                    open(nowMillis)
+                }
+            }
+            State.OPEN -> Unit
+        }
+    }
+
+    private fun open(nowMillis: Long) {
+        state = State.OPEN
+        openUntilMillis = nowMillis + currentOpenMillis
+    }
+
+    companion object {
+        private const val DEFAULT_FAILURE_THRESHOLD = 5
+        private const val DEFAULT_OPEN_MILLIS = 30_000L
+        private const val DEFAULT_MAX_OPEN_MILLIS = 5 * 60_000L
+
+        private val breakers = ConcurrentHashMap<String, CircuitBreaker>()
+
+        /**
+         * When disabled, [forUrl] returns null and requests are never short-circuited.
+         */
+        @Volatile
+        @JvmStatic
+        var enabled = true
+
+        /**
+         * Breaker shared by every client talking to the host and port of the url, or null if disabled.
+         */
+        @JvmStatic
+        fun forUrl(url: HttpUrl): CircuitBreaker? =
+            if (enabled) breakers.getOrPut(keyOf(url)) { CircuitBreaker() } else null
+
+        @JvmStatic
+        fun keyOf(url: HttpUrl): String = "${url.host}:${url.port}"
+
+        /**
+         * Forgets the state of every server, e.g. after the network connectivity changed.
+         */
+        @JvmStatic
+        fun resetAll() {
+            breakers.clear()
+        }
+
+        /**
+         * Failures meaning the server could not be reached at all, as opposed to errors in a response. Only the
+         * connection phase counts: a read timeout means the server was reached but is slow to answer.
+         *
+         * Unknown hosts do not count either. Resolving the name already fails fast, and failing to resolve it
+         * usually means the device is offline, which says nothing about the server once the network is back.
+         */
+        @JvmStatic
+        fun isConnectionFailure(exception: Exception): Boolean =
+            exception is ConnectException ||
+                    exception is NoRouteToHostException ||
+                    (exception is SocketTimeoutException && isConnectTimeout(exception))
+
+        // "connect timed out" on the JVM, "failed to connect to ... after 10000ms" on Android
+        private fun isConnectTimeout(exception: SocketTimeoutException): Boolean =
+            exception.message?.contains("connect", ignoreCase = true) == true
+    }
+}
+
+/**
+ * Thrown instead of executing a request while the [CircuitBreaker] of its server is open.
+ */
+class CircuitBreakerOpenException(
+    val host: String,
+    val retryInMillis: Long,
+) : IOException("Circuit open for $host, requests rejected for the next $retryInMillis ms")
@@ -28,35 +28,12 @@ import okhttp3.CookieJar
 import okhttp3.HttpUrl
 
 class CookieJarImpl(
-    private val cookieStore: HashMap<String, List<Cookie>>
+    private val cookieStore: CookieStore
 ) : CookieJar {
 
-    fun containsCookieWithName(cookies: List<Cookie>, name: String): Boolean {
-        for (cookie: Cookie in cookies) {
-            if (cookie.name == name) {
-                return true
-            }
-        }
-        return false
-    }
+    override fun saveFromResponse(url: HttpUrl, cookies: List<Cookie>) =
+        cookieStore.saveCookies(url.host, cookies)
 
-    fun getUpdatedCookies(oldCookies: List<Cookie>, newCookies: List<Cookie>): List<Cookie> {
-        val updatedList = ArrayList<Cookie>(newCookies)
-        for (oldCookie: Cookie in oldCookies) {
-            if (!containsCookieWithName(updatedList, oldCookie.name)) {
-                updatedList.add(oldCookie)
-            }
-        }
-        return updatedList
-    }
-
-    override fun saveFromResponse(url: HttpUrl, cookies: List<Cookie>) {
-        // Avoid duplicated cookies but update
-        val currentCookies: List<Cookie> = cookieStore[url.host] ?: ArrayList()
-        val updatedCookies: List<Cookie> = getUpdatedCookies(currentCookies, cookies)
-        cookieStore[url.host] = updatedCookies
-    }
-
-    override fun loadForRequest(url: HttpUrl) =
-        cookieStore[url.host] ?: ArrayList()
-}
\ No newline at end of file
+    override fun loadForRequest(url: HttpUrl): List<Cookie> =
+        cookieStore.loadCookies(url.host)
+}
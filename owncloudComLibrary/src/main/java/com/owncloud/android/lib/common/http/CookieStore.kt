@@ -0,0 +1,192 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.http
+
+import okhttp3.Cookie
+import okhttp3.HttpUrl
+import timber.log.Timber
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Thread safe storage for the cookies received from the server.
+ *
+ * Cookies are indexed by host and name, so merging the cookies of a response is linear in the number of cookies
+ * received. Expired cookies are dropped lazily, whenever the cookies of a host are saved or loaded.
+ *
+ * If a persistence file is set, the stored cookies are written to it every time they change and read back when the
+ * file is set, so session cookies (e.g. those used by load balancers with session affinity) survive process restarts.
+ * A cookie received again unchanged is not a change and does not write the file; a new expiration is, so the
+ * persisted cookies keep the expiration last sent by the server.
+ */
+class CookieStore {
+
+    private val cookiesByHost = ConcurrentHashMap<String, ConcurrentHashMap<String, Cookie>>()
+
+    private val persistenceLock = Any()
+
+    @Volatile
+    private var persistenceFile: File? = null
+
+    /**
+     * Stores the cookies received for a host, replacing the existing ones with the same name.
+     *
+     * Received cookies that are already expired remove any existing cookie with the same name, as servers use them
+     * to delete cookies.
+     */
+    fun saveCookies(host: String, cookies: List<Cookie>) {
+        if (cookies.isEmpty()) {
+            return
+        }
+        val now = System.currentTimeMillis()
+        val hostCookies = cookiesByHost.getOrPut(host) { ConcurrentHashMap() }
+        var changed = false
+        for (cookie in cookies) {
+            changed = if (cookie.expiresAt < now) {
+                hostCookies.remove(cookie.name) != null || changed
+            } else {
+                cookie != hostCookies.put(cookie.name, cookie) || changed
+            }
+        }
+        changed = pruneExpired(hostCookies, now) || changed
+        if (changed) {
+            persist()
+        }
+    }
+
+    /**
+     * @return non expired cookies stored for a host, or an empty list if there are none
+     */
+    fun loadCookies(host: String): List<Cookie> {
+        val hostCookies = cookiesByHost[host] ?: return emptyList()
+        if (pruneExpired(hostCookies, System.currentTimeMillis())) {
+            persist()
+        }
+        return ArrayList(hostCookies.values)
+    }
+
+    fun clear() {
+        cookiesByHost.clear()
+        persist()
+    }
+
+    /**
+     * Sets the file where the cookies are persisted, merging into the store the cookies previously saved in it.
+     *
+     * @param file File to persist the cookies to; null disables persistence.
+     */
+    fun setPersistenceFile(file: File?) {
+        persistenceFile = file
+        if (file != null) {
+            restore(file)
+        }
+    }
+
+    /**
+     * Deletes the persistence file, if any, and stops persisting the cookies.
+     */
+    fun deletePersistenceFile() {
+        synchronized(persistenceLock) {
+            val file = persistenceFile ?: return
+            persistenceFile = null
+            if (file.exists() && !file.delete()) {
+                Timber.w("Persisted cookies could not be deleted from %s", file.path)
+            }
+        }
+    }
+
+    private fun pruneExpired(hostCookies: MutableMap<String, Cookie>, now: Long): Boolean {
+        var pruned = false
+        val iterator = hostCookies.values.iterator()
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt < now) {
+                iterator.remove()
+                pruned = true
+            }
+        }
+        return pruned
+    }
+
+    private fun restore(file: File) {
+        synchronized(persistenceLock) {
+            if (!file.exists()) {
+                return
+            }
+            val now = System.currentTimeMillis()
+            try {
+                file.forEachLine { line ->
+                    val separatorIndex = line.indexOf(FIELD_SEPARATOR)
+                    if (separatorIndex <= 0) {
+                        return@forEachLine
+                    }
+                    val host = line.substring(0, separatorIndex)
+                    val cookie = Cookie.parse(urlForHost(host), line.substring(separatorIndex + 1))
+                    if (cookie != null && cookie.expiresAt >= now) {
+                        cookiesByHost.getOrPut(host) { ConcurrentHashMap() }.putIfAbsent(cookie.name, cookie)
+                    }
+                }
+            } catch (e: Exception) {
+                Timber.w(e, "Persisted cookies could not be restored from %s", file.path)
+            }
+        }
+    }
+
+    private fun persist() {
+        if (persistenceFile == null) {
+            return
+        }
+        synchronized(persistenceLock) {
+            // read again holding the lock, so nothing is written once the file was deleted
+            val file = persistenceFile ?: return
+            val serialized = StringBuilder()
+            cookiesByHost.forEach { (host, hostCookies) ->
+                hostCookies.values.forEach { cookie ->
+                    serialized.append(host).append(FIELD_SEPARATOR).append(cookie.toString()).append('\n')
+                }
+            }
+            try {
+                file.parentFile?.mkdirs()
+                val tmpFile = File(file.path + TMP_SUFFIX)
+                tmpFile.writeText(serialized.toString())
+                if (!tmpFile.renameTo(file)) {
+                    throw IOException("Could not rename ${tmpFile.path}")
+                }
+            } catch (e: IOException) {
+                Timber.w(e, "Cookies could not be persisted to %s", file.path)
+            }
+        }
+    }
+
+    private fun urlForHost(host: String): HttpUrl =
+        HttpUrl.Builder()
+            .scheme("https")
+            .host(host)
+            .build()
+
+    companion object {
+        private const val FIELD_SEPARATOR = '\t'
+        private const val TMP_SUFFIX = ".tmp"
+    }
+}
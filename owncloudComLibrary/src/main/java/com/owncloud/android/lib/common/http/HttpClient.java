@@ -40,9 +40,9 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
+import java.io.File;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -54,7 +54,7 @@ import java.util.concurrent.TimeUnit;
 
 public class HttpClient {
     private Context mContext;
-    private HashMap<String, List<Cookie>> mCookieStore = new HashMap<>();
+    private CookieStore mCookieStore = new CookieStore();
     private LogInterceptor mLogInterceptor = new LogInterceptor();
 
     private OkHttpClient mOkHttpClient = null;
@@ -77,7 +77,7 @@ public class HttpClient {
                 sslContext.init(null, new TrustManager[]{trustManager}, null);
                 final SSLSocketFactory sslSocketFactory = sslContext.getSocketFactory();
 
-                // Automatic cookie handling, NOT PERSISTENT
+                // Automatic cookie handling, persistent only if a persistence file is set
                 final CookieJar cookieJar = new CookieJarImpl(mCookieStore);
                 mOkHttpClient = buildNewOkHttpClient(sslSocketFactory, trustManager, cookieJar);
 
@@ -138,10 +138,26 @@ public class HttpClient {
     }
 
     public List<Cookie> getCookiesFromUrl(HttpUrl httpUrl) {
-        return mCookieStore.get(httpUrl.host());
+        return mCookieStore.loadCookies(httpUrl.host());
     }
 
     public void clearCookies() {
         mCookieStore.clear();
     }
+
+    /**
+     * Persists the cookies of this client in the given file, restoring the ones already saved in it.
+     *
+     * @param cookiesFile File to persist the cookies to; NULL to keep them only in memory.
+     */
+    public void setCookiesPersistenceFile(File cookiesFile) {
+        mCookieStore.setPersistenceFile(cookiesFile);
+    }
+
+    /**
+     * Deletes the file the cookies of this client are persisted to, if any, and keeps them only in memory from now on.
+     */
+    public void deleteCookiesPersistenceFile() {
+        mCookieStore.deletePersistenceFile();
+    }
 }
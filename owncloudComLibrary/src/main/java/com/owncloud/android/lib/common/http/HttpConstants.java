@@ -51,6 +51,9 @@ public class HttpConstants {
     public static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
     public static final String ACCEPT_ENCODING_IDENTITY = "identity";
     public static final String OC_FILE_REMOTE_ID = "OC-FileId";
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+    public static final String RANGE_HEADER = "Range";
+    public static final String CONTENT_RANGE_HEADER = "Content-Range";
 
     // OAuth
     public static final String OAUTH_HEADER_AUTHORIZATION_CODE = "code";
@@ -186,6 +189,8 @@ public class HttpConstants {
     // 424 Failed Dependency (WebDAV - RFC 2518)
     public static final int HTTP_FAILED_DEPENDENCY = 424;
     public static final int HTTP_TOO_EARLY = 425;
+    // 429 Too Many Requests (RFC 6585)
+    public static final int HTTP_TOO_MANY_REQUESTS = 429;
 
     /**
      * 5xx Client Error
@@ -0,0 +1,207 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.http
+
+import com.owncloud.android.lib.common.http.HttpConstants.AUTHORIZATION_HEADER
+import com.owncloud.android.lib.common.http.LogBuilder.logHttp
+import com.owncloud.android.lib.common.http.NetworkNode.BODY
+import com.owncloud.android.lib.common.http.NetworkNode.HEADER
+import com.owncloud.android.lib.common.http.NetworkNode.INFO
+import com.owncloud.android.lib.common.http.NetworkPetition.REQUEST
+import okhttp3.Headers
+import okhttp3.HttpUrl
+import okhttp3.MediaType
+import okio.ByteString
+import timber.log.Timber
+import java.nio.charset.Charset
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.math.max
+
+/**
+ * Raw data of a request or a response to log. It is captured in the network thread and formatted later by
+ * [HttpLogEmitter], so that it keeps references to immutable objects instead of building strings.
+ */
+class HttpLogRecord(
+    val networkPetition: NetworkPetition,
+    val requestId: String?,
+    val method: String,
+    val url: HttpUrl,
+    val code: Int? = null,
+    val message: String? = null,
+    val headers: Headers,
+    val body: HttpLogBody?,
+)
+
+/**
+ * Captured body of a request or a response.
+ *
+ * @param snapshot First bytes of the body, or null if they were not captured
+ * @param omittedReason Reason why the body was not captured, if any
+ */
+class HttpLogBody(
+    val contentType: MediaType?,
+    val contentLength: Long,
+    val snapshot: ByteString? = null,
+    val omittedReason: String? = null,
+)
+
+/**
+ * Emits HTTP log records from a background thread.
+ *
+ * Records are queued in a bounded ring buffer; when it is full, the oldest records are discarded so that the
+ * network threads never wait for the logs to be written.
+ */
+object HttpLogEmitter {
+
+    private const val RING_BUFFER_CAPACITY = 256
+    private const val THREAD_NAME = "HttpLogEmitter"
+
+    // The object is initialized when the first record is enqueued, so the thread is not started until needed
+    private val ringBuffer = HttpLogRingBuffer(RING_BUFFER_CAPACITY, ::emitRecord).apply { startConsumer(THREAD_NAME) }
+
+    fun enqueue(record: HttpLogRecord) {
+        ringBuffer.offer(record)
+    }
+
+    private fun emitRecord(record: HttpLogRecord, discardedBefore: Long) {
+        if (discardedBefore > 0) {
+            logHttp(record.networkPetition, INFO, record.requestId, "$discardedBefore log records discarded")
+        }
+        emit(record)
+    }
+
+    private fun emit(record: HttpLogRecord) {
+        val petition = record.networkPetition
+        val requestId = record.requestId
+
+        if (petition == REQUEST) {
+            logHttp(petition, INFO, requestId, "Method: ${record.method} URL: ${record.url}")
+        } else {
+            logHttp(
+                petition,
+                INFO,
+                requestId,
+                "Method: ${record.method} URL: ${record.url} Code: ${record.code} Message: ${record.message}"
+            )
+        }
+
+        record.headers.forEach { header ->
+            val headerValue: String = if (header.first.equals(AUTHORIZATION_HEADER, true)) {
+                "[redacted]"
+            } else {
+                header.second
+            }
+            logHttp(petition, HEADER, requestId, "${header.first}: $headerValue")
+        }
+
+        emitBody(petition, requestId, record.body)
+    }
+
+    private fun emitBody(petition: NetworkPetition, requestId: String?, body: HttpLogBody?) {
+        if (body == null) {
+            logHttp(petition, BODY, requestId, "Empty body")
+            return
+        }
+
+        body.omittedReason?.let {
+            logHttp(petition, BODY, requestId, it)
+            return
+        }
+
+        logHttp(petition, BODY, requestId, "Length: ${body.contentLength} byte body")
+        logHttp(petition, BODY, requestId, "Type: ${body.contentType}")
+        logHttp(petition, BODY, requestId, "--> Body start for $petition")
+
+        val snapshot = body.snapshot
+        if (snapshot != null) {
+            val charset: Charset = body.contentType?.charset(StandardCharsets.UTF_8) ?: StandardCharsets.UTF_8
+            logHttp(petition, BODY, requestId, snapshot.string(charset))
+            logHttp(
+                petition,
+                BODY,
+                requestId,
+                "<-- Body end for $petition -- Omitted: ${max(0, body.contentLength - snapshot.size)} bytes"
+            )
+        } else {
+            logHttp(
+                petition,
+                BODY,
+                requestId,
+                "<-- Body end for $petition -- Binary -- Omitted: ${body.contentLength} bytes"
+            )
+        }
+    }
+}
+
+/**
+ * Bounded queue of log records consumed by a single thread. When it is full, the oldest records are discarded and
+ * their number is handed to [emitRecord] along with the next record consumed.
+ */
+internal class HttpLogRingBuffer(
+    capacity: Int,
+    private val emitRecord: (record: HttpLogRecord, discardedBefore: Long) -> Unit,
+) {
+    private val records = ArrayBlockingQueue<HttpLogRecord>(capacity)
+    private val discardedRecords = AtomicLong(0)
+
+    fun offer(record: HttpLogRecord) {
+        while (!records.offer(record)) {
+            if (records.poll() != null) {
+                discardedRecords.incrementAndGet()
+            }
+        }
+    }
+
+    fun startConsumer(threadName: String): Thread =
+        Thread({ consumeLoop() }, threadName).apply {
+            isDaemon = true
+            priority = Thread.MIN_PRIORITY
+            start()
+        }
+
+    /**
+     * Waits for the next record and emits it. A record failing to be emitted is logged and skipped.
+     */
+    @Throws(InterruptedException::class)
+    fun consumeNext() {
+        val record = records.take()
+        try {
+            emitRecord(record, discardedRecords.getAndSet(0))
+        } catch (e: Exception) {
+            Timber.e(e, "HTTP log record of request %s could not be logged", record.requestId)
+        }
+    }
+
+    private fun consumeLoop() {
+        while (true) {
+            try {
+                consumeNext()
+            } catch (e: InterruptedException) {
+                return
+            }
+        }
+    }
+}
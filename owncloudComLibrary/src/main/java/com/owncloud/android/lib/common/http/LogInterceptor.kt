@@ -23,157 +23,132 @@
  */
 package com.owncloud.android.lib.common.http
 
-import com.owncloud.android.lib.common.http.HttpConstants.AUTHORIZATION_HEADER
 import com.owncloud.android.lib.common.http.HttpConstants.OC_X_REQUEST_ID
-import com.owncloud.android.lib.common.http.LogBuilder.logHttp
-import com.owncloud.android.lib.common.http.NetworkNode.BODY
-import com.owncloud.android.lib.common.http.NetworkNode.HEADER
-import com.owncloud.android.lib.common.http.NetworkNode.INFO
 import com.owncloud.android.lib.common.http.NetworkPetition.REQUEST
 import com.owncloud.android.lib.common.http.NetworkPetition.RESPONSE
-import okhttp3.Headers
+import okhttp3.HttpUrl
 import okhttp3.Interceptor
 import okhttp3.RequestBody
 import okhttp3.Response
 import okhttp3.ResponseBody
 import okio.Buffer
-import java.nio.charset.Charset
-import java.nio.charset.StandardCharsets
-import kotlin.math.max
+import java.util.concurrent.ThreadLocalRandom
+import kotlin.math.min
 
-class LogInterceptor : Interceptor {
+/**
+ * Logs HTTP requests and responses when [httpLogsEnabled] is set.
+ *
+ * Only a sample of the requests, given by [samplingRate], is logged. Bodies are only captured for the endpoints in
+ * [bodyLogEndpoints]. The network thread just captures the data to log; formatting and writing happen in
+ * [HttpLogEmitter].
+ */
+class LogInterceptor internal constructor(
+    private val enqueueRecord: (HttpLogRecord) -> Unit,
+) : Interceptor {
+
+    constructor() : this(HttpLogEmitter::enqueue)
 
     override fun intercept(chain: Interceptor.Chain): Response {
 
-        if (!httpLogsEnabled) {
+        if (!httpLogsEnabled || !isSampled()) {
             return chain.proceed(chain.request())
         }
 
-        val request = chain.request().also {
-            val requestId = it.headers[OC_X_REQUEST_ID]
-            logHttp(REQUEST, INFO, requestId, "Method: ${it.method} URL: ${it.url}")
-            logHeaders(requestId, it.headers, REQUEST)
-            logRequestBody(requestId, it.body)
-        }
+        val request = chain.request()
+        val requestId = request.headers[OC_X_REQUEST_ID]
+        val logBodies = shouldLogBodies(request.url)
+
+        enqueueRecord(
+            HttpLogRecord(
+                networkPetition = REQUEST,
+                requestId = requestId,
+                method = request.method,
+                url = request.url,
+                headers = request.headers,
+                body = captureRequestBody(request.body, logBodies),
+            )
+        )
 
         val response = chain.proceed(request)
 
-        return response.also {
-            val requestId = it.request.headers[OC_X_REQUEST_ID]
-            logHttp(
-                RESPONSE,
-                INFO,
-                requestId,
-                "Method: ${request.method} URL: ${request.url} Code: ${it.code} Message: ${it.message}"
+        enqueueRecord(
+            HttpLogRecord(
+                networkPetition = RESPONSE,
+                requestId = response.request.headers[OC_X_REQUEST_ID],
+                method = request.method,
+                url = request.url,
+                code = response.code,
+                message = response.message,
+                headers = response.headers,
+                body = captureResponseBody(response.body, logBodies),
             )
-            logHeaders(requestId, it.headers, RESPONSE)
-            logResponseBody(requestId, it.body)
-        }
-    }
+        )
 
-    private fun logHeaders(requestId: String?, headers: Headers, networkPetition: NetworkPetition) {
-        headers.forEach { header ->
-            val headerValue: String = if (header.first.equals(AUTHORIZATION_HEADER, true)) {
-                "[redacted]"
-            } else {
-                header.second
-            }
-            logHttp(networkPetition, HEADER, requestId, "${header.first}: $headerValue")
-        }
+        return response
     }
 
-    private fun logRequestBody(requestId: String?, requestBodyParam: RequestBody?) {
-        requestBodyParam?.let { requestBody ->
-
-            if (requestBody.isOneShot()) {
-                logHttp(REQUEST, BODY, requestId, "One shot body -- Omitted")
-                return@let
-            }
-
-            if (requestBody.isDuplex()) {
-                logHttp(REQUEST, BODY, requestId, "Duplex body -- Omitted")
-                return@let
-            }
+    private fun isSampled(): Boolean =
+        samplingRate >= 1f || ThreadLocalRandom.current().nextFloat() < samplingRate
 
-            val buffer = Buffer()
-            requestBody.writeTo(buffer)
+    private fun shouldLogBodies(url: HttpUrl): Boolean {
+        val path = url.encodedPath
+        return bodyLogEndpoints.any { path.contains(it) }
+    }
 
+    private fun captureRequestBody(requestBodyParam: RequestBody?, logBodies: Boolean): HttpLogBody? =
+        requestBodyParam?.let { requestBody ->
             val contentType = requestBody.contentType()
-            val charset: Charset = contentType?.charset(StandardCharsets.UTF_8) ?: StandardCharsets.UTF_8
-
-            logHttp(REQUEST, BODY, requestId, "Length: ${requestBody.contentLength()} byte body")
-            logHttp(REQUEST, BODY, requestId, "Type: ${requestBody.contentType()}")
-            logHttp(REQUEST, BODY, requestId, "--> Body start for request")
-
-            if (contentType.isLoggable()) {
-                if (requestBody.contentLength() < LIMIT_BODY_LOG) {
-                    logHttp(REQUEST, BODY, requestId, buffer.readString(charset))
-                } else {
-                    logHttp(REQUEST, BODY, requestId, buffer.readString(LIMIT_BODY_LOG, charset))
+            val contentLength = requestBody.contentLength()
+
+            when {
+                requestBody.isOneShot() -> HttpLogBody(contentType, contentLength, omittedReason = "One shot body -- Omitted")
+                requestBody.isDuplex() -> HttpLogBody(contentType, contentLength, omittedReason = "Duplex body -- Omitted")
+                !logBodies -> HttpLogBody(contentType, contentLength, omittedReason = bodyNotCapturedReason(contentLength))
+                !contentType.isLoggable() -> HttpLogBody(contentType, contentLength)
+                else -> {
+                    val buffer = Buffer()
+                    requestBody.writeTo(buffer)
+                    HttpLogBody(contentType, contentLength, buffer.readByteString(min(buffer.size, LIMIT_BODY_LOG)))
                 }
-                logHttp(
-                    REQUEST,
-                    BODY,
-                    requestId,
-                    "<-- Body end for request -- Omitted: ${max(0, requestBody.contentLength() - LIMIT_BODY_LOG)} bytes"
-                )
-            } else {
-                logHttp(
-                    REQUEST,
-                    BODY,
-                    requestId,
-                    "<-- Body end for request -- Binary -- Omitted: ${requestBody.contentLength()} bytes"
-                )
             }
+        }
 
-        } ?: logHttp(REQUEST, BODY, requestId, "Empty body")
-    }
-
-    private fun logResponseBody(requestId: String?, responseBodyParam: ResponseBody?) {
+    private fun captureResponseBody(responseBodyParam: ResponseBody?, logBodies: Boolean): HttpLogBody? =
         responseBodyParam?.let { responseBody ->
-
             val contentType = responseBody.contentType()
-            val charset: Charset = contentType?.charset(StandardCharsets.UTF_8) ?: StandardCharsets.UTF_8
-
-            logHttp(RESPONSE, BODY, requestId, "Length: ${responseBody.contentLength()} byte body")
-            logHttp(RESPONSE, BODY, requestId, "Type: ${responseBody.contentType()}")
-            logHttp(RESPONSE, BODY, requestId, "--> Body start for response")
-
-            val source = responseBody.source()
-            source.request(LIMIT_BODY_LOG)
-            val buffer = source.buffer
+            val contentLength = responseBody.contentLength()
 
-            if (contentType.isLoggable()) {
-
-                if (responseBody.contentLength() < LIMIT_BODY_LOG) {
-                    logHttp(RESPONSE, BODY, requestId, buffer.clone().readString(charset))
-                } else {
-                    logHttp(RESPONSE, BODY, requestId, buffer.clone().readString(LIMIT_BODY_LOG, charset))
-                }
-                logHttp(
-                    RESPONSE,
-                    BODY,
-                    requestId,
-                    "<-- Body end for response -- Omitted: ${
-                        max(
-                            0,
-                            responseBody.contentLength() - LIMIT_BODY_LOG
-                        )
-                    } bytes"
-                )
+            if (!logBodies) {
+                HttpLogBody(contentType, contentLength, omittedReason = bodyNotCapturedReason(contentLength))
+            } else if (!contentType.isLoggable()) {
+                HttpLogBody(contentType, contentLength)
             } else {
-                logHttp(
-                    RESPONSE,
-                    BODY,
-                    requestId,
-                    "<-- Body end for response -- Binary -- Omitted: ${responseBody.contentLength()} bytes"
-                )
+                val source = responseBody.source()
+                source.request(LIMIT_BODY_LOG)
+                val buffer = source.buffer
+                HttpLogBody(contentType, contentLength, buffer.snapshot(min(buffer.size, LIMIT_BODY_LOG).toInt()))
             }
-        } ?: logHttp(RESPONSE, BODY, requestId, "Empty body")
-    }
+        }
+
+    private fun bodyNotCapturedReason(contentLength: Long) =
+        "Body not captured for this endpoint -- Omitted: $contentLength bytes"
 
     companion object {
         var httpLogsEnabled: Boolean = false
+
+        /**
+         * Fraction of the requests to log, between 0 (none) and 1 (all).
+         */
+        @Volatile
+        var samplingRate: Float = 1f
+
+        /**
+         * Fragments of the URL paths whose request and response bodies are logged. No body is logged by default;
+         * "/" logs the bodies of every endpoint.
+         */
+        @Volatile
+        var bodyLogEndpoints: Set<String> = emptySet()
+
         private const val LIMIT_BODY_LOG: Long = 1024
     }
 }
@@ -0,0 +1,53 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.http
+
+import com.owncloud.android.lib.common.authentication.OwnCloudCredentials
+import okhttp3.Headers
+
+/**
+ * Immutable set of headers added by [com.owncloud.android.lib.common.OwnCloudClient] to every request.
+ *
+ * Built once per combination of user agent, language and credentials, so executing a request does not
+ * recompute the authorization header nor rebuild the request once per header.
+ */
+class RequestHeadersTemplate(
+    private val userAgent: String?,
+    private val language: String,
+    private val credentials: OwnCloudCredentials?,
+) {
+    val headers: Headers = Headers.Builder().apply {
+        userAgent?.let { set(HttpConstants.USER_AGENT_HEADER, it) }
+        set(HttpConstants.ACCEPT_LANGUAGE_HEADER, language)
+        set(HttpConstants.ACCEPT_ENCODING_HEADER, HttpConstants.ACCEPT_ENCODING_IDENTITY)
+        credentials?.headerAuth?.takeIf { it.isNotEmpty() }?.let { set(HttpConstants.AUTHORIZATION_HEADER, it) }
+    }.build()
+
+    /**
+     * Credentials are immutable, so they are compared by identity.
+     */
+    fun matches(userAgent: String?, language: String, credentials: OwnCloudCredentials?): Boolean =
+        this.credentials === credentials && this.language == language && this.userAgent == userAgent
+}
@@ -0,0 +1,156 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.http
+
+import com.owncloud.android.lib.common.http.methods.HttpBaseMethod
+import com.owncloud.android.lib.common.network.WebdavDateParser
+import java.io.IOException
+import java.io.InterruptedIOException
+import java.net.SocketException
+import java.net.SocketTimeoutException
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.TimeUnit
+
+/**
+ * Decides whether an [HttpBaseMethod] is executed again after a transient failure and how long to wait before.
+ *
+ * Only idempotent methods are retried (see [HttpBaseMethod.isIdempotent]), after timeouts, refused or reset
+ * connections or any of [retryableStatusCodes]. The delay grows exponentially with jitter, unless the server
+ * sent a Retry-After header; when it asks to wait longer than [maxRetryAfterMillis], the failure is returned as is.
+ *
+ * The policy of a client can be replaced with [com.owncloud.android.lib.common.OwnCloudClient.setDefaultRetryPolicy]
+ * and the one of a single method with [HttpBaseMethod.retryPolicy]; [NEVER] opts a method out of any retry.
+ * [HttpBaseMethod.retryOnConnectionFailure] is unrelated: it only tells OkHttp whether to recover from failed
+ * connections on its own.
+ */
+class RetryPolicy @JvmOverloads constructor(
+    val maxAttempts: Int = DEFAULT_MAX_ATTEMPTS,
+    val baseDelayMillis: Long = DEFAULT_BASE_DELAY_MILLIS,
+    val maxDelayMillis: Long = DEFAULT_MAX_DELAY_MILLIS,
+    val maxRetryAfterMillis: Long = DEFAULT_MAX_RETRY_AFTER_MILLIS,
+    val retryableStatusCodes: Set<Int> = DEFAULT_RETRYABLE_STATUS_CODES,
+) {
+
+    init {
+        require(maxAttempts >= 1) { "At least one attempt is needed" }
+        require(baseDelayMillis >= 0 && maxDelayMillis >= baseDelayMillis) { "Invalid delays" }
+    }
+
+    /**
+     * @param attempt number of the attempt that just finished, starting at 1
+     * @return milliseconds to wait before executing [method] again after it ended with [status], or [NO_RETRY]
+     */
+    fun retryDelayMillis(method: HttpBaseMethod, attempt: Int, status: Int): Long {
+        if (status !in retryableStatusCodes || !canRetry(method, attempt)) {
+            return NO_RETRY
+        }
+        val retryAfterMillis = method.responseHeaderOrNull(HttpConstants.RETRY_AFTER_HEADER)
+            ?.let { parseRetryAfterMillis(it, System.currentTimeMillis()) }
+        return when {
+            retryAfterMillis == null -> backoffMillis(attempt)
+            retryAfterMillis > maxRetryAfterMillis -> NO_RETRY
+            else -> retryAfterMillis
+        }
+    }
+
+    /**
+     * @param attempt number of the attempt that just finished, starting at 1
+     * @return milliseconds to wait before executing [method] again after it failed with [exception], or [NO_RETRY]
+     */
+    fun retryDelayMillis(method: HttpBaseMethod, attempt: Int, exception: Exception): Long =
+        if (isTransient(exception) && canRetry(method, attempt)) backoffMillis(attempt) else NO_RETRY
+
+    private fun canRetry(method: HttpBaseMethod, attempt: Int): Boolean =
+        attempt < maxAttempts && method.isIdempotent && !method.isAborted
+
+    /**
+     * Exponential backoff with equal jitter: half of the delay is fixed and the other half random, so clients
+     * failing at the same time do not come back at the same time.
+     */
+    internal fun backoffMillis(attempt: Int): Long {
+        val exponential = (baseDelayMillis shl (attempt - 1).coerceIn(0, MAX_SHIFT)).coerceAtMost(maxDelayMillis)
+        val half = exponential / 2
+        return half + ThreadLocalRandom.current().nextLong(exponential - half + 1)
+    }
+
+    private fun HttpBaseMethod.responseHeaderOrNull(name: String): String? =
+        try {
+            getResponseHeader(name)
+        } catch (e: UninitializedPropertyAccessException) {
+            null
+        }
+
+    companion object {
+        const val NO_RETRY = -1L
+
+        private const val DEFAULT_MAX_ATTEMPTS = 3
+        private const val DEFAULT_BASE_DELAY_MILLIS = 500L
+        private const val DEFAULT_MAX_DELAY_MILLIS = 10_000L
+        private const val DEFAULT_MAX_RETRY_AFTER_MILLIS = 60_000L
+        private const val MAX_SHIFT = 20
+
+        private val DEFAULT_RETRYABLE_STATUS_CODES = setOf(
+            HttpConstants.HTTP_TOO_MANY_REQUESTS,
+            HttpConstants.HTTP_BAD_GATEWAY,
+            HttpConstants.HTTP_SERVICE_UNAVAILABLE,
+            HttpConstants.HTTP_GATEWAY_TIMEOUT,
+        )
+
+        @JvmField
+        val DEFAULT = RetryPolicy()
+
+        @JvmField
+        val NEVER = RetryPolicy(maxAttempts = 1)
+
+        /**
+         * Timeouts and connections refused, reset or closed by the server are worth another try; cancellations,
+         * unknown hosts or TLS errors are not.
+         */
+        @JvmStatic
+        fun isTransient(exception: Exception): Boolean =
+            when (exception) {
+                is SocketTimeoutException -> true
+                is InterruptedIOException -> false
+                is SocketException -> true
+                is IOException -> exception.javaClass.simpleName == "StreamResetException" ||
+                        exception.message?.startsWith("unexpected end of stream") == true
+                else -> false
+            }
+
+        /**
+         * Parses a Retry-After value, either delay seconds or an HTTP date.
+         *
+         * @return milliseconds to wait, or null if the value cannot be parsed
+         */
+        @JvmStatic
+        fun parseRetryAfterMillis(value: String, nowMillis: Long): Long? {
+            val trimmed = value.trim()
+            trimmed.toLongOrNull()?.let { seconds ->
+                return if (seconds >= 0) TimeUnit.SECONDS.toMillis(seconds) else null
+            }
+            return WebdavDateParser.parse(trimmed)?.let { (it.time - nowMillis).coerceAtLeast(0) }
+        }
+    }
+}
@@ -25,6 +25,8 @@
 package com.owncloud.android.lib.common.http.methods
 
 import com.owncloud.android.lib.common.http.HttpClient
+import com.owncloud.android.lib.common.http.HttpConstants
+import com.owncloud.android.lib.common.http.RetryPolicy
 import okhttp3.Call
 import okhttp3.Headers
 import okhttp3.HttpUrl
@@ -53,6 +55,18 @@ abstract class HttpBaseMethod constructor(url: URL) {
     var readTimeoutUnit: TimeUnit? = null
         private set
 
+    /**
+     * Retry policy for this method; when null, the default one of the client executing it is used.
+     */
+    var retryPolicy: RetryPolicy? = null
+
+    /**
+     * Whether executing the method again has the same effect on the server as executing it once, so it can be
+     * retried after a transient failure. False unless the subclass knows better.
+     */
+    open val isIdempotent: Boolean
+        get() = false
+
     init {
         request = Request.Builder()
             .url(httpUrl)
@@ -90,10 +104,11 @@ abstract class HttpBaseMethod constructor(url: URL) {
     }
 
     fun getRequestHeadersAsHashMap(): HashMap<String, String?> {
-        val headers: HashMap<String, String?> = HashMap()
-        val superHeaders: Set<String> = request.headers.names()
-        superHeaders.forEach {
-            headers[it] = getRequestHeader(it)
+        val requestHeaders = request.headers
+        val headers: HashMap<String, String?> = HashMap(requestHeaders.size * 2)
+        // Last value wins, the same value Request.header(name) returns, without a lookup per name
+        for (i in 0 until requestHeaders.size) {
+            headers[requestHeaders.name(i)] = requestHeaders.value(i)
         }
         return headers
     }
@@ -116,6 +131,24 @@ abstract class HttpBaseMethod constructor(url: URL) {
             .build()
     }
 
+    /**
+     * Sets every header of the template, replacing existing ones with the same names, plus the request id.
+     * Unlike calling [setRequestHeader] once per header, the request is rebuilt only once.
+     *
+     * @param template  headers shared by every request of a client
+     * @param requestId value for [HttpConstants.OC_X_REQUEST_ID]
+     */
+    open fun setRequestHeaders(template: Headers, requestId: String) {
+        val builder = request.headers.newBuilder()
+        for (i in 0 until template.size) {
+            builder[template.name(i)] = template.value(i)
+        }
+        builder[HttpConstants.OC_X_REQUEST_ID] = requestId
+        request = request.newBuilder()
+            .headers(builder.build())
+            .build()
+    }
+
     /****************
      *** Response ***
      ****************/
@@ -146,6 +179,17 @@ abstract class HttpBaseMethod constructor(url: URL) {
      */
     open fun getFinalUrl() = response.request.url
 
+    /**
+     * Closes the body of the last response, if any, so its connection is released before executing again.
+     */
+    fun closeResponse() {
+        try {
+            response.body?.close()
+        } catch (e: UninitializedPropertyAccessException) {
+            // not executed yet
+        }
+    }
+
     /*************************
      *** Connection Params ***
      *************************/
@@ -33,6 +33,9 @@ import java.net.URL
  * @author David González Verdugo
  */
 class GetMethod(url: URL) : HttpMethod(url) {
+    override val isIdempotent: Boolean
+        get() = true
+
     @Throws(IOException::class)
     override fun onExecute(okHttpClient: OkHttpClient): Int {
         request = request.newBuilder()
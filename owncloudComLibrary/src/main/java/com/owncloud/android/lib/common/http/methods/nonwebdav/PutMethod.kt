@@ -24,6 +24,7 @@
 package com.owncloud.android.lib.common.http.methods.nonwebdav
 
 import okhttp3.OkHttpClient
+import com.owncloud.android.lib.common.network.isRepeatable
 import okhttp3.RequestBody
 import java.io.IOException
 import java.net.URL
@@ -37,6 +38,13 @@ class PutMethod(
     url: URL,
     private val putRequestBody: RequestBody
 ) : HttpMethod(url) {
+    /**
+     * PUT replaces the whole resource, so sending it again is safe as long as the body can be written again.
+     * An If-Match precondition, when set, also keeps a replay from overwriting a newer version.
+     */
+    override val isIdempotent: Boolean
+        get() = putRequestBody.isRepeatable()
+
     @Throws(IOException::class)
     override fun onExecute(okHttpClient: OkHttpClient): Int {
         request = request.newBuilder()
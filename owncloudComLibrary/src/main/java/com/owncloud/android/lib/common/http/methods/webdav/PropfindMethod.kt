@@ -34,12 +34,16 @@ import java.net.URL
 /**
  * Propfind calls wrapper
  *
+ * @param onResponse if set, gets every response while the multistatus is parsed, instead of keeping them in
+ *                   [root] and [members]. Those responses cannot be taken back, so the method is then not retried.
+ *
  * @author David González Verdugo
  */
-class PropfindMethod(
+class PropfindMethod @JvmOverloads constructor(
     url: URL,
     private val depth: Int,
-    private val propertiesToRequest: Array<Property.Name>
+    private val propertiesToRequest: Array<Property.Name>,
+    private val onResponse: ((Response, HrefRelation) -> Unit)? = null,
 ) : DavMethod(url) {
 
     // response
@@ -47,17 +51,27 @@ class PropfindMethod(
     var root: Response?
         private set
 
+    override val isIdempotent: Boolean
+        get() = onResponse == null
+
     @Throws(IOException::class, DavException::class)
     public override fun onDavExecute(davResource: DavOCResource): Int {
+        // Start from scratch if the method is executed again, e.g. when retried
+        members.clear()
+        root = null
         davResource.propfind(
             depth = depth,
             reqProp = propertiesToRequest,
             listOfHeaders = super.getRequestHeadersAsHashMap(),
             callback = { response: Response, hrefRelation: HrefRelation ->
-                when (hrefRelation) {
-                    HrefRelation.MEMBER -> members.add(response)
-                    HrefRelation.SELF -> this.root = response
-                    HrefRelation.OTHER -> {
+                if (onResponse != null) {
+                    onResponse.invoke(response, hrefRelation)
+                } else {
+                    when (hrefRelation) {
+                        HrefRelation.MEMBER -> members.add(response)
+                        HrefRelation.SELF -> this.root = response
+                        HrefRelation.OTHER -> {
+                        }
                     }
                 }
             }, rawCallback = { callBackResponse: okhttp3.Response ->
@@ -0,0 +1,87 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.http.methods.webdav
+
+import at.bitfire.dav4jvm.Property
+import at.bitfire.dav4jvm.property.CreationDate
+import at.bitfire.dav4jvm.property.DisplayName
+import at.bitfire.dav4jvm.property.GetContentLength
+import at.bitfire.dav4jvm.property.GetContentType
+import at.bitfire.dav4jvm.property.GetETag
+import at.bitfire.dav4jvm.property.GetLastModified
+import at.bitfire.dav4jvm.property.OCId
+import at.bitfire.dav4jvm.property.OCPermissions
+import at.bitfire.dav4jvm.property.OCSize
+import at.bitfire.dav4jvm.property.ResourceType
+
+/**
+ * Named sets of properties to request in a PROPFIND, from the cheapest to the most expensive one for the server.
+ *
+ * Entries read with any profile but [FULL] are only partially populated, see
+ * [com.owncloud.android.lib.resources.files.RemoteFile.getRemoteFileFromDav].
+ */
+enum class PropfindProfile(val properties: Array<Property.Name>) {
+    /** Whether the path exists, and whether it is a folder */
+    EXISTENCE(
+        arrayOf(
+            ResourceType.NAME,
+        )
+    ),
+
+    /** Enough to detect changes, when the path is already known to exist */
+    ETAG(
+        arrayOf(
+            GetETag.NAME,
+        )
+    ),
+
+    /** Enough to detect changes and moves */
+    ETAG_AND_ID(
+        arrayOf(
+            ResourceType.NAME,
+            GetETag.NAME,
+            OCId.NAME,
+        )
+    ),
+
+    /** Everything needed to show a folder listing, without the private link and the share types */
+    LISTING(
+        arrayOf(
+            DisplayName.NAME,
+            GetContentType.NAME,
+            ResourceType.NAME,
+            GetContentLength.NAME,
+            GetLastModified.NAME,
+            CreationDate.NAME,
+            GetETag.NAME,
+            OCPermissions.NAME,
+            OCId.NAME,
+            OCSize.NAME,
+        )
+    ),
+
+    /** Every property, the same as [DavUtils.allPropSet] */
+    FULL(DavUtils.allPropSet),
+}
@@ -26,6 +26,7 @@ package com.owncloud.android.lib.common.http.methods.webdav
 import at.bitfire.dav4jvm.DavOCResource
 import at.bitfire.dav4jvm.exception.HttpException
 import com.owncloud.android.lib.common.http.HttpConstants
+import com.owncloud.android.lib.common.network.isRepeatable
 import okhttp3.RequestBody
 import java.io.IOException
 import java.net.URL
@@ -39,6 +40,13 @@ class PutMethod(
     url: URL,
     private val putRequestBody: RequestBody
 ) : DavMethod(url) {
+    /**
+     * PUT replaces the whole resource, so sending it again is safe as long as the body can be written again.
+     * An If-Match precondition, when set, also keeps a replay from overwriting a newer version.
+     */
+    override val isIdempotent: Boolean
+        get() = putRequestBody.isRepeatable()
+
     @Throws(IOException::class, HttpException::class)
     public override fun onDavExecute(davResource: DavOCResource): Int {
         davResource.put(
@@ -0,0 +1,119 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.http.methods.webdav
+
+import at.bitfire.dav4jvm.Property
+import at.bitfire.dav4jvm.Response
+import at.bitfire.dav4jvm.Response.HrefRelation
+import at.bitfire.dav4jvm.XmlUtils
+import com.owncloud.android.lib.common.http.HttpConstants
+import com.owncloud.android.lib.common.http.methods.nonwebdav.HttpMethod
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.OkHttpClient
+import okhttp3.RequestBody.Companion.toRequestBody
+import org.xmlpull.v1.XmlPullParser
+import java.io.IOException
+import java.io.StringWriter
+import java.net.URL
+
+/**
+ * `oc:search-files` REPORT, supported by the files and spaces WebDAV endpoints.
+ *
+ * The multistatus response is parsed while it is read from the network, handing every entry found to
+ * [onResponse] so it does not need to be kept once mapped.
+ *
+ * @param pattern             text to search in the names of the files
+ * @param limit               maximum number of results to return
+ * @param propertiesToRequest properties to return for every result
+ */
+class SearchFilesMethod(
+    url: URL,
+    private val pattern: String,
+    private val limit: Int,
+    private val propertiesToRequest: Array<Property.Name>,
+    private val onResponse: (Response) -> Unit,
+) : HttpMethod(url) {
+
+    @Throws(IOException::class)
+    override fun onExecute(okHttpClient: OkHttpClient): Int {
+        request = request.newBuilder()
+            .method(REPORT_METHOD, buildRequestBody().toRequestBody(HttpConstants.CONTENT_TYPE_XML.toMediaType()))
+            .build()
+        val status = super.onExecute(okHttpClient)
+        if (status == HttpConstants.HTTP_MULTI_STATUS) {
+            response.body?.use { parseMultiStatus(XmlUtils.newPullParser().apply { setInput(it.charStream()) }) }
+        }
+        return status
+    }
+
+    private fun parseMultiStatus(parser: XmlPullParser) {
+        var eventType = parser.eventType
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            if (eventType == XmlPullParser.START_TAG && parser.depth == RESPONSE_DEPTH &&
+                parser.namespace == XmlUtils.NS_WEBDAV && parser.name == RESPONSE_TAG
+            ) {
+                Response.parse(parser, httpUrl) { response, relation ->
+                    if (relation != HrefRelation.SELF) onResponse(response)
+                }
+            }
+            eventType = parser.next()
+        }
+    }
+
+    private fun buildRequestBody(): String {
+        val writer = StringWriter()
+        XmlUtils.newSerializer().apply {
+            setOutput(writer)
+            startDocument("UTF-8", null)
+            setPrefix("d", XmlUtils.NS_WEBDAV)
+            setPrefix("oc", XmlUtils.NS_OWNCLOUD)
+            startTag(XmlUtils.NS_OWNCLOUD, "search-files")
+            startTag(XmlUtils.NS_WEBDAV, "prop")
+            propertiesToRequest.forEach {
+                startTag(it.namespace, it.name)
+                endTag(it.namespace, it.name)
+            }
+            endTag(XmlUtils.NS_WEBDAV, "prop")
+            startTag(XmlUtils.NS_OWNCLOUD, "search")
+            startTag(XmlUtils.NS_OWNCLOUD, "pattern")
+            text(pattern)
+            endTag(XmlUtils.NS_OWNCLOUD, "pattern")
+            startTag(XmlUtils.NS_OWNCLOUD, "limit")
+            text(limit.toString())
+            endTag(XmlUtils.NS_OWNCLOUD, "limit")
+            endTag(XmlUtils.NS_OWNCLOUD, "search")
+            endTag(XmlUtils.NS_OWNCLOUD, "search-files")
+            endDocument()
+        }
+        return writer.toString()
+    }
+
+    companion object {
+        private const val REPORT_METHOD = "REPORT"
+        private const val RESPONSE_TAG = "response"
+
+        // multistatus is at depth 1, so its responses are at depth 2
+        private const val RESPONSE_DEPTH = 2
+    }
+}
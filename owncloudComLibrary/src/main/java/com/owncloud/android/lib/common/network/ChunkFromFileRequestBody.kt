@@ -44,44 +44,49 @@ class ChunkFromFileRequestBody(
 ) : FileRequestBody(file, contentType) {
 
     private var offset: Long = 0
-    private var alreadyTransferred: Long = 0
     private val buffer = ByteBuffer.allocate(4_096)
 
     init {
         require(chunkSize > 0) { "Chunk size must be greater than zero" }
     }
 
+    // From the offset and not from the position of the channel, which is already past the chunk if it was sent before
     override fun contentLength(): Long {
-        return chunkSize.coerceAtMost(channel.size() - channel.position())
+        return chunkSize.coerceAtMost(channel.size() - offset)
     }
 
     override fun writeTo(sink: BufferedSink) {
         var readCount: Int
         var iterator: Iterator<OnDatatransferProgressListener>
+        // Counted per attempt, so a retried chunk reports its progress again from its offset
+        var transferred = offset
         try {
             channel.position(offset)
 
             val maxCount = (offset + chunkSize).coerceAtMost(channel.size())
             while (channel.position() < maxCount) {
+                val positionBeforeRead = channel.position()
                 readCount = channel.read(buffer)
-                val bytesToWriteInBuffer = readCount.toLong().coerceAtMost(file.length() - alreadyTransferred).toInt()
+                if (readCount < 0) {
+                    break
+                }
+                // The buffer may go past the end of the chunk
+                val bytesToWriteInBuffer = readCount.toLong().coerceAtMost(maxCount - positionBeforeRead).toInt()
                 sink.buffer.write(buffer.array(), 0, bytesToWriteInBuffer)
                 sink.flush()
                 buffer.clear()
-
-                if (alreadyTransferred < maxCount) {  // condition to avoid accumulate progress for repeated chunks
-                    alreadyTransferred += readCount.toLong()
-                }
+                transferred += bytesToWriteInBuffer
 
                 synchronized(dataTransferListeners) {
                     iterator = dataTransferListeners.iterator()
                     while (iterator.hasNext()) {
-                        iterator.next().onTransferProgress(readCount.toLong(), alreadyTransferred, file.length(), file.absolutePath)
+                        iterator.next().onTransferProgress(bytesToWriteInBuffer.toLong(), transferred, file.length(), file.absolutePath)
                     }
                 }
             }
         } catch (exception: Exception) {
-            Timber.e(exception, "Transferred " + alreadyTransferred + " bytes from a total of " + file.length())
+            Timber.e(exception, "Transferred " + transferred + " bytes from a total of " + file.length())
+            throw exception
         }
     }
 
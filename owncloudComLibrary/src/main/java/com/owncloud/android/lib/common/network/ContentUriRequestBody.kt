@@ -39,7 +39,7 @@ import java.io.IOException
 class ContentUriRequestBody(
     private val contentResolver: ContentResolver,
     private val contentUri: Uri
-) : RequestBody(), ProgressiveDataTransferer {
+) : RequestBody(), ProgressiveDataTransferer, RepeatableRequestBody {
 
     private val dataTransferListeners: MutableSet<OnDatatransferProgressListener> = HashSet()
 
@@ -64,8 +64,9 @@ class ContentUriRequestBody(
 
         val previousTime = System.currentTimeMillis()
 
-        sink.writeAndUpdateProgress(inputStream.source())
-        inputStream.source().close()
+        inputStream.source().use { source ->
+            sink.writeAndUpdateProgress(source)
+        }
 
         val laterTime = System.currentTimeMillis()
 
@@ -90,6 +91,7 @@ class ContentUriRequestBody(
             }
         } catch (e: Exception) {
             Timber.e(e)
+            throw e
         }
     }
 
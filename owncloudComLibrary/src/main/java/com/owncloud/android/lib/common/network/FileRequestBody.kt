@@ -26,7 +26,6 @@ package com.owncloud.android.lib.common.network
 import okhttp3.MediaType
 import okhttp3.RequestBody
 import okio.BufferedSink
-import okio.Source
 import okio.source
 import timber.log.Timber
 import java.io.File
@@ -40,7 +39,7 @@ import java.util.HashSet
 open class FileRequestBody(
     val file: File,
     private val contentType: MediaType?,
-) : RequestBody(), ProgressiveDataTransferer {
+) : RequestBody(), ProgressiveDataTransferer, RepeatableRequestBody {
 
     val dataTransferListeners: MutableSet<OnDatatransferProgressListener> = HashSet()
 
@@ -51,25 +50,28 @@ open class FileRequestBody(
     override fun contentLength(): Long = file.length()
 
     override fun writeTo(sink: BufferedSink) {
-        val source: Source
         var it: Iterator<OnDatatransferProgressListener>
         try {
-            source = file.source()
-            var transferred: Long = 0
-            var read: Long
-            while (source.read(sink.buffer, BYTES_TO_READ).also { read = it } != -1L) {
-                transferred += read
-                sink.flush()
-                synchronized(dataTransferListeners) {
-                    it = dataTransferListeners.iterator()
-                    while (it.hasNext()) {
-                        it.next().onTransferProgress(read, transferred, file.length(), file.absolutePath)
+            // Closed after every write, as the body may be written again when the request is retried
+            file.source().use { source ->
+                var transferred: Long = 0
+                var read: Long
+                while (source.read(sink.buffer, BYTES_TO_READ).also { read = it } != -1L) {
+                    transferred += read
+                    sink.flush()
+                    synchronized(dataTransferListeners) {
+                        it = dataTransferListeners.iterator()
+                        while (it.hasNext()) {
+                            it.next().onTransferProgress(read, transferred, file.length(), file.absolutePath)
+                        }
                     }
                 }
             }
             Timber.d("File with name ${file.name} and size ${file.length()} written in request body")
         } catch (e: Exception) {
+            // Rethrown, so a body that was not fully written fails the request instead of being sent truncated
             Timber.e(e)
+            throw e
         }
     }
 
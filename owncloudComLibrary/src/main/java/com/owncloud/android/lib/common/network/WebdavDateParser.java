@@ -0,0 +1,514 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.network;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Thread safe parser for the dates found in WebDAV responses and HTTP headers.
+ * <p>
+ * Supports RFC 1123 ("Sun, 06 Nov 1994 08:49:37 GMT"), RFC 850 ("Sunday, 06-Nov-94 08:49:37 GMT"), ANSI C asctime
+ * ("Sun Nov  6 08:49:37 1994"), {@link Date#toString()} ("Sun Nov 06 08:49:37 GMT 1994") and ISO 8601
+ * ("1994-11-06T08:49:37Z", "1994-11-06T08:49:37.123Z", "1994-11-06T08:49:37+0100", "1994-11-06 08:49:37").
+ * <p>
+ * The format is detected from the shape of the input, which is scanned once without allocating nor throwing
+ * exceptions, and without any shared state. Inputs not matching the expected shapes are parsed with the legacy
+ * {@link SimpleDateFormat} patterns, confined to the calling thread.
+ */
+public final class WebdavDateParser {
+
+    private static final long INVALID = Long.MIN_VALUE;
+
+    private static final String MONTHS = "janfebmaraprmayjunjulaugsepoctnovdec";
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    private static final String[] LEGACY_PATTERNS = {
+            "yyyy-MM-dd'T'HH:mm:ss'Z'",
+            "EEE, dd MMM yyyy HH:mm:ss zzz",
+            "yyyy-MM-dd'T'HH:mm:ss.sss'Z'",
+            "yyyy-MM-dd'T'HH:mm:ssZ",
+            "EEE MMM dd HH:mm:ss zzz yyyy",
+            "EEEEEE, dd-MMM-yy HH:mm:ss zzz",
+            "EEE MMMM d HH:mm:ss yyyy",
+            "yyyy-MM-dd hh:mm:ss"
+    };
+
+    private static final ThreadLocal<SimpleDateFormat[]> LEGACY_FORMATS = new ThreadLocal<SimpleDateFormat[]>() {
+        @Override
+        protected SimpleDateFormat[] initialValue() {
+            SimpleDateFormat[] formats = new SimpleDateFormat[LEGACY_PATTERNS.length];
+            for (int i = 0; i < LEGACY_PATTERNS.length; i++) {
+                formats[i] = new SimpleDateFormat(LEGACY_PATTERNS[i], Locale.US);
+            }
+            return formats;
+        }
+    };
+
+    private WebdavDateParser() {
+    }
+
+    /**
+     * @param date Date in any of the supported formats
+     * @return parsed date, or null if the input is not a date in any of the supported formats
+     */
+    public static Date parse(String date) {
+        if (date == null) {
+            return null;
+        }
+        long millis = parseMillis(date);
+        if (millis != INVALID) {
+            return new Date(millis);
+        }
+        return parseLegacy(date);
+    }
+
+    /**
+     * Parses the supported formats without falling back to {@link SimpleDateFormat}.
+     *
+     * @param date Date in any of the supported formats
+     * @return milliseconds since the epoch, or {@link Long#MIN_VALUE} if the input does not have a supported shape
+     */
+    static long parseMillis(String date) {
+        int start = 0;
+        int end = date.length();
+        while (start < end && date.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && date.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return INVALID;
+        }
+        char first = date.charAt(start);
+        if (isDigit(first)) {
+            return parseIso(date, start, end);
+        } else if (isLetter(first)) {
+            return parseTextual(date, start, end);
+        }
+        return INVALID;
+    }
+
+    /**
+     * yyyy-MM-dd'T'HH:mm:ss[.SSS][Z|+hhmm|+hh:mm] or yyyy-MM-dd HH:mm:ss, in local time when there is no zone
+     */
+    private static long parseIso(String s, int p, int end) {
+        if (end - p < 19) {
+            return INVALID;
+        }
+        int year = digits(s, p, 4);
+        int month = digits(s, p + 5, 2);
+        int day = digits(s, p + 8, 2);
+        int hour = digits(s, p + 11, 2);
+        int minute = digits(s, p + 14, 2);
+        int second = digits(s, p + 17, 2);
+        char separator = s.charAt(p + 10);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0 ||
+                s.charAt(p + 4) != '-' || s.charAt(p + 7) != '-' ||
+                (separator != 'T' && separator != 't' && separator != ' ') ||
+                s.charAt(p + 13) != ':' || s.charAt(p + 16) != ':') {
+            return INVALID;
+        }
+        int pos = p + 19;
+
+        int millis = 0;
+        if (pos < end && s.charAt(pos) == '.') {
+            pos++;
+            int fractionDigits = 0;
+            while (pos < end && isDigit(s.charAt(pos))) {
+                if (fractionDigits < 3) {
+                    millis = millis * 10 + (s.charAt(pos) - '0');
+                }
+                fractionDigits++;
+                pos++;
+            }
+            if (fractionDigits == 0) {
+                return INVALID;
+            }
+            for (int i = fractionDigits; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+
+        long local = toLocalMillis(year, month, day, hour, minute, second);
+        if (local == INVALID) {
+            return INVALID;
+        }
+        local += millis;
+
+        if (pos == end) {
+            return localTimeToUtc(local);
+        }
+        long offset = parseZone(s, pos, end);
+        return offset == INVALID ? INVALID : local - offset;
+    }
+
+    /**
+     * RFC 1123, RFC 850, asctime and {@link Date#toString()} formats; all of them start with the name of the day
+     */
+    private static long parseTextual(String s, int p, int end) {
+        int pos = skipLetters(s, p, end);
+        if (pos < end && s.charAt(pos) == ',') {
+            return parseWithDayNameComma(s, skipSpaces(s, pos + 1, end), end);
+        }
+        return parseWithoutComma(s, skipSpaces(s, pos, end), end);
+    }
+
+    /**
+     * dd MMM yyyy HH:mm:ss zzz (RFC 1123) or dd-MMM-yy HH:mm:ss zzz (RFC 850)
+     */
+    private static long parseWithDayNameComma(String s, int pos, int end) {
+        int dayEnd = skipDigits(s, pos, end);
+        int day = digits(s, pos, dayEnd - pos);
+        if (day < 0 || dayEnd - pos > 2 || dayEnd >= end) {
+            return INVALID;
+        }
+        boolean rfc850 = s.charAt(dayEnd) == '-';
+        pos = rfc850 ? dayEnd + 1 : skipSpaces(s, dayEnd, end);
+
+        int monthEnd = skipLetters(s, pos, end);
+        int month = month(s, pos, monthEnd);
+        if (month < 0 || monthEnd >= end) {
+            return INVALID;
+        }
+        if (rfc850) {
+            if (s.charAt(monthEnd) != '-') {
+                return INVALID;
+            }
+            pos = monthEnd + 1;
+        } else {
+            pos = skipSpaces(s, monthEnd, end);
+        }
+
+        int yearEnd = skipDigits(s, pos, end);
+        int year = digits(s, pos, yearEnd - pos);
+        if (year < 0) {
+            return INVALID;
+        }
+        if (yearEnd - pos == 2) {
+            year += year < 70 ? 2000 : 1900;
+        } else if (yearEnd - pos != 4) {
+            return INVALID;
+        }
+        pos = skipSpaces(s, yearEnd, end);
+
+        long local = parseTime(s, pos, end, year, month, day);
+        if (local == INVALID) {
+            return INVALID;
+        }
+        pos = skipSpaces(s, pos + 8, end);
+        long offset = parseZone(s, pos, end);
+        return offset == INVALID ? INVALID : local - offset;
+    }
+
+    /**
+     * MMM d HH:mm:ss yyyy (asctime, always GMT) or MMM dd HH:mm:ss zzz yyyy ({@link Date#toString()})
+     */
+    private static long parseWithoutComma(String s, int pos, int end) {
+        int monthEnd = skipLetters(s, pos, end);
+        int month = month(s, pos, monthEnd);
+        if (month < 0) {
+            return INVALID;
+        }
+        pos = skipSpaces(s, monthEnd, end);
+
+        int dayEnd = skipDigits(s, pos, end);
+        int day = digits(s, pos, dayEnd - pos);
+        if (day < 0 || dayEnd - pos > 2) {
+            return INVALID;
+        }
+        pos = skipSpaces(s, dayEnd, end);
+
+        int timePos = pos;
+        pos = skipSpaces(s, pos + 8, end);
+        if (pos >= end) {
+            return INVALID;
+        }
+
+        long offset = 0;
+        if (!isDigit(s.charAt(pos))) {
+            int zoneEnd = pos;
+            while (zoneEnd < end && s.charAt(zoneEnd) != ' ') {
+                zoneEnd++;
+            }
+            offset = parseZone(s, pos, zoneEnd);
+            if (offset == INVALID) {
+                return INVALID;
+            }
+            pos = skipSpaces(s, zoneEnd, end);
+        }
+
+        int year = digits(s, pos, end - pos);
+        if (year < 0 || end - pos != 4) {
+            return INVALID;
+        }
+        long local = parseTime(s, timePos, end, year, month, day);
+        return local == INVALID ? INVALID : local - offset;
+    }
+
+    /**
+     * Parses HH:mm:ss at the given position, combined with the given date
+     */
+    private static long parseTime(String s, int pos, int end, int year, int month, int day) {
+        if (end - pos < 8 || s.charAt(pos + 2) != ':' || s.charAt(pos + 5) != ':') {
+            return INVALID;
+        }
+        int hour = digits(s, pos, 2);
+        int minute = digits(s, pos + 3, 2);
+        int second = digits(s, pos + 6, 2);
+        if (hour < 0 || minute < 0 || second < 0) {
+            return INVALID;
+        }
+        return toLocalMillis(year, month, day, hour, minute, second);
+    }
+
+    /**
+     * @return offset from UTC of the zone in the given range, in milliseconds
+     */
+    private static long parseZone(String s, int pos, int end) {
+        if (pos >= end) {
+            return INVALID;
+        }
+        char c = s.charAt(pos);
+        if (c == '+' || c == '-') {
+            return parseNumericOffset(s, pos, end);
+        }
+        int nameEnd = skipLetters(s, pos, end);
+        long offset = namedZoneOffset(s, pos, nameEnd);
+        if (offset == INVALID) {
+            return INVALID;
+        }
+        if (nameEnd == end) {
+            return offset;
+        }
+        // GMT+01:00 and similar
+        long numericOffset = parseNumericOffset(s, nameEnd, end);
+        return numericOffset == INVALID ? INVALID : offset + numericOffset;
+    }
+
+    /**
+     * +hh, +hhmm or +hh:mm
+     */
+    private static long parseNumericOffset(String s, int pos, int end) {
+        char sign = s.charAt(pos);
+        if (sign != '+' && sign != '-') {
+            return INVALID;
+        }
+        int length = end - pos - 1;
+        int hours = digits(s, pos + 1, 2);
+        int minutes;
+        if (length == 2) {
+            minutes = 0;
+        } else if (length == 4) {
+            minutes = digits(s, pos + 3, 2);
+        } else if (length == 5 && s.charAt(pos + 3) == ':') {
+            minutes = digits(s, pos + 4, 2);
+        } else {
+            return INVALID;
+        }
+        if (hours < 0 || minutes < 0 || hours > 23 || minutes > 59) {
+            return INVALID;
+        }
+        long offset = hours * MILLIS_PER_HOUR + minutes * MILLIS_PER_MINUTE;
+        return sign == '-' ? -offset : offset;
+    }
+
+    private static long namedZoneOffset(String s, int start, int end) {
+        switch (end - start) {
+            case 1:
+                return (s.charAt(start) == 'Z' || s.charAt(start) == 'z') ? 0 : INVALID;
+            case 2:
+                return s.regionMatches(true, start, "UT", 0, 2) ? 0 : INVALID;
+            case 3:
+                if (s.regionMatches(true, start, "GMT", 0, 3) || s.regionMatches(true, start, "UTC", 0, 3)) {
+                    return 0;
+                }
+                return usZoneOffset(s, start);
+            default:
+                return INVALID;
+        }
+    }
+
+    /**
+     * Zones defined in RFC 822
+     */
+    private static long usZoneOffset(String s, int start) {
+        if (!s.regionMatches(true, start + 2, "T", 0, 1)) {
+            return INVALID;
+        }
+        boolean daylight;
+        char standardOrDaylight = Character.toUpperCase(s.charAt(start + 1));
+        if (standardOrDaylight == 'S') {
+            daylight = false;
+        } else if (standardOrDaylight == 'D') {
+            daylight = true;
+        } else {
+            return INVALID;
+        }
+        int hours;
+        switch (Character.toUpperCase(s.charAt(start))) {
+            case 'E':
+                hours = -5;
+                break;
+            case 'C':
+                hours = -6;
+                break;
+            case 'M':
+                hours = -7;
+                break;
+            case 'P':
+                hours = -8;
+                break;
+            default:
+                return INVALID;
+        }
+        return (daylight ? hours + 1 : hours) * MILLIS_PER_HOUR;
+    }
+
+    /**
+     * @return month between 1 and 12 from its English name or abbreviation, or -1
+     */
+    private static int month(String s, int start, int end) {
+        if (end - start < 3) {
+            return -1;
+        }
+        for (int i = 0; i < 12; i++) {
+            if (s.regionMatches(true, start, MONTHS, i * 3, 3)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return milliseconds since the epoch of the given date and time taken as UTC, or INVALID if out of range
+     */
+    private static long toLocalMillis(int year, int month, int day, int hour, int minute, int second) {
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) ||
+                hour > 23 || minute > 59 || second > 59) {
+            return INVALID;
+        }
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY +
+                hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + second * MILLIS_PER_SECOND;
+    }
+
+    private static long localTimeToUtc(long local) {
+        TimeZone timeZone = TimeZone.getDefault();
+        return local - timeZone.getOffset(local - timeZone.getOffset(local));
+    }
+
+    /**
+     * Days since 1970-01-01 in the proleptic Gregorian calendar
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * @return value of the given number of decimal digits, or -1 if any of them is not a digit
+     */
+    private static int digits(String s, int start, int count) {
+        if (count <= 0 || start + count > s.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int skipDigits(String s, int pos, int end) {
+        while (pos < end && isDigit(s.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipLetters(String s, int pos, int end) {
+        while (pos < end && isLetter(s.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipSpaces(String s, int pos, int end) {
+        while (pos < end && s.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static Date parseLegacy(String date) {
+        for (SimpleDateFormat format : LEGACY_FORMATS.get()) {
+            ParsePosition position = new ParsePosition(0);
+            Date parsed = format.parse(date, position);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        return null;
+    }
+}
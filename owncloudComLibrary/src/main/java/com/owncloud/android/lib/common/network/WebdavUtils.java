@@ -29,39 +29,16 @@ import android.net.Uri;
 
 import com.owncloud.android.lib.common.http.methods.HttpBaseMethod;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
 
 public class WebdavUtils {
 
-    private static final SimpleDateFormat[] DATETIME_FORMATS = {
-            new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US),
-            new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US),
-            new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.sss'Z'", Locale.US),
-            new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ", Locale.US),
-            new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US),
-            new SimpleDateFormat("EEEEEE, dd-MMM-yy HH:mm:ss zzz", Locale.US),
-            new SimpleDateFormat("EEE MMMM d HH:mm:ss yyyy", Locale.US),
-            new SimpleDateFormat("yyyy-MM-dd hh:mm:ss", Locale.US)
-    };
-
+    /**
+     * @param date Date in any of the formats supported by {@link WebdavDateParser}
+     * @return parsed date, or null if the format is not supported
+     */
     public static Date parseResponseDate(String date) {
-        Date returnDate;
-        SimpleDateFormat format;
-        for (SimpleDateFormat datetimeFormat : DATETIME_FORMATS) {
-            try {
-                format = datetimeFormat;
-                synchronized (format) {
-                    returnDate = format.parse(date);
-                }
-                return returnDate;
-            } catch (ParseException e) {
-                // this is not the format
-            }
-        }
-        return null;
+        return WebdavDateParser.parse(date);
     }
 
     /**
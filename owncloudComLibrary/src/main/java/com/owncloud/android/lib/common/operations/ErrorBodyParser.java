@@ -0,0 +1,186 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.operations;
+
+import android.util.Xml;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single pass parser for the bodies of error responses (Sabre/OCS errors).
+ * <p>
+ * Reads at most a given number of bytes of the body and parses them once, extracting both whether the error is
+ * an invalid character exception and the error message. The raw text read is kept for diagnostics.
+ */
+public class ErrorBodyParser {
+
+    private static final String EXCEPTION_STRING = "OC\\Connector\\Sabre\\Exception\\InvalidPath";
+    private static final String EXCEPTION_UPLOAD_STRING = "OCP\\Files\\InvalidPathException";
+
+    // Nodes for XML Parser
+    private static final String NODE_ERROR = "d:error";
+    private static final String NODE_EXCEPTION = "s:exception";
+    private static final String NODE_MESSAGE = "s:message";
+
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * Data extracted from the body of an error response
+     */
+    public static class ErrorBody {
+        private final boolean mInvalidCharacter;
+        private final String mMessage;
+        private final String mRawSnippet;
+
+        ErrorBody(boolean invalidCharacter, String message, String rawSnippet) {
+            mInvalidCharacter = invalidCharacter;
+            mMessage = message;
+            mRawSnippet = rawSnippet;
+        }
+
+        public boolean isInvalidCharacter() {
+            return mInvalidCharacter;
+        }
+
+        /**
+         * @return error message included in the body, empty if there is none
+         */
+        public String getMessage() {
+            return mMessage;
+        }
+
+        /**
+         * @return raw text of the body, truncated to the maximum number of bytes read
+         */
+        public String getRawSnippet() {
+            return mRawSnippet;
+        }
+    }
+
+    /**
+     * Reads and parses the body of an error response. The stream is closed after reading.
+     *
+     * @param is       Body of the response
+     * @param maxBytes Maximum number of bytes to read from the body
+     * @return data extracted from the body, or null if the body is empty
+     * @throws IOException if the body could not be read
+     */
+    public ErrorBody parse(InputStream is, int maxBytes) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = readBounded(is, maxBytes);
+        } finally {
+            is.close();
+        }
+        if (bytes.length == 0) {
+            return null;
+        }
+
+        String exception = "";
+        String message = "";
+        try {
+            XmlPullParser parser = Xml.newPullParser();
+            parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false);
+            parser.setInput(new ByteArrayInputStream(bytes), null);
+            parser.nextTag();
+            parser.require(XmlPullParser.START_TAG, null, NODE_ERROR);
+            int eventType;
+            while ((eventType = parser.next()) != XmlPullParser.END_TAG && eventType != XmlPullParser.END_DOCUMENT) {
+                if (eventType != XmlPullParser.START_TAG) {
+                    continue;
+                }
+                String name = parser.getName();
+                if (name.equalsIgnoreCase(NODE_EXCEPTION)) {
+                    exception = readText(parser);
+                } else if (name.equalsIgnoreCase(NODE_MESSAGE)) {
+                    message = readText(parser);
+                } else {
+                    skip(parser);
+                }
+            }
+        } catch (XmlPullParserException | IllegalStateException e) {
+            // Not an error document, or truncated; keep what was read until now
+        }
+
+        boolean invalidCharacter = exception.equalsIgnoreCase(EXCEPTION_STRING) ||
+                exception.equalsIgnoreCase(EXCEPTION_UPLOAD_STRING);
+        return new ErrorBody(invalidCharacter, message, new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private byte[] readBounded(InputStream is, int maxBytes) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.min(maxBytes, BUFFER_SIZE));
+        byte[] buffer = new byte[Math.min(maxBytes, BUFFER_SIZE)];
+        int remaining = maxBytes;
+        int read;
+        while (remaining > 0 && (read = is.read(buffer, 0, Math.min(buffer.length, remaining))) != -1) {
+            output.write(buffer, 0, read);
+            remaining -= read;
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Skip tags in parser procedure
+     */
+    private void skip(XmlPullParser parser) throws XmlPullParserException, IOException {
+        if (parser.getEventType() != XmlPullParser.START_TAG) {
+            throw new IllegalStateException();
+        }
+        int depth = 1;
+        while (depth != 0) {
+            switch (parser.next()) {
+                case XmlPullParser.END_TAG:
+                    depth--;
+                    break;
+                case XmlPullParser.START_TAG:
+                    depth++;
+                    break;
+                case XmlPullParser.END_DOCUMENT:
+                    // truncated body
+                    depth = 0;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Read the text from a node
+     */
+    private String readText(XmlPullParser parser) throws IOException, XmlPullParserException {
+        String result = "";
+        if (parser.next() == XmlPullParser.TEXT) {
+            result = parser.getText();
+            parser.nextTag();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.operations;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides whether the full diagnostics of a failed {@link RemoteOperationResult} should be logged, allowing
+ * only one per result code and exception class in every time window.
+ */
+public class ErrorLogRateLimiter {
+
+    private static final long DEFAULT_WINDOW_MILLIS = 60_000;
+
+    private static volatile long sWindowMillis = DEFAULT_WINDOW_MILLIS;
+
+    private static final ConcurrentMap<String, Long> sLastLoggedTimes = new ConcurrentHashMap<>();
+
+    private ErrorLogRateLimiter() {
+    }
+
+    /**
+     * Sets the length of the time window; 0 logs every failure.
+     *
+     * @param windowMillis Time window in milliseconds.
+     */
+    public static void setWindowMillis(long windowMillis) {
+        sWindowMillis = windowMillis;
+    }
+
+    /**
+     * Forgets every logged failure and restores the default time window.
+     */
+    @VisibleForTesting
+    static void reset() {
+        sLastLoggedTimes.clear();
+        sWindowMillis = DEFAULT_WINDOW_MILLIS;
+    }
+
+    /**
+     * @return true if no failure with the same result code and exception class was logged in the current
+     * time window, registering this one as logged.
+     */
+    static boolean shouldLog(RemoteOperationResult.ResultCode code, Exception exception) {
+        String key = code + ":" + exception.getClass().getName();
+        long now = System.currentTimeMillis();
+        long windowMillis = sWindowMillis;
+        while (true) {
+            Long lastLoggedTime = sLastLoggedTimes.putIfAbsent(key, now);
+            if (lastLoggedTime == null) {
+                return true;
+            }
+            if (now - lastLoggedTime < windowMillis) {
+                return false;
+            }
+            if (sLastLoggedTimes.replace(key, lastLoggedTime, now)) {
+                return true;
+            }
+        }
+    }
+}
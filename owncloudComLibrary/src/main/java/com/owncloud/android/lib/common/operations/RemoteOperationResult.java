@@ -30,6 +30,7 @@ import android.accounts.AccountsException;
 import at.bitfire.dav4jvm.exception.DavException;
 import at.bitfire.dav4jvm.exception.HttpException;
 import com.owncloud.android.lib.common.accounts.AccountUtils;
+import com.owncloud.android.lib.common.http.CircuitBreakerOpenException;
 import com.owncloud.android.lib.common.http.HttpConstants;
 import com.owncloud.android.lib.common.http.methods.HttpBaseMethod;
 import com.owncloud.android.lib.common.network.CertificateCombinedException;
@@ -40,7 +41,6 @@ import timber.log.Timber;
 
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLPeerUnverifiedException;
-import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -60,9 +60,12 @@ public class RemoteOperationResult<T>
     /**
      * Generated - should be refreshed every time the class changes!!
      */
-    private static final long serialVersionUID = 4968939884332372230L;
+    private static final long serialVersionUID = -2079524361745834419L;
     private static final String LOCATION = "location";
     private static final String WWW_AUTHENTICATE = "www-authenticate";
+    private static final int DEFAULT_MAX_ERROR_BODY_BYTES = 16 * 1024;
+
+    private static volatile int sMaxErrorBodyBytes = DEFAULT_MAX_ERROR_BODY_BYTES;
 
     private boolean mSuccess = false;
     private int mHttpCode = -1;
@@ -73,6 +76,8 @@ public class RemoteOperationResult<T>
     private List<String> mAuthenticate = new ArrayList<>();
     private String mLastPermanentLocation = null;
     private T mData = null;
+    private transient String mExceptionStackTrace = null;
+    private String mErrorBodySnippet = null;
 
     /**
      * Public constructor from result code.
@@ -85,7 +90,8 @@ public class RemoteOperationResult<T>
         mCode = code;
         mSuccess = (code == ResultCode.OK || code == ResultCode.OK_SSL ||
                 code == ResultCode.OK_NO_SSL ||
-                code == ResultCode.OK_REDIRECT_TO_NON_SECURE_CONNECTION);
+                code == ResultCode.OK_REDIRECT_TO_NON_SECURE_CONNECTION ||
+                code == ResultCode.OK_NOT_MODIFIED);
     }
 
     /**
@@ -103,6 +109,7 @@ public class RemoteOperationResult<T>
         mLastPermanentLocation = prevRemoteOperation.mLastPermanentLocation;
         mSuccess = prevRemoteOperation.mSuccess;
         mRedirectedLocation = prevRemoteOperation.mRedirectedLocation;
+        mErrorBodySnippet = prevRemoteOperation.mErrorBodySnippet;
     }
 
     /**
@@ -116,18 +123,13 @@ public class RemoteOperationResult<T>
      */
     public RemoteOperationResult(Exception e) {
         mException = e;
-        //TODO: Do propper exception handling and remove this
-        Timber.e("---------------------------------" +
-                        "\nCreate RemoteOperationResult from exception." +
-                        "\n Message: %s" +
-                        "\n Stacktrace: %s" +
-                        "\n---------------------------------",
-                ExceptionUtils.getMessage(e),
-                ExceptionUtils.getStackTrace(e));
 
         if (e instanceof OperationCancelledException) {
             mCode = ResultCode.CANCELLED;
 
+        } else if (e instanceof CircuitBreakerOpenException) {
+            mCode = ResultCode.CIRCUIT_BREAKER_OPEN;
+
         } else if (e instanceof SocketException) {
             mCode = ResultCode.WRONG_CONNECTION;
 
@@ -173,6 +175,21 @@ public class RemoteOperationResult<T>
         else {
             mCode = ResultCode.UNKNOWN_ERROR;
         }
+
+        logException(e);
+    }
+
+    /**
+     * Logs the exception a result was created from. The full stack trace is only logged once per
+     * {@link ResultCode} and exception class in every time window of {@link ErrorLogRateLimiter}; Timber
+     * formats it only if some tree is planted.
+     */
+    private void logException(Exception e) {
+        if (ErrorLogRateLimiter.shouldLog(mCode, e)) {
+            Timber.e(e, "Create RemoteOperationResult from exception with code %s", mCode);
+        } else {
+            Timber.d("Create RemoteOperationResult from %s with code %s", e.getClass().getSimpleName(), mCode);
+        }
     }
 
     /**
@@ -193,54 +210,21 @@ public class RemoteOperationResult<T>
                 httpMethod.getResponseHeaders()
         );
 
-        if (mHttpCode == HttpConstants.HTTP_BAD_REQUEST) {   // 400
-            String bodyResponse = httpMethod.getResponseBodyAsString();
-
-            // do not get for other HTTP codes!; could not be available
-            if (bodyResponse != null && bodyResponse.length() > 0) {
-                InputStream is = new ByteArrayInputStream(bodyResponse.getBytes());
-                InvalidCharacterExceptionParser xmlParser = new InvalidCharacterExceptionParser();
-                try {
-                    if (xmlParser.parseXMLResponse(is)) {
-                        mCode = ResultCode.INVALID_CHARACTER_DETECT_IN_SERVER;
-                    } else {
-                        parseErrorMessageAndSetCode(
-                                httpMethod.getResponseBodyAsString(),
-                                ResultCode.SPECIFIC_BAD_REQUEST
-                        );
-                    }
-                } catch (Exception e) {
-                    Timber.w("Error reading exception from server: %s", e.getMessage());
-                    // mCode stays as set in this(success, httpCode, headers)
-                }
-            }
-        }
-
-        // before
         switch (mHttpCode) {
+            case HttpConstants.HTTP_BAD_REQUEST:
+                parseErrorBodyAndSetCode(httpMethod, ResultCode.SPECIFIC_BAD_REQUEST);
+                break;
             case HttpConstants.HTTP_FORBIDDEN:
-                parseErrorMessageAndSetCode(
-                        httpMethod.getResponseBodyAsString(),
-                        ResultCode.SPECIFIC_FORBIDDEN
-                );
+                parseErrorBodyAndSetCode(httpMethod, ResultCode.SPECIFIC_FORBIDDEN);
                 break;
             case HttpConstants.HTTP_UNSUPPORTED_MEDIA_TYPE:
-                parseErrorMessageAndSetCode(
-                        httpMethod.getResponseBodyAsString(),
-                        ResultCode.SPECIFIC_UNSUPPORTED_MEDIA_TYPE
-                );
+                parseErrorBodyAndSetCode(httpMethod, ResultCode.SPECIFIC_UNSUPPORTED_MEDIA_TYPE);
                 break;
             case HttpConstants.HTTP_SERVICE_UNAVAILABLE:
-                parseErrorMessageAndSetCode(
-                        httpMethod.getResponseBodyAsString(),
-                        ResultCode.SPECIFIC_SERVICE_UNAVAILABLE
-                );
+                parseErrorBodyAndSetCode(httpMethod, ResultCode.SPECIFIC_SERVICE_UNAVAILABLE);
                 break;
             case HttpConstants.HTTP_METHOD_NOT_ALLOWED:
-                parseErrorMessageAndSetCode(
-                        httpMethod.getResponseBodyAsString(),
-                        ResultCode.SPECIFIC_METHOD_NOT_ALLOWED
-                );
+                parseErrorBodyAndSetCode(httpMethod, ResultCode.SPECIFIC_METHOD_NOT_ALLOWED);
                 break;
             case HttpConstants.HTTP_TOO_EARLY:
                 mCode = ResultCode.TOO_EARLY;
@@ -323,29 +307,49 @@ public class RemoteOperationResult<T>
     }
 
     /**
-     * Parse the error message included in the body response, if any, and set the specific result
-     * code
+     * Reads the body of the response once, up to {@link #getMaxErrorBodyBytes()} bytes, and sets the specific
+     * result code if it contains an error message. Bad requests caused by invalid characters get
+     * {@link ResultCode#INVALID_CHARACTER_DETECT_IN_SERVER}.
      *
-     * @param bodyResponse okHttp response body
-     * @param resultCode   our own custom result code
+     * @param httpMethod already executed method
+     * @param resultCode our own custom result code
      */
-    private void parseErrorMessageAndSetCode(String bodyResponse, ResultCode resultCode) {
-        if (bodyResponse != null && bodyResponse.length() > 0) {
-            InputStream is = new ByteArrayInputStream(bodyResponse.getBytes());
-            ErrorMessageParser xmlParser = new ErrorMessageParser();
-            try {
-                String errorMessage = xmlParser.parseXMLResponse(is);
-                if (!errorMessage.equals("")) {
-                    mCode = resultCode;
-                    mHttpPhrase = errorMessage;
-                }
-            } catch (Exception e) {
-                Timber.w("Error reading exception from server: %s\nTrace: %s", e.getMessage(), ExceptionUtils.getStackTrace(e));
-                // mCode stays as set in this(success, httpCode, headers)
+    private void parseErrorBodyAndSetCode(HttpBaseMethod httpMethod, ResultCode resultCode) {
+        try {
+            InputStream is = httpMethod.getResponseBodyAsStream();
+            if (is == null) {
+                return;
             }
+            ErrorBodyParser.ErrorBody errorBody = new ErrorBodyParser().parse(is, sMaxErrorBodyBytes);
+            if (errorBody == null) {
+                return;
+            }
+            mErrorBodySnippet = errorBody.getRawSnippet();
+            if (mHttpCode == HttpConstants.HTTP_BAD_REQUEST && errorBody.isInvalidCharacter()) {
+                mCode = ResultCode.INVALID_CHARACTER_DETECT_IN_SERVER;
+            } else if (!errorBody.getMessage().equals("")) {
+                mCode = resultCode;
+                mHttpPhrase = errorBody.getMessage();
+            }
+        } catch (Exception e) {
+            Timber.w(e, "Error reading exception from server");
+            // mCode stays as set in this(success, httpCode, headers)
         }
     }
 
+    /**
+     * Sets the maximum number of bytes read from the body of error responses.
+     *
+     * @param maxErrorBodyBytes Maximum number of bytes.
+     */
+    public static void setMaxErrorBodyBytes(int maxErrorBodyBytes) {
+        sMaxErrorBodyBytes = maxErrorBodyBytes;
+    }
+
+    public static int getMaxErrorBodyBytes() {
+        return sMaxErrorBodyBytes;
+    }
+
     public boolean isSuccess() {
         return mSuccess;
     }
@@ -374,6 +378,32 @@ public class RemoteOperationResult<T>
         return mException;
     }
 
+    /**
+     * @return message of the exception the result was created from, or null if there is none
+     */
+    public String getExceptionMessage() {
+        return mException != null ? ExceptionUtils.getMessage(mException) : null;
+    }
+
+    /**
+     * Stack trace of the exception the result was created from. It is computed the first time it is requested.
+     *
+     * @return stack trace of the exception, or null if there is none
+     */
+    public String getExceptionStackTrace() {
+        if (mException != null && mExceptionStackTrace == null) {
+            mExceptionStackTrace = ExceptionUtils.getStackTrace(mException);
+        }
+        return mExceptionStackTrace;
+    }
+
+    /**
+     * @return beginning of the body of the error response the result was created from, if it was read
+     */
+    public String getErrorBodySnippet() {
+        return mErrorBodySnippet;
+    }
+
     public boolean isSslRecoverableException() {
         return mCode == ResultCode.SSL_RECOVERABLE_PEER_UNVERIFIED;
     }
@@ -406,6 +436,9 @@ public class RemoteOperationResult<T>
             if (mException instanceof OperationCancelledException) {
                 return "Operation cancelled by the caller";
 
+            } else if (mException instanceof CircuitBreakerOpenException) {
+                return "Server unreachable, request not sent";
+
             } else if (mException instanceof SocketException) {
                 return "Socket exception";
 
@@ -483,6 +516,9 @@ public class RemoteOperationResult<T>
 
         } else if (mCode == ResultCode.SYNC_CONFLICT) {
             return "Synchronization conflict";
+
+        } else if (mCode == ResultCode.OK_NOT_MODIFIED) {
+            return "Not modified since the version known by the caller";
         }
 
         return "Operation finished with HTTP status code " + mHttpCode + " (" +
@@ -594,5 +630,7 @@ public class RemoteOperationResult<T>
         SPECIFIC_BAD_REQUEST,
         TOO_EARLY,
         NETWORK_ERROR,
+        CIRCUIT_BREAKER_OPEN,
+        OK_NOT_MODIFIED,
     }
 }
@@ -0,0 +1,271 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.utils
+
+import android.util.Log
+import timber.log.Timber
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.OutputStreamWriter
+import java.io.Writer
+import java.text.SimpleDateFormat
+import java.util.Date
+import java.util.Locale
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.locks.LockSupport
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Timber tree writing the logs to files in [directory] without doing any I/O in the calling threads.
+ *
+ * Log records are queued in a lock-free queue and written in batches by a dedicated thread. The current file,
+ * [filename].log, is rotated when it exceeds [maxFileSize]; rotated segments are compressed with gzip and the oldest
+ * ones are deleted when the size of all the files exceeds [maxTotalSize].
+ */
+class AsyncFileLoggingTree(
+    private val directory: File,
+    private val filename: String,
+    private val maxFileSize: Long = DEFAULT_MAX_FILE_SIZE,
+    private val maxTotalSize: Long = DEFAULT_MAX_TOTAL_SIZE,
+) : Timber.Tree() {
+
+    private val pendingRecords = ConcurrentLinkedQueue<LogRecord>()
+    private val pendingCount = AtomicInteger(0)
+    private val droppedCount = AtomicInteger(0)
+
+    @Volatile
+    private var running = true
+
+    private val currentFile = File(directory, "$filename$LOG_EXTENSION")
+    private var writer: Writer? = null
+
+    // Only used from the writer thread
+    private val lineDateFormat = SimpleDateFormat(LINE_DATE_PATTERN, Locale.US)
+    private val segmentDateFormat = SimpleDateFormat(SEGMENT_DATE_PATTERN, Locale.US)
+
+    private val writerThread = Thread({ writeLoop() }, THREAD_NAME).apply {
+        isDaemon = true
+        priority = Thread.MIN_PRIORITY
+        start()
+    }
+
+    override fun log(priority: Int, tag: String?, message: String, t: Throwable?) {
+        if (!running) {
+            return
+        }
+        if (pendingCount.incrementAndGet() > MAX_PENDING_RECORDS) {
+            pendingCount.decrementAndGet()
+            droppedCount.incrementAndGet()
+            return
+        }
+        pendingRecords.offer(LogRecord(System.currentTimeMillis(), priority, tag, message))
+        if (pendingCount.get() >= BATCH_SIZE) {
+            LockSupport.unpark(writerThread)
+        }
+    }
+
+    /**
+     * Stops the writer thread after writing the records already queued.
+     */
+    fun stop() {
+        running = false
+        LockSupport.unpark(writerThread)
+        try {
+            writerThread.join(STOP_TIMEOUT_MILLIS)
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+        }
+    }
+
+    private fun writeLoop() {
+        while (running) {
+            LockSupport.parkNanos(FLUSH_INTERVAL_NANOS)
+            writePendingRecords()
+        }
+        writePendingRecords()
+        closeWriter()
+    }
+
+    private fun writePendingRecords() {
+        if (pendingRecords.isEmpty()) {
+            return
+        }
+        try {
+            val batch = StringBuilder()
+            val dropped = droppedCount.getAndSet(0)
+            if (dropped > 0) {
+                batch.append(lineDateFormat.format(Date())).append(" W/").append(THREAD_NAME)
+                    .append(": ").append(dropped).append(" log records dropped\n")
+            }
+            var record = pendingRecords.poll()
+            while (record != null) {
+                pendingCount.decrementAndGet()
+                appendRecord(batch, record)
+                if (batch.length >= MAX_BATCH_CHARS) {
+                    write(batch)
+                    batch.setLength(0)
+                }
+                record = pendingRecords.poll()
+            }
+            write(batch)
+        } catch (e: IOException) {
+            Log.e(THREAD_NAME, "Log records could not be written", e)
+            closeWriter()
+        }
+    }
+
+    private fun appendRecord(batch: StringBuilder, record: LogRecord) {
+        batch.append(lineDateFormat.format(Date(record.timestamp)))
+            .append(' ')
+            .append(priorityChar(record.priority))
+            .append('/')
+            .append(record.tag ?: "")
+            .append(": ")
+            .append(record.message)
+            .append('\n')
+    }
+
+    @Throws(IOException::class)
+    private fun write(batch: StringBuilder) {
+        if (batch.isEmpty()) {
+            return
+        }
+        val currentWriter = writer ?: openWriter()
+        currentWriter.write(batch.toString())
+        currentWriter.flush()
+        if (currentFile.length() >= maxFileSize) {
+            rotate()
+        }
+    }
+
+    @Throws(IOException::class)
+    private fun openWriter(): Writer {
+        if (!directory.exists()) {
+            directory.mkdirs()
+        }
+        return OutputStreamWriter(FileOutputStream(currentFile, true), Charsets.UTF_8).also { writer = it }
+    }
+
+    private fun closeWriter() {
+        try {
+            writer?.close()
+        } catch (e: IOException) {
+            Log.w(THREAD_NAME, "Log file could not be closed", e)
+        }
+        writer = null
+    }
+
+    /**
+     * Compresses the current file into a new segment and removes the oldest segments over the total size cap.
+     */
+    private fun rotate() {
+        closeWriter()
+        val segment = newSegmentFile()
+        try {
+            currentFile.inputStream().use { input ->
+                GZIPOutputStream(FileOutputStream(segment)).use { output -> input.copyTo(output) }
+            }
+            currentFile.delete()
+        } catch (e: IOException) {
+            Log.e(THREAD_NAME, "Log file could not be compressed", e)
+            segment.delete()
+            currentFile.delete()
+        }
+        enforceTotalSizeCap()
+    }
+
+    /**
+     * Segments rotated within the same millisecond get an increasing suffix, so none overwrites another.
+     */
+    private fun newSegmentFile(): File {
+        val timestamp = segmentDateFormat.format(Date())
+        var segment = File(directory, "$filename.$timestamp$LOG_EXTENSION$GZIP_EXTENSION")
+        var index = 1
+        while (segment.exists()) {
+            segment = File(directory, "$filename.$timestamp-${index++}$LOG_EXTENSION$GZIP_EXTENSION")
+        }
+        return segment
+    }
+
+    private fun enforceTotalSizeCap() {
+        val segments = directory.listFiles { file ->
+            file.name.startsWith("$filename.") && file.name.endsWith(GZIP_EXTENSION)
+        }?.sortedWith(compareBy({ segmentTimestamp(it) }, { segmentIndex(it) })) ?: return
+
+        var totalSize = segments.sumOf { it.length() } + currentFile.length()
+        for (segment in segments) {
+            if (totalSize <= maxTotalSize) {
+                break
+            }
+            totalSize -= segment.length()
+            segment.delete()
+        }
+    }
+
+    private fun segmentStem(segment: File): String =
+        segment.name.removePrefix("$filename.").removeSuffix("$LOG_EXTENSION$GZIP_EXTENSION")
+
+    private fun segmentTimestamp(segment: File): String = segmentStem(segment).take(SEGMENT_DATE_PATTERN.length)
+
+    private fun segmentIndex(segment: File): Int =
+        segmentStem(segment).drop(SEGMENT_DATE_PATTERN.length + 1).toIntOrNull() ?: 0
+
+    private fun priorityChar(priority: Int): Char =
+        when (priority) {
+            Log.VERBOSE -> 'V'
+            Log.DEBUG -> 'D'
+            Log.INFO -> 'I'
+            Log.WARN -> 'W'
+            Log.ERROR -> 'E'
+            Log.ASSERT -> 'A'
+            else -> '?'
+        }
+
+    private class LogRecord(
+        val timestamp: Long,
+        val priority: Int,
+        val tag: String?,
+        val message: String,
+    )
+
+    companion object {
+        const val DEFAULT_MAX_FILE_SIZE: Long = 5L * 1024 * 1024
+        const val DEFAULT_MAX_TOTAL_SIZE: Long = 50L * 1024 * 1024
+
+        private const val THREAD_NAME = "AsyncFileLoggingTree"
+        private const val LOG_EXTENSION = ".log"
+        private const val GZIP_EXTENSION = ".gz"
+        private const val LINE_DATE_PATTERN = "yyyy-MM-dd HH:mm:ss.SSS"
+        private const val SEGMENT_DATE_PATTERN = "yyyyMMdd-HHmmss-SSS"
+
+        private const val BATCH_SIZE = 128
+        private const val MAX_BATCH_CHARS = 64 * 1024
+        private const val MAX_PENDING_RECORDS = 10_000
+        private val FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500)
+        private const val STOP_TIMEOUT_MILLIS = 2_000L
+    }
+}
@@ -0,0 +1,154 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.utils
+
+import timber.log.Timber
+import java.io.File
+import java.io.IOException
+import java.security.MessageDigest
+
+/**
+ * Least recently used cache of small binary contents, such as thumbnails or avatars, stored as files in
+ * [directory] and bounded to [maxBytes] in total.
+ *
+ * Entries are written to a temporary file first and then renamed, so a crash never leaves a truncated entry.
+ * Entries found in [directory] when first used are kept, in the order of their last modification.
+ */
+class DiskByteCache(
+    private val directory: File,
+    private val maxBytes: Long,
+) {
+
+    // File name -> size, in access order
+    private val entries = LinkedHashMap<String, Long>(INITIAL_CAPACITY, LOAD_FACTOR, true)
+    private var totalBytes = 0L
+    private var initialized = false
+
+    @Synchronized
+    fun get(key: String): ByteArray? {
+        initialize()
+        val fileName = fileNameOf(key)
+        if (entries[fileName] == null) {
+            return null
+        }
+        val file = File(directory, fileName)
+        return try {
+            file.readBytes().also { file.setLastModified(System.currentTimeMillis()) }
+        } catch (e: IOException) {
+            Timber.w(e, "Could not read cache entry %s", fileName)
+            removeEntry(fileName)
+            null
+        }
+    }
+
+    @Synchronized
+    fun put(key: String, value: ByteArray) {
+        initialize()
+        if (value.size > maxBytes) {
+            return
+        }
+        val fileName = fileNameOf(key)
+        val file = File(directory, fileName)
+        val tempFile = File(directory, fileName + TEMP_SUFFIX)
+        try {
+            tempFile.writeBytes(value)
+            if (!tempFile.renameTo(file)) {
+                throw IOException("Could not rename ${tempFile.name}")
+            }
+        } catch (e: IOException) {
+            Timber.w(e, "Could not write cache entry %s", fileName)
+            tempFile.delete()
+            removeEntry(fileName)
+            return
+        }
+        entries.put(fileName, value.size.toLong())?.let { totalBytes -= it }
+        totalBytes += value.size
+        trimToSize()
+    }
+
+    @Synchronized
+    fun remove(key: String) {
+        initialize()
+        removeEntry(fileNameOf(key))
+    }
+
+    @Synchronized
+    fun clear() {
+        initialize()
+        entries.keys.toList().forEach { removeEntry(it) }
+    }
+
+    @Synchronized
+    fun size(): Long {
+        initialize()
+        return totalBytes
+    }
+
+    private fun initialize() {
+        if (initialized) {
+            return
+        }
+        initialized = true
+        if (!directory.isDirectory && !directory.mkdirs()) {
+            Timber.w("Could not create cache directory %s", directory)
+            return
+        }
+        directory.listFiles()
+            ?.sortedBy { it.lastModified() }
+            ?.forEach { file ->
+                if (file.name.endsWith(TEMP_SUFFIX)) {
+                    file.delete()
+                } else if (file.isFile) {
+                    entries[file.name] = file.length()
+                    totalBytes += file.length()
+                }
+            }
+        trimToSize()
+    }
+
+    private fun trimToSize() {
+        val iterator = entries.entries.iterator()
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            val eldest = iterator.next()
+            iterator.remove()
+            totalBytes -= eldest.value
+            File(directory, eldest.key).delete()
+        }
+    }
+
+    private fun removeEntry(fileName: String) {
+        entries.remove(fileName)?.let { totalBytes -= it }
+        File(directory, fileName).delete()
+    }
+
+    private fun fileNameOf(key: String): String =
+        MessageDigest.getInstance(DIGEST_ALGORITHM).digest(key.toByteArray()).joinToString("") { "%02x".format(it) }
+
+    companion object {
+        private const val INITIAL_CAPACITY = 64
+        private const val LOAD_FACTOR = 0.75f
+        private const val TEMP_SUFFIX = ".tmp"
+        private const val DIGEST_ALGORITHM = "SHA-256"
+    }
+}
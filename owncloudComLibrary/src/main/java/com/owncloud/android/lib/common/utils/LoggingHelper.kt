@@ -31,18 +31,37 @@ import java.io.File
 
 object LoggingHelper {
 
-    fun startLogging(directory: File, storagePath: String) {
-        fileLoggingTree()?.let {
-            Timber.uproot(it)
-        }
+    private var asyncFileLoggingTree: AsyncFileLoggingTree? = null
+
+    /**
+     * Starts logging to files in [directory].
+     *
+     * @param asynchronous When true, logs are written in batches by a dedicated thread, rotating and compressing
+     *                     the files, which are named differently; otherwise they are written in the calling threads
+     *                     to the same files as always.
+     */
+    @JvmOverloads
+    fun startLogging(directory: File, storagePath: String, asynchronous: Boolean = false) {
+        stopLogging()
         if (!directory.exists())
             directory.mkdirs()
-        Timber.plant(FileLoggingTree(directory, filename = storagePath))
+        if (asynchronous) {
+            asyncFileLoggingTree = AsyncFileLoggingTree(directory, filename = storagePath).also {
+                Timber.plant(it)
+            }
+        } else {
+            Timber.plant(FileLoggingTree(directory, filename = storagePath))
+        }
     }
 
     fun stopLogging() {
         fileLoggingTree()?.let {
             Timber.uproot(it)
         }
+        asyncFileLoggingTree?.let {
+            Timber.uproot(it)
+            it.stop()
+        }
+        asyncFileLoggingTree = null
     }
 }
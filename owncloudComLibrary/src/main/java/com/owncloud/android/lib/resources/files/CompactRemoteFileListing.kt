@@ -0,0 +1,242 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.files
+
+import android.os.Parcel
+import android.os.Parcelable
+
+/**
+ * Read-only listing of remote files stored column by column, for folders too large to be kept as a list of
+ * [RemoteFile].
+ *
+ * Numeric fields are kept in primitive arrays and flags in a byte per entry. Strings repeated across entries
+ * (parent folder, mime type, permissions, owner) are stored once in a dictionary and referenced by index. The
+ * [RemoteFile] returned by [get] is created on every call and not retained; the accessors by index read single
+ * fields without creating it.
+ *
+ * Parcels as a few arrays instead of one object per entry. Mind that Binder transactions are limited to 1 MB,
+ * which is reached by listings of some thousands of entries.
+ */
+class CompactRemoteFileListing private constructor(
+    private val dictionary: Array<String>,
+    private val parentIndexes: IntArray,
+    private val names: Array<String>,
+    private val mimeTypeIndexes: IntArray,
+    private val permissionsIndexes: IntArray,
+    private val ownerIndexes: IntArray,
+    private val lengths: LongArray,
+    private val sizes: LongArray,
+    private val creationTimestamps: LongArray,
+    private val modifiedTimestamps: LongArray,
+    private val etags: Array<String?>,
+    private val remoteIds: Array<String?>,
+    private val privateLinks: Array<String?>,
+    private val flags: ByteArray,
+) : AbstractList<RemoteFile>(), Parcelable {
+
+    override val size: Int
+        get() = names.size
+
+    override fun get(index: Int): RemoteFile =
+        RemoteFile(
+            remotePath = remotePathAt(index),
+            mimeType = dictionary[mimeTypeIndexes[index]],
+            length = lengths[index],
+            creationTimestamp = creationTimestamps[index],
+            modifiedTimestamp = modifiedTimestamps[index],
+            etag = etags[index],
+            permissions = stringAt(permissionsIndexes[index]),
+            remoteId = remoteIds[index],
+            size = sizes[index],
+            privateLink = privateLinks[index],
+            owner = dictionary[ownerIndexes[index]],
+            sharedByLink = flags[index].toInt() and FLAG_SHARED_BY_LINK != 0,
+            sharedWithSharee = flags[index].toInt() and FLAG_SHARED_WITH_SHAREE != 0,
+        )
+
+    fun remotePathAt(index: Int): String = dictionary[parentIndexes[index]] + names[index]
+
+    fun etagAt(index: Int): String? = etags[index]
+
+    fun remoteIdAt(index: Int): String? = remoteIds[index]
+
+    fun mimeTypeAt(index: Int): String = dictionary[mimeTypeIndexes[index]]
+
+    fun isFolderAt(index: Int): Boolean = mimeTypeAt(index).let { it == RemoteFile.MIME_DIR || it == RemoteFile.MIME_DIR_UNIX }
+
+    fun lengthAt(index: Int): Long = lengths[index]
+
+    fun modifiedTimestampAt(index: Int): Long = modifiedTimestamps[index]
+
+    private fun stringAt(dictionaryIndex: Int): String? = if (dictionaryIndex == NO_STRING) null else dictionary[dictionaryIndex]
+
+    override fun describeContents(): Int = 0
+
+    override fun writeToParcel(dest: Parcel, flags: Int) {
+        dest.writeStringArray(dictionary)
+        dest.writeIntArray(parentIndexes)
+        dest.writeStringArray(names)
+        dest.writeIntArray(mimeTypeIndexes)
+        dest.writeIntArray(permissionsIndexes)
+        dest.writeIntArray(ownerIndexes)
+        dest.writeLongArray(lengths)
+        dest.writeLongArray(sizes)
+        dest.writeLongArray(creationTimestamps)
+        dest.writeLongArray(modifiedTimestamps)
+        dest.writeStringArray(etags)
+        dest.writeStringArray(remoteIds)
+        dest.writeStringArray(privateLinks)
+        dest.writeByteArray(this.flags)
+    }
+
+    /**
+     * Collects entries one by one, so a listing can be built without keeping a [RemoteFile] per entry.
+     */
+    class Builder(initialCapacity: Int = DEFAULT_CAPACITY) {
+        private val dictionary = ArrayList<String>()
+        private val dictionaryIndexes = HashMap<String, Int>()
+
+        private var count = 0
+        private var capacity = initialCapacity.coerceAtLeast(1)
+        private var parentIndexes = IntArray(capacity)
+        private var names = arrayOfNulls<String>(capacity)
+        private var mimeTypeIndexes = IntArray(capacity)
+        private var permissionsIndexes = IntArray(capacity)
+        private var ownerIndexes = IntArray(capacity)
+        private var lengths = LongArray(capacity)
+        private var sizes = LongArray(capacity)
+        private var creationTimestamps = LongArray(capacity)
+        private var modifiedTimestamps = LongArray(capacity)
+        private var etags = arrayOfNulls<String>(capacity)
+        private var remoteIds = arrayOfNulls<String>(capacity)
+        private var privateLinks = arrayOfNulls<String>(capacity)
+        private var flags = ByteArray(capacity)
+
+        fun add(file: RemoteFile): Builder {
+            if (count == capacity) grow()
+
+            val path = file.remotePath
+            val nameStart = path.lastIndexOf('/', path.length - 2) + 1
+            parentIndexes[count] = intern(path.substring(0, nameStart))
+            names[count] = path.substring(nameStart)
+            mimeTypeIndexes[count] = intern(file.mimeType)
+            permissionsIndexes[count] = file.permissions?.let { intern(it) } ?: NO_STRING
+            ownerIndexes[count] = intern(file.owner)
+            lengths[count] = file.length
+            sizes[count] = file.size
+            creationTimestamps[count] = file.creationTimestamp
+            modifiedTimestamps[count] = file.modifiedTimestamp
+            etags[count] = file.etag
+            remoteIds[count] = file.remoteId
+            privateLinks[count] = file.privateLink
+            flags[count] = ((if (file.sharedByLink) FLAG_SHARED_BY_LINK else 0) or
+                    (if (file.sharedWithSharee) FLAG_SHARED_WITH_SHAREE else 0)).toByte()
+            count++
+            return this
+        }
+
+        fun addAll(files: Iterable<RemoteFile>): Builder {
+            files.forEach { add(it) }
+            return this
+        }
+
+        @Suppress("UNCHECKED_CAST")
+        fun build(): CompactRemoteFileListing =
+            CompactRemoteFileListing(
+                dictionary = dictionary.toTypedArray(),
+                parentIndexes = parentIndexes.copyOf(count),
+                names = names.copyOf(count) as Array<String>,
+                mimeTypeIndexes = mimeTypeIndexes.copyOf(count),
+                permissionsIndexes = permissionsIndexes.copyOf(count),
+                ownerIndexes = ownerIndexes.copyOf(count),
+                lengths = lengths.copyOf(count),
+                sizes = sizes.copyOf(count),
+                creationTimestamps = creationTimestamps.copyOf(count),
+                modifiedTimestamps = modifiedTimestamps.copyOf(count),
+                etags = etags.copyOf(count),
+                remoteIds = remoteIds.copyOf(count),
+                privateLinks = privateLinks.copyOf(count),
+                flags = flags.copyOf(count),
+            )
+
+        private fun intern(value: String): Int =
+            dictionaryIndexes.getOrPut(value) {
+                dictionary.add(value)
+                dictionary.size - 1
+            }
+
+        private fun grow() {
+            capacity *= 2
+            parentIndexes = parentIndexes.copyOf(capacity)
+            names = names.copyOf(capacity)
+            mimeTypeIndexes = mimeTypeIndexes.copyOf(capacity)
+            permissionsIndexes = permissionsIndexes.copyOf(capacity)
+            ownerIndexes = ownerIndexes.copyOf(capacity)
+            lengths = lengths.copyOf(capacity)
+            sizes = sizes.copyOf(capacity)
+            creationTimestamps = creationTimestamps.copyOf(capacity)
+            modifiedTimestamps = modifiedTimestamps.copyOf(capacity)
+            etags = etags.copyOf(capacity)
+            remoteIds = remoteIds.copyOf(capacity)
+            privateLinks = privateLinks.copyOf(capacity)
+            flags = flags.copyOf(capacity)
+        }
+    }
+
+    companion object {
+        private const val NO_STRING = -1
+        private const val DEFAULT_CAPACITY = 64
+        private const val FLAG_SHARED_BY_LINK = 1
+        private const val FLAG_SHARED_WITH_SHAREE = 2
+
+        @JvmStatic
+        fun from(files: Collection<RemoteFile>): CompactRemoteFileListing =
+            Builder(files.size).addAll(files).build()
+
+        @JvmField
+        val CREATOR = object : Parcelable.Creator<CompactRemoteFileListing> {
+            @Suppress("UNCHECKED_CAST")
+            override fun createFromParcel(source: Parcel): CompactRemoteFileListing =
+                CompactRemoteFileListing(
+                    dictionary = source.createStringArray() as Array<String>,
+                    parentIndexes = source.createIntArray()!!,
+                    names = source.createStringArray() as Array<String>,
+                    mimeTypeIndexes = source.createIntArray()!!,
+                    permissionsIndexes = source.createIntArray()!!,
+                    ownerIndexes = source.createIntArray()!!,
+                    lengths = source.createLongArray()!!,
+                    sizes = source.createLongArray()!!,
+                    creationTimestamps = source.createLongArray()!!,
+                    modifiedTimestamps = source.createLongArray()!!,
+                    etags = source.createStringArray()!!,
+                    remoteIds = source.createStringArray()!!,
+                    privateLinks = source.createStringArray()!!,
+                    flags = source.createByteArray()!!,
+                )
+
+            override fun newArray(size: Int): Array<CompactRemoteFileListing?> = arrayOfNulls(size)
+        }
+    }
+}
@@ -90,6 +90,7 @@ class CopyRemoteFileOperation(
                     val fileRemoteId = copyMethod.getResponseHeader(HttpConstants.OC_FILE_REMOTE_ID)
                     result = RemoteOperationResult(ResultCode.OK)
                     result.setData(fileRemoteId)
+                    FolderListingCache.invalidateDefault(client, targetRemotePath, targetSpaceWebDavUrl)
                 }
 
                 isPreconditionFailed(status) -> {
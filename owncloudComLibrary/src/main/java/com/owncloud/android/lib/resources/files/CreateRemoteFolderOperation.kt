@@ -83,6 +83,9 @@ class CreateRemoteFolderOperation(
             val status = client.executeHttpMethod(mkCol)
             result =
                 if (status == HttpConstants.HTTP_CREATED) {
+                    if (!isChunksFolder) {
+                        FolderListingCache.invalidateDefault(client, remotePath, spaceWebDavUrl)
+                    }
                     RemoteOperationResult(ResultCode.OK)
                 } else {
                     RemoteOperationResult(mkCol)
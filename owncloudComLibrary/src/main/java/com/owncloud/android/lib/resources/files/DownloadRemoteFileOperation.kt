@@ -41,6 +41,11 @@ import java.util.concurrent.atomic.AtomicBoolean
 /**
  * Remote operation performing the download of a remote file in the ownCloud server.
  *
+ * When [knownEtag] is given and the remote file still has it, nothing is downloaded and the result is
+ * [RemoteOperationResult.ResultCode.OK_NOT_MODIFIED]; any file already at the temporary path is left untouched.
+ *
+ * @param knownEtag ETag of the local copy of the file, if any
+ *
  * @author David A. Velasco
  * @author masensio
  */
@@ -48,6 +53,7 @@ class DownloadRemoteFileOperation(
     private val remotePath: String,
     localFolderPath: String,
     private val spaceWebDavUrl: String? = null,
+    private val knownEtag: String? = null,
 ) : RemoteOperation<Unit>() {
 
     private val cancellationRequested = AtomicBoolean(false)
@@ -86,10 +92,18 @@ class DownloadRemoteFileOperation(
 
         val webDavUri = spaceWebDavUrl ?: client.userFilesWebDavUri.toString()
         val getMethod = GetMethod(URL(webDavUri + WebdavUtils.encodePath(remotePath)))
+        knownEtag?.let { getMethod.setRequestHeader(HttpConstants.IF_NONE_MATCH_HEADER, quoteEtag(it)) }
 
         try {
             val status = client.executeHttpMethod(getMethod)
 
+            if (status == HttpConstants.HTTP_NOT_MODIFIED && knownEtag != null) {
+                // The local copy is up to date, and might be the target file itself
+                savedFile = true
+                etag = knownEtag.replace("\"", "")
+                return RemoteOperationResult(RemoteOperationResult.ResultCode.OK_NOT_MODIFIED)
+            }
+
             if (isSuccess(status)) {
                 targetFile.createNewFile()
                 bis = BufferedInputStream(getMethod.getResponseBodyAsStream())
@@ -169,6 +183,9 @@ class DownloadRemoteFileOperation(
 
     private fun isSuccess(status: Int) = status == HttpConstants.HTTP_OK
 
+    private fun quoteEtag(etag: String): String =
+        if (etag.startsWith("\"") || etag.startsWith(WEAK_ETAG_PREFIX)) etag else "\"$etag\""
+
     private val tmpPath: String = localFolderPath + remotePath
 
     fun addDatatransferProgressListener(listener: OnDatatransferProgressListener) {
@@ -182,4 +199,8 @@ class DownloadRemoteFileOperation(
     fun cancel() {
         cancellationRequested.set(true) // atomic set; there is no need of synchronizing it
     }
+
+    companion object {
+        private const val WEAK_ETAG_PREFIX = "W/"
+    }
 }
@@ -0,0 +1,162 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.files
+
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
+
+/**
+ * In-memory cache of folder listings, keyed by account, space, path and [PropfindProfile], together with the ETag
+ * of the folder when it was listed.
+ *
+ * [ReadRemoteFolderOperation] uses the [default] cache, when one is set, to answer with the cached listing if a
+ * Depth 0 PROPFIND shows that the ETag of the folder did not change. The library operations modifying files
+ * invalidate the affected folders when they succeed.
+ *
+ * Listings are evicted in least recently used order once the total number of cached entries exceeds [maxEntries].
+ */
+class FolderListingCache(val maxEntries: Int = DEFAULT_MAX_ENTRIES) {
+
+    private data class Key(
+        val account: String,
+        val spaceWebDavUrl: String?,
+        val path: String,
+        val profile: PropfindProfile,
+    )
+
+    private class Listing(val etag: String, val files: List<RemoteFile>)
+
+    private val listings = LinkedHashMap<Key, Listing>(INITIAL_CAPACITY, LOAD_FACTOR, true)
+    private var cachedEntries = 0
+
+    /**
+     * @return a copy of the listing of the folder, folder first, if it was cached with the given ETag
+     */
+    @Synchronized
+    fun get(
+        account: String,
+        remotePath: String,
+        spaceWebDavUrl: String?,
+        profile: PropfindProfile,
+        etag: String,
+    ): ArrayList<RemoteFile>? {
+        val key = Key(account, spaceWebDavUrl, normalize(remotePath), profile)
+        val listing = listings[key] ?: return null
+        if (listing.etag != etag) {
+            remove(key)
+            return null
+        }
+        return listing.files.mapTo(ArrayList(listing.files.size)) { it.copy() }
+    }
+
+    /**
+     * Whether a listing of the folder is cached, whatever its ETag.
+     */
+    @Synchronized
+    fun contains(account: String, remotePath: String, spaceWebDavUrl: String?, profile: PropfindProfile): Boolean =
+        listings.containsKey(Key(account, spaceWebDavUrl, normalize(remotePath), profile))
+
+    /**
+     * @param files listing of the folder as returned by [ReadRemoteFolderOperation], folder first
+     */
+    @Synchronized
+    fun put(account: String, remotePath: String, spaceWebDavUrl: String?, profile: PropfindProfile, files: List<RemoteFile>) {
+        val etag = files.firstOrNull()?.etag ?: return
+        if (files.size > maxEntries) return
+
+        val key = Key(account, spaceWebDavUrl, normalize(remotePath), profile)
+        remove(key)
+        listings[key] = Listing(etag, files.map { it.copy() })
+        cachedEntries += files.size
+
+        val iterator = listings.entries.iterator()
+        while (cachedEntries > maxEntries && iterator.hasNext()) {
+            cachedEntries -= iterator.next().value.files.size
+            iterator.remove()
+        }
+    }
+
+    /**
+     * Forgets the listings affected by a change of [remotePath]: the one of its parent folder, its own one and
+     * those of all its descendants.
+     */
+    @Synchronized
+    fun invalidate(account: String, remotePath: String, spaceWebDavUrl: String?) {
+        val path = normalize(remotePath)
+        val parentPath = path.substringBeforeLast(PATH_SEPARATOR, "")
+        val iterator = listings.entries.iterator()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+            val key = entry.key
+            if (key.account == account && key.spaceWebDavUrl == spaceWebDavUrl &&
+                (key.path == parentPath || key.path == path || key.path.startsWith(path + PATH_SEPARATOR))
+            ) {
+                cachedEntries -= entry.value.files.size
+                iterator.remove()
+            }
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        listings.clear()
+        cachedEntries = 0
+    }
+
+    private fun remove(key: Key) {
+        listings.remove(key)?.let { cachedEntries -= it.files.size }
+    }
+
+    companion object {
+        private const val DEFAULT_MAX_ENTRIES = 20_000
+        private const val INITIAL_CAPACITY = 64
+        private const val LOAD_FACTOR = 0.75f
+        private const val PATH_SEPARATOR = '/'
+
+        /**
+         * Cache used by the library operations; null, the default, disables caching.
+         */
+        @Volatile
+        @JvmStatic
+        var default: FolderListingCache? = null
+
+        /**
+         * Invalidates [remotePath] in the [default] cache, if any. To be called after a successful change.
+         */
+        @JvmStatic
+        fun invalidateDefault(client: OwnCloudClient, remotePath: String, spaceWebDavUrl: String?) {
+            default?.invalidate(accountKeyOf(client), remotePath, spaceWebDavUrl)
+        }
+
+        /**
+         * Account part of the cache keys for the listings read with the client.
+         */
+        @JvmStatic
+        fun accountKeyOf(client: OwnCloudClient): String = client.account?.name ?: client.baseUri.toString()
+
+        /** Without trailing separator, so "/Photos" and "/Photos/" are the same folder; the root is "" */
+        private fun normalize(remotePath: String): String = remotePath.trimEnd(PATH_SEPARATOR)
+    }
+}
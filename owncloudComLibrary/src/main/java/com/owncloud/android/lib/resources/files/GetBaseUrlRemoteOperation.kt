@@ -25,8 +25,8 @@ package com.owncloud.android.lib.resources.files
 
 import com.owncloud.android.lib.common.OwnCloudClient
 import com.owncloud.android.lib.common.http.HttpConstants
-import com.owncloud.android.lib.common.http.methods.webdav.DavUtils
 import com.owncloud.android.lib.common.http.methods.webdav.PropfindMethod
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import timber.log.Timber
@@ -44,7 +44,7 @@ class GetBaseUrlRemoteOperation : RemoteOperation<String?>() {
         return try {
             val stringUrl = client.baseFilesWebDavUri.toString()
 
-            val propFindMethod = PropfindMethod(URL(stringUrl), 0, DavUtils.allPropSet).apply {
+            val propFindMethod = PropfindMethod(URL(stringUrl), 0, PropfindProfile.EXISTENCE.properties).apply {
                 setReadTimeout(TIMEOUT, TimeUnit.SECONDS)
                 setConnectionTimeout(TIMEOUT, TimeUnit.SECONDS)
             }
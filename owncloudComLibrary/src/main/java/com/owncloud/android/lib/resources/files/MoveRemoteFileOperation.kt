@@ -94,6 +94,8 @@ open class MoveRemoteFileOperation(
             when {
                 isSuccess(status) -> {
                     result = RemoteOperationResult<Unit>(ResultCode.OK)
+                    FolderListingCache.invalidateDefault(client, sourceRemotePath, spaceWebDavUrl)
+                    FolderListingCache.invalidateDefault(client, targetRemotePath, spaceWebDavUrl)
                 }
 
                 isPreconditionFailed(status) -> {
@@ -28,8 +28,8 @@ import com.owncloud.android.lib.common.accounts.AccountUtils
 import com.owncloud.android.lib.common.http.HttpConstants.HTTP_MULTI_STATUS
 import com.owncloud.android.lib.common.http.HttpConstants.HTTP_OK
 import com.owncloud.android.lib.common.http.methods.webdav.DavConstants.DEPTH_0
-import com.owncloud.android.lib.common.http.methods.webdav.DavUtils
 import com.owncloud.android.lib.common.http.methods.webdav.PropfindMethod
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
 import com.owncloud.android.lib.common.network.WebdavUtils
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
@@ -44,11 +44,14 @@ import java.util.concurrent.TimeUnit
  * @author David A. Velasco
  * @author masensio
  * @author David González Verdugo
+ *
+ * @param propfindProfile properties to request; [PropfindProfile.ETAG] is enough to poll for changes
  */
 
 class ReadRemoteFileOperation(
     val remotePath: String,
     val spaceWebDavUrl: String? = null,
+    val propfindProfile: PropfindProfile = PropfindProfile.FULL,
 ) : RemoteOperation<RemoteFile>() {
 
     /**
@@ -62,7 +65,7 @@ class ReadRemoteFileOperation(
             val propFind = PropfindMethod(
                 url = getFinalWebDavUrl(),
                 depth = DEPTH_0,
-                propertiesToRequest = DavUtils.allPropSet
+                propertiesToRequest = propfindProfile.properties
             ).apply {
                 setReadTimeout(SYNC_READ_TIMEOUT, TimeUnit.SECONDS)
                 setConnectionTimeout(SYNC_CONNECTION_TIMEOUT, TimeUnit.SECONDS)
@@ -74,7 +77,7 @@ class ReadRemoteFileOperation(
             return if (isSuccess(status)) {
                 val remoteFile = RemoteFile.getRemoteFileFromDav(
                     davResource = propFind.root!!,
-                    userId = AccountUtils.getUserId(mAccount, mContext),
+                    userId = client.userId ?: AccountUtils.getUserId(mAccount, mContext),
                     userName = mAccount.name,
                     spaceWebDavUrl = spaceWebDavUrl,
                 )
@@ -0,0 +1,119 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.files
+
+import at.bitfire.dav4jvm.PropertyRegistry
+import at.bitfire.dav4jvm.Response.HrefRelation
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.accounts.AccountUtils
+import com.owncloud.android.lib.common.http.HttpConstants.HTTP_MULTI_STATUS
+import com.owncloud.android.lib.common.http.HttpConstants.HTTP_OK
+import com.owncloud.android.lib.common.http.methods.webdav.DavConstants
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindMethod
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
+import com.owncloud.android.lib.common.http.methods.webdav.properties.OCShareTypes
+import com.owncloud.android.lib.common.network.WebdavUtils
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import com.owncloud.android.lib.common.utils.isOneOf
+import timber.log.Timber
+import java.net.URL
+
+/**
+ * Same as [ReadRemoteFolderOperation], but returning a [CompactRemoteFileListing]. Every entry is mapped and added
+ * to the listing while the response is parsed, so neither the parsed responses nor a list of [RemoteFile] are
+ * ever kept for the whole folder.
+ *
+ * As with any streamed response, the PROPFIND is not retried after a transient failure; the listing cache of
+ * [ReadRemoteFolderOperation] is not used either.
+ *
+ * @param propfindProfile properties to request for the folder and its children
+ */
+class ReadRemoteFolderCompactOperation(
+    val remotePath: String,
+    val spaceWebDavUrl: String? = null,
+    val propfindProfile: PropfindProfile = PropfindProfile.FULL,
+) : RemoteOperation<CompactRemoteFileListing>() {
+
+    override fun run(client: OwnCloudClient): RemoteOperationResult<CompactRemoteFileListing> {
+        try {
+            PropertyRegistry.register(OCShareTypes.Factory())
+
+            val userId = client.userId ?: AccountUtils.getUserId(mAccount, mContext)
+            val builder = CompactRemoteFileListing.Builder()
+            // The folder goes first in the listing; members found before it, if any, wait for it here
+            val membersBeforeFolder = mutableListOf<RemoteFile>()
+            var folderFound = false
+
+            val baseWebDavUrl = spaceWebDavUrl ?: client.userFilesWebDavUri.toString()
+            val propfindMethod = PropfindMethod(
+                URL(baseWebDavUrl + WebdavUtils.encodePath(remotePath)),
+                DavConstants.DEPTH_1,
+                propfindProfile.properties
+            ) { response, relation ->
+                fun toRemoteFile() = RemoteFile.getRemoteFileFromDav(
+                    davResource = response,
+                    userId = userId,
+                    userName = mAccount.name,
+                    spaceWebDavUrl = spaceWebDavUrl,
+                )
+                when (relation) {
+                    HrefRelation.SELF -> {
+                        builder.add(toRemoteFile())
+                        membersBeforeFolder.forEach { builder.add(it) }
+                        membersBeforeFolder.clear()
+                        folderFound = true
+                    }
+                    HrefRelation.MEMBER ->
+                        if (folderFound) builder.add(toRemoteFile()) else membersBeforeFolder.add(toRemoteFile())
+                    HrefRelation.OTHER -> Unit
+                }
+            }
+
+            val status = client.executeHttpMethod(propfindMethod)
+
+            if (!status.isOneOf(HTTP_OK, HTTP_MULTI_STATUS)) {
+                return RemoteOperationResult<CompactRemoteFileListing>(propfindMethod).also {
+                    Timber.w("Listing of $remotePath failed: ${it.logMessage}")
+                }
+            }
+            if (!folderFound) {
+                return RemoteOperationResult<CompactRemoteFileListing>(ResultCode.FILE_NOT_FOUND).also {
+                    Timber.w("Listing of $remotePath does not include the folder itself")
+                }
+            }
+
+            return RemoteOperationResult<CompactRemoteFileListing>(ResultCode.OK).apply {
+                data = builder.build()
+                Timber.i("Listed $remotePath with ${data.size} entries. ${this.logMessage}")
+            }
+        } catch (e: Exception) {
+            return RemoteOperationResult<CompactRemoteFileListing>(e).also {
+                Timber.e(it.exception, "Listing of $remotePath failed")
+            }
+        }
+    }
+}
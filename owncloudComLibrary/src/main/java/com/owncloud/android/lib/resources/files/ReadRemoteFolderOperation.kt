@@ -29,8 +29,8 @@ import com.owncloud.android.lib.common.accounts.AccountUtils
 import com.owncloud.android.lib.common.http.HttpConstants.HTTP_MULTI_STATUS
 import com.owncloud.android.lib.common.http.HttpConstants.HTTP_OK
 import com.owncloud.android.lib.common.http.methods.webdav.DavConstants
-import com.owncloud.android.lib.common.http.methods.webdav.DavUtils
 import com.owncloud.android.lib.common.http.methods.webdav.PropfindMethod
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
 import com.owncloud.android.lib.common.http.methods.webdav.properties.OCShareTypes
 import com.owncloud.android.lib.common.network.WebdavUtils
 import com.owncloud.android.lib.common.operations.RemoteOperation
@@ -46,10 +46,15 @@ import java.net.URL
  * @author David A. Velasco
  * @author masensio
  * @author David González Verdugo
+ *
+ * @param propfindProfile properties to request for the folder and its children
+ * @param listingCache    cache to answer from when the ETag of the folder did not change, null to always list
  */
 class ReadRemoteFolderOperation(
     val remotePath: String,
     val spaceWebDavUrl: String? = null,
+    val propfindProfile: PropfindProfile = PropfindProfile.FULL,
+    private val listingCache: FolderListingCache? = FolderListingCache.default,
 ) : RemoteOperation<ArrayList<RemoteFile>>() {
 
     /**
@@ -61,20 +66,28 @@ class ReadRemoteFolderOperation(
         try {
             PropertyRegistry.register(OCShareTypes.Factory())
 
+            getCachedListingIfUnchanged(client)?.let { cachedFolderAndFiles ->
+                return RemoteOperationResult<ArrayList<RemoteFile>>(ResultCode.OK).apply {
+                    data = cachedFolderAndFiles
+                    Timber.i("Synchronized $remotePath with ${cachedFolderAndFiles.size} cached files, ETag unchanged")
+                }
+            }
+
             val propfindMethod = PropfindMethod(
                 getFinalWebDavUrl(),
                 DavConstants.DEPTH_1,
-                DavUtils.allPropSet
+                propfindProfile.properties
             )
 
             val status = client.executeHttpMethod(propfindMethod)
 
             if (isSuccess(status)) {
                 val mFolderAndFiles = ArrayList<RemoteFile>()
+                val userId = client.userId ?: AccountUtils.getUserId(mAccount, mContext)
 
                 val remoteFolder = RemoteFile.getRemoteFileFromDav(
                     davResource = propfindMethod.root!!,
-                    userId = AccountUtils.getUserId(mAccount, mContext),
+                    userId = userId,
                     userName = mAccount.name,
                     spaceWebDavUrl = spaceWebDavUrl,
                 )
@@ -84,12 +97,13 @@ class ReadRemoteFolderOperation(
                 propfindMethod.members.forEach { resource ->
                     val remoteFile = RemoteFile.getRemoteFileFromDav(
                         davResource = resource,
-                        userId = AccountUtils.getUserId(mAccount, mContext),
+                        userId = userId,
                         userName = mAccount.name,
                         spaceWebDavUrl = spaceWebDavUrl,
                     )
                     mFolderAndFiles.add(remoteFile)
                 }
+                listingCache?.put(FolderListingCache.accountKeyOf(client), remotePath, spaceWebDavUrl, propfindProfile, mFolderAndFiles)
 
                 // Result of the operation
                 return RemoteOperationResult<ArrayList<RemoteFile>>(ResultCode.OK).apply {
@@ -108,6 +122,23 @@ class ReadRemoteFolderOperation(
         }
     }
 
+    /**
+     * Checks the ETag of the folder with a Depth 0 PROPFIND, only if a listing of it is cached.
+     */
+    private fun getCachedListingIfUnchanged(client: OwnCloudClient): ArrayList<RemoteFile>? {
+        val cache = listingCache ?: return null
+        val account = FolderListingCache.accountKeyOf(client)
+        if (!cache.contains(account, remotePath, spaceWebDavUrl, propfindProfile)) return null
+
+        val etagResult = ReadRemoteFileOperation(
+            remotePath = remotePath,
+            spaceWebDavUrl = spaceWebDavUrl,
+            propfindProfile = PropfindProfile.ETAG_AND_ID,
+        ).execute(client)
+        val etag = if (etagResult.isSuccess) etagResult.data.etag else null
+        return etag?.let { cache.get(account, remotePath, spaceWebDavUrl, propfindProfile, it) }
+    }
+
     private fun getFinalWebDavUrl(): URL {
         val baseWebDavUrl = spaceWebDavUrl ?: client.userFilesWebDavUri.toString()
 
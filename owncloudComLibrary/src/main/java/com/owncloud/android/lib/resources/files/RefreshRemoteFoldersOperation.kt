@@ -0,0 +1,108 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files
+
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import timber.log.Timber
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Remote operation listing several folders, up to [parallelism] of them at the same time.
+ *
+ * Every folder is listed with [ReadRemoteFolderOperation], and all the requests share the connection pool of
+ * the client, so the connections opened for the first folders are reused by the next ones.
+ *
+ * The operation succeeds even if some folders cannot be listed: its data maps every remote path, in the order
+ * given, to the result of listing it.
+ *
+ * @param remotePaths    remote paths of the folders to list
+ * @param spaceWebDavUrl custom web dav url for space
+ * @param parallelism    maximum number of folders listed at the same time
+ */
+class RefreshRemoteFoldersOperation internal constructor(
+    val remotePaths: List<String>,
+    val spaceWebDavUrl: String?,
+    val parallelism: Int,
+    val propfindProfile: PropfindProfile,
+    private val executeOperation: (ReadRemoteFolderOperation, OwnCloudClient) -> RemoteOperationResult<ArrayList<RemoteFile>>,
+) : RemoteOperation<Map<String, RemoteOperationResult<ArrayList<RemoteFile>>>>() {
+
+    @JvmOverloads
+    constructor(
+        remotePaths: List<String>,
+        spaceWebDavUrl: String? = null,
+        parallelism: Int = DEFAULT_PARALLELISM,
+        propfindProfile: PropfindProfile = PropfindProfile.FULL,
+    ) : this(remotePaths, spaceWebDavUrl, parallelism, propfindProfile, { operation, client -> operation.execute(client) })
+
+    override fun run(client: OwnCloudClient): RemoteOperationResult<Map<String, RemoteOperationResult<ArrayList<RemoteFile>>>> {
+        val paths = remotePaths.distinct()
+        val executor = Executors.newFixedThreadPool(parallelism.coerceIn(1, paths.size.coerceAtLeast(1)))
+        try {
+            val futures = executor.invokeAll(
+                paths.map { remotePath ->
+                    Callable {
+                        val readFolderOperation = ReadRemoteFolderOperation(
+                            remotePath = remotePath,
+                            spaceWebDavUrl = spaceWebDavUrl,
+                            propfindProfile = propfindProfile,
+                        )
+                        executeOperation(readFolderOperation, client)
+                    }
+                }
+            )
+
+            val listings = LinkedHashMap<String, RemoteOperationResult<ArrayList<RemoteFile>>>(paths.size * 2)
+            paths.forEachIndexed { index, remotePath ->
+                listings[remotePath] = try {
+                    futures[index].get()
+                } catch (e: ExecutionException) {
+                    RemoteOperationResult<ArrayList<RemoteFile>>(e.cause as? Exception ?: e)
+                }
+            }
+
+            return RemoteOperationResult<Map<String, RemoteOperationResult<ArrayList<RemoteFile>>>>(ResultCode.OK).apply {
+                data = listings
+                Timber.i("Refreshed ${paths.size} folders, ${listings.values.count { !it.isSuccess }} failed")
+            }
+        } catch (e: Exception) {
+            return RemoteOperationResult(e)
+        } finally {
+            executor.shutdownNow()
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        }
+    }
+
+    companion object {
+        private const val DEFAULT_PARALLELISM = 4
+        private const val SHUTDOWN_TIMEOUT_SECONDS = 5L
+    }
+}
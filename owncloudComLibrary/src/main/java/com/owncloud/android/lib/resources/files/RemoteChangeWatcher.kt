@@ -0,0 +1,233 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files
+
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
+import com.owncloud.android.lib.resources.status.RemoteCapability
+import timber.log.Timber
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import kotlin.math.min
+
+/**
+ * Watches the root ETags of the personal files of an account and of any of its spaces, and notifies listeners
+ * when one of them changes, as the ETag of a folder changes whenever anything beneath it does.
+ *
+ * Every poll sends a Depth 0 PROPFIND requesting only the ETag for each watched root. Polls start every
+ * [pollIntervalMillis]; every poll finding no change makes the next one [BACKOFF_FACTOR] times later, up to
+ * [maxPollIntervalMillis], and any change, or a call to [pollNow], goes back to [pollIntervalMillis].
+ *
+ * The first poll of a root only records its ETag, unless a known ETag is given when watching it.
+ */
+class RemoteChangeWatcher internal constructor(
+    private val readRootEtag: (spaceWebDavUrl: String?) -> String?,
+    private val pollIntervalMillis: Long,
+    private val maxPollIntervalMillis: Long,
+) {
+
+    @JvmOverloads
+    constructor(
+        client: OwnCloudClient,
+        pollIntervalMillis: Long = DEFAULT_POLL_INTERVAL_MILLIS,
+        maxPollIntervalMillis: Long = pollIntervalMillis * DEFAULT_MAX_BACKOFF,
+    ) : this({ spaceWebDavUrl -> pollRootEtag(client, spaceWebDavUrl) }, pollIntervalMillis, maxPollIntervalMillis)
+
+    fun interface Listener {
+        /**
+         * @param spaceWebDavUrl space whose root changed, null for the personal files
+         * @param etag           new ETag of the root
+         */
+        fun onRemoteChanged(spaceWebDavUrl: String?, etag: String)
+    }
+
+    private class WatchedRoot(var etag: String?) {
+        val listeners = CopyOnWriteArrayList<Listener>()
+    }
+
+    // Space web dav url, or PERSONAL_FILES, to root; guarded by itself
+    private val roots = HashMap<String, WatchedRoot>()
+
+    private var scheduler: ScheduledThreadPoolExecutor? = null
+    private var nextPoll: ScheduledFuture<*>? = null
+    private var currentIntervalMillis = pollIntervalMillis
+
+    // Bumped whenever the polls are started, stopped or restarted; only a poll of the current generation schedules
+    // the next one, so a poll still running when pollNow is called does not start a second chain of polls
+    private var generation = 0L
+
+    /**
+     * @param spaceWebDavUrl space to watch, null for the personal files
+     * @param knownEtag      ETag already known for the root, if any
+     */
+    @JvmOverloads
+    fun watch(listener: Listener, spaceWebDavUrl: String? = null, knownEtag: String? = null) {
+        synchronized(roots) {
+            roots.getOrPut(spaceWebDavUrl ?: PERSONAL_FILES) { WatchedRoot(knownEtag) }.listeners.add(listener)
+        }
+    }
+
+    @JvmOverloads
+    fun unwatch(listener: Listener, spaceWebDavUrl: String? = null) {
+        synchronized(roots) {
+            val key = spaceWebDavUrl ?: PERSONAL_FILES
+            val root = roots[key] ?: return
+            root.listeners.remove(listener)
+            if (root.listeners.isEmpty()) {
+                roots.remove(key)
+            }
+        }
+    }
+
+    @Synchronized
+    fun start() {
+        if (scheduler != null) {
+            return
+        }
+        scheduler = ScheduledThreadPoolExecutor(1) { runnable ->
+            Thread(runnable, THREAD_NAME).apply { isDaemon = true }
+        }.apply { removeOnCancelPolicy = true }
+        currentIntervalMillis = pollIntervalMillis
+        generation++
+        schedule(0)
+    }
+
+    @Synchronized
+    fun stop() {
+        scheduler?.shutdownNow()
+        scheduler = null
+        nextPoll = null
+        generation++
+    }
+
+    /**
+     * Polls as soon as possible, and goes back to the shortest interval, e.g. when the app comes to foreground.
+     */
+    @Synchronized
+    fun pollNow() {
+        if (scheduler == null) {
+            return
+        }
+        nextPoll?.cancel(false)
+        currentIntervalMillis = pollIntervalMillis
+        generation++
+        schedule(0)
+    }
+
+    /**
+     * Polls scheduled and not started yet.
+     */
+    @Synchronized
+    internal fun scheduledPollCount(): Int = scheduler?.queue?.size ?: 0
+
+    private fun schedule(delayMillis: Long) {
+        val pollGeneration = generation
+        nextPoll = scheduler?.schedule({ poll(pollGeneration) }, delayMillis, TimeUnit.MILLISECONDS)
+    }
+
+    private fun poll(pollGeneration: Long) {
+        var changed = false
+        try {
+            changed = pollRoots()
+        } catch (e: Exception) {
+            Timber.e(e, "Polling of remote changes failed")
+        }
+
+        synchronized(this) {
+            if (Thread.currentThread().isInterrupted || pollGeneration != generation) {
+                return
+            }
+            currentIntervalMillis = nextIntervalMillis(currentIntervalMillis, changed, pollIntervalMillis, maxPollIntervalMillis)
+            schedule(currentIntervalMillis)
+        }
+    }
+
+    /**
+     * @return whether any root changed
+     */
+    private fun pollRoots(): Boolean {
+        val watchedRoots = synchronized(roots) { roots.toMap() }
+        var changed = false
+        watchedRoots.forEach { (key, root) ->
+            val spaceWebDavUrl = key.takeIf { it != PERSONAL_FILES }
+            val etag = readRootEtag(spaceWebDavUrl) ?: return@forEach
+            val previousEtag = root.etag
+            root.etag = etag
+            if (previousEtag != null && previousEtag != etag) {
+                changed = true
+                root.listeners.forEach { notify(it, spaceWebDavUrl, etag) }
+            }
+        }
+        return changed
+    }
+
+    // A failing listener must neither keep the others from being notified nor stop the polls
+    private fun notify(listener: Listener, spaceWebDavUrl: String?, etag: String) {
+        try {
+            listener.onRemoteChanged(spaceWebDavUrl, etag)
+        } catch (e: Exception) {
+            Timber.e(e, "Listener of remote changes failed")
+        }
+    }
+
+    companion object {
+        private const val THREAD_NAME = "RemoteChangeWatcher"
+        private const val PERSONAL_FILES = ""
+        private const val ROOT_PATH = "/"
+        private const val DEFAULT_POLL_INTERVAL_MILLIS = 60_000L
+        private const val MIN_POLL_INTERVAL_MILLIS = 5_000L
+        private const val DEFAULT_MAX_BACKOFF = 10
+        private const val BACKOFF_FACTOR = 1.5
+
+        /**
+         * Watcher polling at the interval advertised by the server, in milliseconds. Intervals shorter than 5 seconds
+         * are ignored, as desktop clients do.
+         */
+        @JvmStatic
+        fun forCapability(client: OwnCloudClient, capability: RemoteCapability?): RemoteChangeWatcher {
+            val serverInterval = capability?.corePollinterval?.toLong() ?: 0
+            val pollInterval = if (serverInterval >= MIN_POLL_INTERVAL_MILLIS) serverInterval else DEFAULT_POLL_INTERVAL_MILLIS
+            return RemoteChangeWatcher(client, pollInterval)
+        }
+
+        private fun pollRootEtag(client: OwnCloudClient, spaceWebDavUrl: String?): String? {
+            val result = ReadRemoteFileOperation(
+                remotePath = ROOT_PATH,
+                spaceWebDavUrl = spaceWebDavUrl,
+                propfindProfile = PropfindProfile.ETAG,
+            ).execute(client)
+            val etag = result.data?.etag
+            if (!result.isSuccess || etag == null) {
+                Timber.d("Could not poll root of ${spaceWebDavUrl ?: "personal files"}: ${result.logMessage}")
+                return null
+            }
+            return etag
+        }
+
+        internal fun nextIntervalMillis(currentMillis: Long, changed: Boolean, minMillis: Long, maxMillis: Long): Long =
+            if (changed) minMillis else min((currentMillis * BACKOFF_FACTOR).toLong(), maxMillis)
+    }
+}
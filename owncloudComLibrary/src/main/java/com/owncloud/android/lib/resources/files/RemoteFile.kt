@@ -39,6 +39,7 @@ import at.bitfire.dav4jvm.property.OCId
 import at.bitfire.dav4jvm.property.OCPermissions
 import at.bitfire.dav4jvm.property.OCPrivatelink
 import at.bitfire.dav4jvm.property.OCSize
+import at.bitfire.dav4jvm.property.ResourceType
 import com.owncloud.android.lib.common.OwnCloudClient
 import com.owncloud.android.lib.common.http.HttpConstants
 import com.owncloud.android.lib.common.http.methods.webdav.properties.OCShareTypes
@@ -95,7 +96,14 @@ data class RemoteFile(
 
         const val MIME_DIR = "DIR"
         const val MIME_DIR_UNIX = "httpd/unix-directory"
+        private const val MIME_UNKNOWN = "application/octet-stream"
 
+        /**
+         * Maps a PROPFIND entry. Entries requested with a reduced
+         * [com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile] are accepted: properties not
+         * received keep their default values, and the mime type falls back to the resource type, or to the
+         * trailing slash of the path if that was not received either.
+         */
         fun getRemoteFileFromDav(
             davResource: Response,
             userId: String,
@@ -105,9 +113,14 @@ data class RemoteFile(
             val remotePath = getRemotePathFromUrl(davResource.href, userId, spaceWebDavUrl)
             val remoteFile = RemoteFile(remotePath = remotePath, owner = userName)
             val properties = getPropertiesEvenIfPostProcessing(davResource)
+            var hasContentType = false
+            var isCollection: Boolean? = null
 
             for (property in properties) {
                 when (property) {
+                    is ResourceType -> {
+                        isCollection = property.types.contains(ResourceType.COLLECTION)
+                    }
                     is CreationDate -> {
                         remoteFile.creationTimestamp = property.creationDate.toLong()
                     }
@@ -115,7 +128,10 @@ data class RemoteFile(
                         remoteFile.length = property.contentLength
                     }
                     is GetContentType -> {
-                        property.type?.let { remoteFile.mimeType = it }
+                        property.type?.let {
+                            remoteFile.mimeType = it
+                            hasContentType = true
+                        }
                     }
                     is GetLastModified -> {
                         remoteFile.modifiedTimestamp = property.lastModified
@@ -152,6 +168,9 @@ data class RemoteFile(
                     }
                 }
             }
+            if (!hasContentType && !(isCollection ?: remotePath.endsWith(File.separator))) {
+                remoteFile.mimeType = MIME_UNKNOWN
+            }
             return remoteFile
         }
 
@@ -0,0 +1,397 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files
+
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.http.HttpConstants
+import com.owncloud.android.lib.common.http.methods.nonwebdav.GetMethod
+import com.owncloud.android.lib.common.network.WebdavUtils
+import timber.log.Timber
+import java.io.Closeable
+import java.io.IOException
+import java.io.InputStream
+import java.net.URL
+import java.nio.ByteBuffer
+import java.nio.channels.ClosedChannelException
+import java.nio.channels.ReadableByteChannel
+import kotlin.math.min
+
+/**
+ * Read-only random access to the content of a remote file, without downloading it.
+ *
+ * Content is requested on demand with Range GET requests, in blocks of [blockSize] bytes, and the last
+ * [maxCachedBlocks] blocks used are kept in memory. While reads are sequential every request asks for twice as many
+ * blocks as the previous one, up to [maxReadaheadBlocks], so streaming a file needs a few requests only.
+ *
+ * All the reads are pinned to a version of the file: [etag] if given, or else the one of the first response. If
+ * the file changes, reads fail with [RemoteFileChangedException].
+ *
+ * A server ignoring Range headers sends the whole file instead. Reads from the start of the file still work then,
+ * but any other read fails, as it would download everything before the position read; unless
+ * [allowFullResponseFallback] is set, which makes such reads skip the content up to their position.
+ *
+ * Same API as java.nio.channels.SeekableByteChannel, which is not available before API 24.
+ */
+class RemoteFileChannel internal constructor(
+    private val requestRange: (start: Long, end: Long, ifMatch: String?) -> RangeResponse,
+    private val remotePath: String,
+    etag: String?,
+    private val blockSize: Int,
+    private val maxCachedBlocks: Int,
+    private val maxReadaheadBlocks: Int,
+    private val allowFullResponseFallback: Boolean,
+) : ReadableByteChannel {
+
+    @JvmOverloads
+    constructor(
+        client: OwnCloudClient,
+        remotePath: String,
+        spaceWebDavUrl: String? = null,
+        etag: String? = null,
+        blockSize: Int = DEFAULT_BLOCK_SIZE,
+        maxCachedBlocks: Int = DEFAULT_MAX_CACHED_BLOCKS,
+        maxReadaheadBlocks: Int = DEFAULT_MAX_READAHEAD_BLOCKS,
+        allowFullResponseFallback: Boolean = false,
+    ) : this(
+        { start, end, ifMatch -> executeRangeRequest(client, remotePath, spaceWebDavUrl, start, end, ifMatch) },
+        remotePath, etag, blockSize, maxCachedBlocks, maxReadaheadBlocks, allowFullResponseFallback
+    )
+
+    init {
+        require(blockSize > 0) { "Block size must be positive" }
+        require(maxReadaheadBlocks in 1..maxCachedBlocks) { "Readahead must fit in the block cache" }
+    }
+
+    /**
+     * ETag of the version of the file being read, once known.
+     */
+    var etag: String? = etag?.let { quoteEtag(it) }
+        private set
+
+    /**
+     * Number of requests sent so far.
+     */
+    var requestCount = 0
+        private set
+
+    private var size = UNKNOWN_SIZE
+    private var position = 0L
+    private var open = true
+
+    private var lastBlockIndex = NO_BLOCK
+    private var readaheadBlocks = 1
+
+    private val blocks = object : LinkedHashMap<Long, ByteArray>(maxCachedBlocks * 2, LOAD_FACTOR, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Long, ByteArray>?): Boolean =
+            this.size > maxCachedBlocks
+    }
+
+    @Synchronized
+    fun position(): Long = position
+
+    @Synchronized
+    fun position(newPosition: Long): RemoteFileChannel {
+        ensureOpen()
+        require(newPosition >= 0) { "Negative position" }
+        position = newPosition
+        return this
+    }
+
+    /**
+     * Size of the file, requesting its first block if not known yet.
+     */
+    @Synchronized
+    @Throws(IOException::class)
+    fun size(): Long {
+        ensureOpen()
+        if (size == UNKNOWN_SIZE) {
+            getBlock(position / blockSize)
+        }
+        return size
+    }
+
+    @Synchronized
+    @Throws(IOException::class)
+    override fun read(dst: ByteBuffer): Int {
+        ensureOpen()
+        var read = 0
+        while (dst.hasRemaining() && (size == UNKNOWN_SIZE || position < size)) {
+            val blockIndex = position / blockSize
+            val block = getBlock(blockIndex) ?: break
+            val offset = (position - blockIndex * blockSize).toInt()
+            if (offset >= block.size) {
+                break
+            }
+            val count = min(dst.remaining(), block.size - offset)
+            dst.put(block, offset, count)
+            position += count
+            read += count
+        }
+        return if (read == 0 && dst.hasRemaining()) END_OF_FILE else read
+    }
+
+    override fun isOpen(): Boolean = open
+
+    @Synchronized
+    override fun close() {
+        open = false
+        blocks.clear()
+    }
+
+    /**
+     * Stream reading this channel from its current position. Closing the stream closes the channel.
+     */
+    fun newInputStream(): InputStream = ChannelInputStream()
+
+    /**
+     * @return the block, or null if it is beyond the end of the file
+     */
+    private fun getBlock(blockIndex: Long): ByteArray? {
+        val isSequential = blockIndex == lastBlockIndex || blockIndex == lastBlockIndex + 1
+        lastBlockIndex = blockIndex
+        blocks[blockIndex]?.let { return it }
+
+        readaheadBlocks = if (isSequential) min(readaheadBlocks * 2, maxReadaheadBlocks) else 1
+        fetchBlocks(blockIndex, readaheadBlocks)
+        return blocks[blockIndex]
+    }
+
+    private fun fetchBlocks(firstBlockIndex: Long, blockCount: Int) {
+        val start = firstBlockIndex * blockSize
+        var end = start + blockCount.toLong() * blockSize - 1
+        if (size != UNKNOWN_SIZE) {
+            if (start >= size) {
+                return
+            }
+            end = min(end, size - 1)
+        }
+
+        val response = requestRange(start, end, etag)
+        requestCount++
+        Timber.d("Requested bytes $start-$end of $remotePath: HTTP ${response.status}")
+
+        try {
+            when (response.status) {
+                HttpConstants.HTTP_PARTIAL_CONTENT -> {
+                    pinEtag(response.etag)
+                    parseTotalSize(response.contentRange)?.let { size = it }
+                    readBlocks(response.body, firstBlockIndex, rangeLength(start, end))
+                }
+                HttpConstants.HTTP_OK -> {
+                    // Ranges not supported: skip to the start of the range, if allowed, and stop reading after its end
+                    if (start > 0 && !allowFullResponseFallback) {
+                        throw IOException("Range requests not supported for $remotePath")
+                    }
+                    pinEtag(response.etag)
+                    response.contentLength?.let { size = it }
+                    val body = response.body ?: throw IOException("Empty response for $remotePath")
+                    skipFully(body, start)
+                    readBlocks(body, firstBlockIndex, rangeLength(start, end))
+                }
+                HttpConstants.HTTP_REQUESTED_RANGE_NOT_SATISFIABLE -> {
+                    size = parseTotalSize(response.contentRange) ?: start
+                }
+                HttpConstants.HTTP_PRECONDITION_FAILED -> throw RemoteFileChangedException(remotePath)
+                else -> throw IOException("Range request for $remotePath failed with HTTP status ${response.status}")
+            }
+        } finally {
+            response.close()
+        }
+    }
+
+    private fun pinEtag(responseEtag: String?) {
+        responseEtag ?: return
+        val pinnedEtag = etag
+        if (pinnedEtag == null) {
+            etag = quoteEtag(responseEtag)
+        } else if (quoteEtag(responseEtag) != pinnedEtag) {
+            throw RemoteFileChangedException(remotePath)
+        }
+    }
+
+    /**
+     * Length of the requested range, up to the end of the file if its size is already known.
+     */
+    private fun rangeLength(start: Long, end: Long): Long =
+        (if (size == UNKNOWN_SIZE) end else min(end, size - 1)) - start + 1
+
+    private fun readBlocks(body: InputStream?, firstBlockIndex: Long, length: Long) {
+        body ?: return
+        var blockIndex = firstBlockIndex
+        var remaining = length
+        while (remaining > 0) {
+            val buffer = ByteArray(min(remaining, blockSize.toLong()).toInt())
+            val read = readFully(body, buffer)
+            if (read < buffer.size && size != UNKNOWN_SIZE) {
+                // The server told the size of the file, so the response was cut short
+                throw IOException("Response for $remotePath ended ${remaining - read} bytes before the range end")
+            }
+            if (read > 0) {
+                blocks[blockIndex] = if (read == buffer.size) buffer else buffer.copyOf(read)
+            }
+            if (read < buffer.size) {
+                // Shorter than expected and no size told: the file ends here
+                size = blockIndex * blockSize + read
+                return
+            }
+            remaining -= read
+            blockIndex++
+        }
+    }
+
+    private fun readFully(input: InputStream, buffer: ByteArray): Int {
+        var total = 0
+        while (total < buffer.size) {
+            val read = input.read(buffer, total, buffer.size - total)
+            if (read == END_OF_FILE) {
+                break
+            }
+            total += read
+        }
+        return total
+    }
+
+    private fun skipFully(input: InputStream, count: Long) {
+        var remaining = count
+        while (remaining > 0) {
+            val skipped = input.skip(remaining)
+            if (skipped <= 0) {
+                if (input.read() == END_OF_FILE) return
+                remaining--
+            } else {
+                remaining -= skipped
+            }
+        }
+    }
+
+    private fun ensureOpen() {
+        if (!open) {
+            throw ClosedChannelException()
+        }
+    }
+
+    private inner class ChannelInputStream : InputStream() {
+        private val singleByte = ByteArray(1)
+
+        override fun read(): Int =
+            if (read(singleByte, 0, 1) == END_OF_FILE) END_OF_FILE else singleByte[0].toInt() and BYTE_MASK
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int =
+            if (len == 0) 0 else this@RemoteFileChannel.read(ByteBuffer.wrap(b, off, len))
+
+        override fun skip(n: Long): Long {
+            if (n <= 0) {
+                return 0
+            }
+            synchronized(this@RemoteFileChannel) {
+                val skipped = min(n, (size() - position).coerceAtLeast(0))
+                position += skipped
+                return skipped
+            }
+        }
+
+        override fun available(): Int =
+            synchronized(this@RemoteFileChannel) {
+                val blockIndex = position / blockSize
+                val block = blocks[blockIndex] ?: return 0
+                (block.size - (position - blockIndex * blockSize)).toInt().coerceAtLeast(0)
+            }
+
+        override fun close() {
+            this@RemoteFileChannel.close()
+        }
+    }
+
+    /**
+     * Response to a Range GET request; closing it releases the connection.
+     */
+    internal class RangeResponse(
+        val status: Int,
+        val etag: String?,
+        val contentRange: String?,
+        val contentLength: Long?,
+        val body: InputStream?,
+        private val onClose: () -> Unit = {},
+    ) : Closeable {
+        override fun close() = onClose()
+    }
+
+    companion object {
+        private const val DEFAULT_BLOCK_SIZE = 256 * 1024
+        private const val DEFAULT_MAX_CACHED_BLOCKS = 32
+        private const val DEFAULT_MAX_READAHEAD_BLOCKS = 16
+        private const val LOAD_FACTOR = 0.75f
+        private const val UNKNOWN_SIZE = -1L
+        private const val NO_BLOCK = -2L
+        private const val END_OF_FILE = -1
+        private const val BYTE_MASK = 0xFF
+        private const val WEAK_ETAG_PREFIX = "W/"
+
+        private val CONTENT_RANGE_TOTAL = Regex("""^bytes\s+(?:\d+-\d+|\*)/(\d+)$""")
+
+        /**
+         * Total size from a Content-Range header, such as "bytes 0-1023/4096".
+         */
+        internal fun parseTotalSize(contentRange: String?): Long? =
+            contentRange?.trim()?.let { CONTENT_RANGE_TOTAL.find(it) }?.groupValues?.get(1)?.toLongOrNull()
+
+        private fun executeRangeRequest(
+            client: OwnCloudClient,
+            remotePath: String,
+            spaceWebDavUrl: String?,
+            start: Long,
+            end: Long,
+            ifMatch: String?,
+        ): RangeResponse {
+            val webDavUri = spaceWebDavUrl ?: client.userFilesWebDavUri.toString()
+            val getMethod = GetMethod(URL(webDavUri + WebdavUtils.encodePath(remotePath)))
+            getMethod.setRequestHeader(HttpConstants.RANGE_HEADER, "bytes=$start-$end")
+            ifMatch?.let { getMethod.setRequestHeader(HttpConstants.IF_MATCH_HEADER, it) }
+
+            val status = try {
+                client.executeHttpMethod(getMethod)
+            } catch (e: IOException) {
+                throw e
+            } catch (e: Exception) {
+                throw IOException("Range request for $remotePath failed", e)
+            }
+            return RangeResponse(
+                status = status,
+                etag = WebdavUtils.getEtagFromResponse(getMethod).takeIf { it.isNotEmpty() },
+                contentRange = getMethod.getResponseHeader(HttpConstants.CONTENT_RANGE_HEADER),
+                contentLength = getMethod.getResponseHeader(HttpConstants.CONTENT_LENGTH_HEADER)?.toLongOrNull(),
+                body = getMethod.getResponseBodyAsStream(),
+                onClose = { getMethod.closeResponse() },
+            )
+        }
+
+        private fun quoteEtag(etag: String): String =
+            if (etag.startsWith("\"") || etag.startsWith(WEAK_ETAG_PREFIX)) etag else "\"$etag\""
+    }
+}
+
+/**
+ * The remote file changed while being read through a [RemoteFileChannel].
+ */
+class RemoteFileChangedException(remotePath: String) : IOException("$remotePath changed while being read")
@@ -0,0 +1,162 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files
+
+/**
+ * Changes between two listings of the same folder, as found by [RemoteListingDiff].
+ *
+ * An entry whose remote id is found at another path is reported in [moved] only, never in [added] and [removed].
+ * [modified] holds entries whose content changed, at their new path, including moved ones.
+ */
+data class RemoteListingChanges(
+    val added: List<RemoteFile>,
+    val removed: List<RemoteFile>,
+    val moved: List<MovedRemoteFile>,
+    val modified: List<RemoteFile>,
+) {
+    val isEmpty: Boolean
+        get() = added.isEmpty() && removed.isEmpty() && moved.isEmpty() && modified.isEmpty()
+}
+
+/**
+ * Compares two listings of a folder in linear time.
+ *
+ * Entries are matched by remote id first. Entries that could not be matched that way are matched by remote path,
+ * unless both sides have a remote id, in which case the file at that path was replaced by another one. Matched
+ * entries changed their content when their ETags differ or, if no ETag was received, when their length or
+ * modification time do.
+ *
+ * [CompactRemoteFileListing]s are compared through their columns, only building the [RemoteFile]s reported.
+ */
+object RemoteListingDiff {
+
+    fun compare(oldListing: List<RemoteFile>, newListing: List<RemoteFile>): RemoteListingChanges {
+        val old = ListingColumns.of(oldListing)
+        val new = ListingColumns.of(newListing)
+
+        val oldIndexesByRemoteId = HashMap<String, Int>(old.size * 2)
+        val oldIndexesByPath = HashMap<String, Int>(old.size * 2)
+        for (i in 0 until old.size) {
+            old.remoteIdAt(i)?.let { oldIndexesByRemoteId[it] = i }
+            oldIndexesByPath[old.remotePathAt(i)] = i
+        }
+
+        val oldMatched = BooleanArray(old.size)
+        val newMatches = IntArray(new.size) { NO_MATCH }
+        for (i in 0 until new.size) {
+            val oldIndex = new.remoteIdAt(i)?.let { oldIndexesByRemoteId[it] } ?: continue
+            newMatches[i] = oldIndex
+            oldMatched[oldIndex] = true
+        }
+        for (i in 0 until new.size) {
+            if (newMatches[i] != NO_MATCH) continue
+            val oldIndex = oldIndexesByPath[new.remotePathAt(i)] ?: continue
+            if (!oldMatched[oldIndex] && (old.remoteIdAt(oldIndex) == null || new.remoteIdAt(i) == null)) {
+                newMatches[i] = oldIndex
+                oldMatched[oldIndex] = true
+            }
+        }
+
+        val added = mutableListOf<RemoteFile>()
+        val moved = mutableListOf<MovedRemoteFile>()
+        val modified = mutableListOf<RemoteFile>()
+        for (i in 0 until new.size) {
+            val oldIndex = newMatches[i]
+            if (oldIndex == NO_MATCH) {
+                added.add(new.fileAt(i))
+                continue
+            }
+            val oldPath = old.remotePathAt(oldIndex)
+            val contentChanged = hasContentChanged(old, oldIndex, new, i)
+            if (oldPath != new.remotePathAt(i) || contentChanged) {
+                val file = new.fileAt(i)
+                if (oldPath != file.remotePath) moved.add(MovedRemoteFile(fromPath = oldPath, file = file))
+                if (contentChanged) modified.add(file)
+            }
+        }
+
+        val removed = mutableListOf<RemoteFile>()
+        for (i in 0 until old.size) {
+            if (!oldMatched[i]) removed.add(old.fileAt(i))
+        }
+
+        return RemoteListingChanges(added = added, removed = removed, moved = moved, modified = modified)
+    }
+
+    private fun hasContentChanged(old: ListingColumns, oldIndex: Int, new: ListingColumns, newIndex: Int): Boolean {
+        val oldEtag = old.etagAt(oldIndex)
+        val newEtag = new.etagAt(newIndex)
+        if (oldEtag != null || newEtag != null) {
+            return oldEtag != newEtag || old.isFolderAt(oldIndex) != new.isFolderAt(newIndex)
+        }
+        return old.isFolderAt(oldIndex) != new.isFolderAt(newIndex) ||
+                old.lengthAt(oldIndex) != new.lengthAt(newIndex) ||
+                old.modifiedTimestampAt(oldIndex) != new.modifiedTimestampAt(newIndex)
+    }
+
+    /**
+     * Field access shared by plain and compact listings.
+     */
+    private interface ListingColumns {
+        val size: Int
+        fun remotePathAt(index: Int): String
+        fun remoteIdAt(index: Int): String?
+        fun etagAt(index: Int): String?
+        fun isFolderAt(index: Int): Boolean
+        fun lengthAt(index: Int): Long
+        fun modifiedTimestampAt(index: Int): Long
+        fun fileAt(index: Int): RemoteFile
+
+        companion object {
+            fun of(listing: List<RemoteFile>): ListingColumns =
+                if (listing is CompactRemoteFileListing) CompactColumns(listing) else FileColumns(listing)
+        }
+    }
+
+    private class FileColumns(files: List<RemoteFile>) : ListingColumns {
+        // Copied once, as the listing may not provide constant time random access
+        private val array = files.toTypedArray()
+        override val size: Int get() = array.size
+        override fun remotePathAt(index: Int) = array[index].remotePath
+        override fun remoteIdAt(index: Int) = array[index].remoteId
+        override fun etagAt(index: Int) = array[index].etag
+        override fun isFolderAt(index: Int) = array[index].isFolder
+        override fun lengthAt(index: Int) = array[index].length
+        override fun modifiedTimestampAt(index: Int) = array[index].modifiedTimestamp
+        override fun fileAt(index: Int) = array[index]
+    }
+
+    private class CompactColumns(private val listing: CompactRemoteFileListing) : ListingColumns {
+        override val size: Int get() = listing.size
+        override fun remotePathAt(index: Int) = listing.remotePathAt(index)
+        override fun remoteIdAt(index: Int) = listing.remoteIdAt(index)
+        override fun etagAt(index: Int) = listing.etagAt(index)
+        override fun isFolderAt(index: Int) = listing.isFolderAt(index)
+        override fun lengthAt(index: Int) = listing.lengthAt(index)
+        override fun modifiedTimestampAt(index: Int) = listing.modifiedTimestampAt(index)
+        override fun fileAt(index: Int) = listing[index]
+    }
+
+    private const val NO_MATCH = -1
+}
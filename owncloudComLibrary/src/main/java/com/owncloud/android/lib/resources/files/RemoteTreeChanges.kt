@@ -0,0 +1,204 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.files
+
+/**
+ * What is known of a remote file or folder from a previous synchronization.
+ */
+data class RemoteTreeEntry(
+    val etag: String?,
+    val remoteId: String?,
+    val isFolder: Boolean,
+)
+
+/**
+ * A file or folder that is now at [file].remotePath but was at [fromPath] in the previous snapshot.
+ */
+data class MovedRemoteFile(
+    val fromPath: String,
+    val file: RemoteFile,
+)
+
+/**
+ * Changes in a remote tree since a previous snapshot, as found by [SyncRemoteTreeOperation].
+ *
+ * Removed folders are listed together with all their descendants in the snapshot. Entries whose remote id moved
+ * to another path are reported in [moved] only, never in [added] and [removed].
+ */
+data class RemoteTreeChanges(
+    val added: List<RemoteFile>,
+    val modified: List<RemoteFile>,
+    val removed: List<String>,
+    val moved: List<MovedRemoteFile>,
+    val requestCount: Int,
+) {
+    val isEmpty: Boolean
+        get() = added.isEmpty() && modified.isEmpty() && removed.isEmpty() && moved.isEmpty()
+
+    /**
+     * Snapshot to pass to the next synchronization.
+     */
+    fun applyTo(previousSnapshot: Map<String, RemoteTreeEntry>): Map<String, RemoteTreeEntry> =
+        HashMap(previousSnapshot).apply {
+            removed.forEach { remove(it) }
+            moved.forEach { remove(it.fromPath) }
+            (added + modified + moved.map { it.file }).forEach { put(it.remotePath, it.toTreeEntry()) }
+        }
+}
+
+fun RemoteFile.toTreeEntry() = RemoteTreeEntry(etag = etag, remoteId = remoteId, isFolder = isFolder)
+
+/**
+ * Compares folder listings with a previous snapshot, deciding which folders need to be listed next: only those
+ * that are new or whose ETag changed, as a folder ETag changes whenever anything beneath it changes.
+ *
+ * Snapshot keys follow the remote path convention of [RemoteFile], folders ending with a slash.
+ */
+class RemoteTreeDiff(private val previousSnapshot: Map<String, RemoteTreeEntry>) {
+
+    private val previousChildren: Map<String, List<String>> = previousSnapshot.keys
+        .filter { it != ROOT_PATH }
+        .groupBy { parentPathOf(it) }
+
+    private val added = mutableListOf<RemoteFile>()
+    private val modified = mutableListOf<RemoteFile>()
+    private val removed = mutableListOf<String>()
+
+    /**
+     * Compares the root of the tree, read with Depth 0 and possibly only partially populated.
+     *
+     * @return whether the tree has to be walked at all
+     */
+    fun onRootRead(root: RemoteFile): Boolean =
+        previousSnapshot[root.remotePath]?.etag != root.etag
+
+    /**
+     * Records the root of the tree as found in its own listing.
+     */
+    fun onRootListed(root: RemoteFile) {
+        val previous = previousSnapshot[root.remotePath]
+        when {
+            previous == null -> added.add(root)
+            previous.etag != root.etag -> modified.add(root)
+        }
+    }
+
+    /**
+     * Compares the children of a folder listed with Depth 1.
+     *
+     * @param folderPath remote path of the listed folder
+     * @param children   listing of the folder, without the folder itself
+     * @return remote paths of the child folders to list next
+     */
+    fun onFolderListed(folderPath: String, children: List<RemoteFile>): List<String> {
+        val foldersToList = mutableListOf<String>()
+        val listedPaths = HashSet<String>(children.size * 2)
+
+        children.forEach { child ->
+            listedPaths.add(child.remotePath)
+            val previous = previousSnapshot[child.remotePath]
+            when {
+                previous == null -> {
+                    added.add(child)
+                    if (child.isFolder) foldersToList.add(child.remotePath)
+                }
+                previous.etag != child.etag || previous.isFolder != child.isFolder -> {
+                    modified.add(child)
+                    if (previous.isFolder && !child.isFolder) {
+                        addRemovedDescendants(child.remotePath)
+                    }
+                    if (child.isFolder) foldersToList.add(child.remotePath)
+                }
+            }
+        }
+
+        previousChildren[folderPath]?.forEach { previousPath ->
+            if (previousPath !in listedPaths) {
+                removed.add(previousPath)
+                addRemovedDescendants(previousPath)
+            }
+        }
+        return foldersToList
+    }
+
+    /**
+     * Records a child folder that was found in the listing of its parent but did not exist any more when it was
+     * listed itself, as it was removed in between.
+     *
+     * @param folderPath remote path of the folder, as returned by [onFolderListed]
+     */
+    fun onFolderGone(folderPath: String) {
+        added.removeAll { it.remotePath == folderPath }
+        modified.removeAll { it.remotePath == folderPath }
+        if (folderPath in previousSnapshot) {
+            removed.add(folderPath)
+            addRemovedDescendants(folderPath)
+        }
+    }
+
+    private fun addRemovedDescendants(folderPath: String) {
+        previousChildren[folderPath]?.forEach {
+            removed.add(it)
+            addRemovedDescendants(it)
+        }
+    }
+
+    /**
+     * Pairs added and removed entries with the same remote id as moves.
+     */
+    fun build(requestCount: Int): RemoteTreeChanges {
+        val removedByRemoteId = HashMap<String, String>()
+        removed.forEach { path ->
+            previousSnapshot[path]?.remoteId?.let { removedByRemoteId[it] = path }
+        }
+
+        val moved = mutableListOf<MovedRemoteFile>()
+        val reallyAdded = mutableListOf<RemoteFile>()
+        added.forEach { file ->
+            val fromPath = file.remoteId?.let { removedByRemoteId.remove(it) }
+            if (fromPath != null) {
+                moved.add(MovedRemoteFile(fromPath = fromPath, file = file))
+            } else {
+                reallyAdded.add(file)
+            }
+        }
+        val movedFromPaths = moved.mapTo(HashSet()) { it.fromPath }
+
+        return RemoteTreeChanges(
+            added = reallyAdded,
+            modified = modified.toList(),
+            removed = removed.filterNot { it in movedFromPaths },
+            moved = moved,
+            requestCount = requestCount,
+        )
+    }
+
+    companion object {
+        private const val ROOT_PATH = "/"
+
+        fun parentPathOf(remotePath: String): String =
+            remotePath.trimEnd('/').substringBeforeLast('/') + "/"
+    }
+}
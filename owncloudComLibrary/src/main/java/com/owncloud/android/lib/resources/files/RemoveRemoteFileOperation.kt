@@ -59,6 +59,7 @@ open class RemoveRemoteFileOperation(
             val status = client.executeHttpMethod(deleteMethod)
 
             result = if (isSuccess(status)) {
+                FolderListingCache.invalidateDefault(client, remotePath, spaceWebDavUrl)
                 RemoteOperationResult<Unit>(ResultCode.OK)
             } else {
                 RemoteOperationResult<Unit>(deleteMethod)
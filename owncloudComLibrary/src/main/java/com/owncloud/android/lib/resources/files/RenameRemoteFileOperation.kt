@@ -85,6 +85,8 @@ class RenameRemoteFileOperation(
             val status = client.executeHttpMethod(moveMethod)
 
             result = if (isSuccess(status)) {
+                FolderListingCache.invalidateDefault(client, oldRemotePath, spaceWebDavUrl)
+                FolderListingCache.invalidateDefault(client, newRemotePath, spaceWebDavUrl)
                 RemoteOperationResult<Unit>(ResultCode.OK)
             } else {
                 RemoteOperationResult<Unit>(moveMethod)
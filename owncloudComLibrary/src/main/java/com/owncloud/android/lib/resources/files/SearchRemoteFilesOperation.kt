@@ -0,0 +1,102 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files
+
+import at.bitfire.dav4jvm.PropertyRegistry
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.accounts.AccountUtils
+import com.owncloud.android.lib.common.http.HttpConstants.HTTP_MULTI_STATUS
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
+import com.owncloud.android.lib.common.http.methods.webdav.SearchFilesMethod
+import com.owncloud.android.lib.common.http.methods.webdav.properties.OCShareTypes
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import timber.log.Timber
+import java.net.URL
+
+/**
+ * Searches files by name on the server with a single `oc:search-files` REPORT, in the files of the user or in a
+ * space when [spaceWebDavUrl] is given.
+ *
+ * Results are mapped like folder listings while the response is being read, and handed to [onResult] as soon
+ * as they are, if given.
+ *
+ * @param query           text to search in the names of the files
+ * @param limit           maximum number of results to return
+ * @param propfindProfile properties to request for every result
+ */
+class SearchRemoteFilesOperation(
+    val query: String,
+    val limit: Int = DEFAULT_LIMIT,
+    val spaceWebDavUrl: String? = null,
+    val propfindProfile: PropfindProfile = PropfindProfile.FULL,
+    val onResult: ((RemoteFile) -> Unit)? = null,
+) : RemoteOperation<ArrayList<RemoteFile>>() {
+
+    override fun run(client: OwnCloudClient): RemoteOperationResult<ArrayList<RemoteFile>> {
+        try {
+            PropertyRegistry.register(OCShareTypes.Factory())
+
+            val userId = client.userId ?: AccountUtils.getUserId(mAccount, mContext)
+            val results = ArrayList<RemoteFile>()
+            val searchMethod = SearchFilesMethod(
+                url = URL(spaceWebDavUrl ?: client.userFilesWebDavUri.toString()),
+                pattern = query,
+                limit = limit,
+                propertiesToRequest = propfindProfile.properties,
+            ) { response ->
+                val remoteFile = RemoteFile.getRemoteFileFromDav(
+                    davResource = response,
+                    userId = userId,
+                    userName = mAccount.name,
+                    spaceWebDavUrl = spaceWebDavUrl,
+                )
+                results.add(remoteFile)
+                onResult?.invoke(remoteFile)
+            }
+
+            val status = client.executeHttpMethod(searchMethod)
+
+            return if (status == HTTP_MULTI_STATUS) {
+                RemoteOperationResult<ArrayList<RemoteFile>>(ResultCode.OK).apply {
+                    data = results
+                    Timber.i("Search found ${results.size} files. ${this.logMessage}")
+                }
+            } else {
+                RemoteOperationResult<ArrayList<RemoteFile>>(searchMethod).also {
+                    Timber.w("Search failed: ${it.logMessage}")
+                }
+            }
+        } catch (e: Exception) {
+            return RemoteOperationResult<ArrayList<RemoteFile>>(e).also {
+                Timber.e(it.exception, "Search failed")
+            }
+        }
+    }
+
+    companion object {
+        const val DEFAULT_LIMIT = 100
+    }
+}
@@ -0,0 +1,140 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.files
+
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import timber.log.Timber
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorCompletionService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Remote operation synchronizing a whole remote tree against a previous snapshot.
+ *
+ * The root is read with Depth 0 first; if its ETag did not change, nothing beneath it did either and no other
+ * request is sent. Otherwise only folders that are new or whose ETag changed are listed, up to [parallelism]
+ * of them at the same time. A folder removed after its parent was listed is reported as removed.
+ *
+ * @param rootPath         remote path of the folder to synchronize, ending with a slash
+ * @param previousSnapshot remote path to entry of the last synchronization, empty for the first one
+ * @param spaceWebDavUrl   custom web dav url for space
+ * @param parallelism      maximum number of folders listed at the same time
+ * @param listingProfile   properties to request for the changed entries; the root is checked with
+ *                         [PropfindProfile.ETAG_AND_ID]
+ */
+class SyncRemoteTreeOperation @JvmOverloads constructor(
+    val rootPath: String = ROOT_PATH,
+    val previousSnapshot: Map<String, RemoteTreeEntry>,
+    val spaceWebDavUrl: String? = null,
+    val parallelism: Int = DEFAULT_PARALLELISM,
+    val listingProfile: PropfindProfile = PropfindProfile.FULL,
+) : RemoteOperation<RemoteTreeChanges>() {
+
+    override fun run(client: OwnCloudClient): RemoteOperationResult<RemoteTreeChanges> {
+        val diff = RemoteTreeDiff(previousSnapshot)
+        var requestCount = 0
+
+        if (previousSnapshot.isNotEmpty()) {
+            val rootResult = ReadRemoteFileOperation(
+                remotePath = rootPath,
+                spaceWebDavUrl = spaceWebDavUrl,
+                propfindProfile = PropfindProfile.ETAG_AND_ID,
+            ).execute(client)
+            requestCount++
+            if (!rootResult.isSuccess) {
+                return RemoteOperationResult(rootResult)
+            }
+            if (!diff.onRootRead(rootResult.data)) {
+                Timber.d("Tree under $rootPath did not change")
+                return RemoteOperationResult<RemoteTreeChanges>(ResultCode.OK).apply { data = diff.build(requestCount) }
+            }
+        }
+
+        val executor = Executors.newFixedThreadPool(parallelism.coerceAtLeast(1))
+        try {
+            val completionService = ExecutorCompletionService<Pair<String, RemoteOperationResult<ArrayList<RemoteFile>>>>(executor)
+            fun listFolder(folderPath: String) {
+                completionService.submit {
+                    folderPath to ReadRemoteFolderOperation(
+                        remotePath = folderPath,
+                        spaceWebDavUrl = spaceWebDavUrl,
+                        propfindProfile = listingProfile,
+                    ).execute(client)
+                }
+            }
+
+            listFolder(rootPath)
+            var pending = 1
+            while (pending > 0) {
+                val (folderPath, result) = completionService.take().get()
+                pending--
+                requestCount++
+                if (!result.isSuccess && folderPath != rootPath && result.code == ResultCode.FILE_NOT_FOUND) {
+                    Timber.d("Folder $folderPath was removed during the synchronization of $rootPath")
+                    diff.onFolderGone(folderPath)
+                    continue
+                }
+                if (!result.isSuccess) {
+                    Timber.w("Tree synchronization of $rootPath failed listing $folderPath: ${result.logMessage}")
+                    return RemoteOperationResult(result)
+                }
+                val listing = result.data
+                if (folderPath == rootPath) {
+                    diff.onRootListed(listing.first())
+                }
+                diff.onFolderListed(folderPath, listing.drop(1)).forEach {
+                    listFolder(it)
+                    pending++
+                }
+            }
+        } catch (e: ExecutionException) {
+            return RemoteOperationResult((e.cause as? Exception) ?: e)
+        } catch (e: Exception) {
+            return RemoteOperationResult(e)
+        } finally {
+            executor.shutdownNow()
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        }
+
+        return RemoteOperationResult<RemoteTreeChanges>(ResultCode.OK).apply {
+            data = diff.build(requestCount)
+            Timber.i(
+                "Synchronized tree $rootPath with $requestCount requests: ${data.added.size} added, " +
+                        "${data.modified.size} modified, ${data.removed.size} removed, ${data.moved.size} moved"
+            )
+        }
+    }
+
+    companion object {
+        private const val ROOT_PATH = "/"
+        private const val DEFAULT_PARALLELISM = 4
+        private const val SHUTDOWN_TIMEOUT_SECONDS = 5L
+    }
+}
@@ -43,7 +43,6 @@ class UploadFileFromContentUriOperation(
 
     override fun run(client: OwnCloudClient): RemoteOperationResult<Unit> {
         val putMethod = PutMethod(URL(client.userFilesWebDavUri.toString() + WebdavUtils.encodePath(uploadPath)), requestBody).apply {
-            retryOnConnectionFailure = false
             addRequestHeader(HttpConstants.OC_TOTAL_LENGTH_HEADER, requestBody.contentLength().toString())
             addRequestHeader(HttpConstants.OC_X_OC_MTIME_HEADER, lastModified)
         }
@@ -51,6 +50,7 @@ class UploadFileFromContentUriOperation(
         return try {
             val status = client.executeHttpMethod(putMethod)
             if (isSuccess(status)) {
+                FolderListingCache.invalidateDefault(client, uploadPath, null)
                 RemoteOperationResult<Unit>(RemoteOperationResult.ResultCode.OK).apply { data = Unit }
             } else {
                 RemoteOperationResult<Unit>(putMethod)
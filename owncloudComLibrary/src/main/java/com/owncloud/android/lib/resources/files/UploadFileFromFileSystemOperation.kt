@@ -101,7 +101,6 @@ open class UploadFileFromFileSystemOperation(
 
         val baseStringUrl = spaceWebDavUrl ?: client.userFilesWebDavUri.toString()
         putMethod = PutMethod(URL(baseStringUrl + WebdavUtils.encodePath(remotePath)), fileRequestBody!!).apply {
-            retryOnConnectionFailure = false
             if (!requiredEtag.isNullOrBlank()) {
                 addRequestHeader(HttpConstants.IF_MATCH_HEADER, requiredEtag)
             }
@@ -119,6 +118,7 @@ open class UploadFileFromFileSystemOperation(
             } else {
                 Timber.d("File uploaded successfully. New etag for file ${fileToUpload.name} is $etag")
             }
+            FolderListingCache.invalidateDefault(client, remotePath, spaceWebDavUrl)
             RemoteOperationResult<Unit>(ResultCode.OK).apply { data = Unit }
         } else { // synchronization failed
             RemoteOperationResult<Unit>(putMethod)
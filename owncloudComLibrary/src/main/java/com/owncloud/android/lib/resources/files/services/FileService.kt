@@ -23,9 +23,14 @@
  */
 package com.owncloud.android.lib.resources.files.services
 
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import com.owncloud.android.lib.resources.Service
+import com.owncloud.android.lib.resources.files.CompactRemoteFileListing
 import com.owncloud.android.lib.resources.files.RemoteFile
+import com.owncloud.android.lib.resources.files.RemoteTreeChanges
+import com.owncloud.android.lib.resources.files.RemoteTreeEntry
+import com.owncloud.android.lib.resources.files.SearchRemoteFilesOperation
 
 interface FileService : Service {
     fun checkPathExistence(
@@ -51,9 +56,17 @@ interface FileService : Service {
 
     fun downloadFile(
         remotePath: String,
-        localTempPath: String
+        localTempPath: String,
+        knownEtag: String? = null,
     ): RemoteOperationResult<Unit>
 
+    fun getThumbnail(
+        remotePath: String,
+        etag: String?,
+        size: Int,
+        spaceWebDavUrl: String? = null,
+    ): RemoteOperationResult<ByteArray>
+
     fun moveFile(
         sourceRemotePath: String,
         targetRemotePath: String,
@@ -64,13 +77,40 @@ interface FileService : Service {
     fun readFile(
         remotePath: String,
         spaceWebDavUrl: String? = null,
+        propfindProfile: PropfindProfile = PropfindProfile.FULL,
     ): RemoteOperationResult<RemoteFile>
 
     fun refreshFolder(
         remotePath: String,
         spaceWebDavUrl: String? = null,
+        propfindProfile: PropfindProfile = PropfindProfile.FULL,
     ): RemoteOperationResult<ArrayList<RemoteFile>>
 
+    fun refreshFolders(
+        remotePaths: List<String>,
+        spaceWebDavUrl: String? = null,
+        propfindProfile: PropfindProfile = PropfindProfile.FULL,
+    ): RemoteOperationResult<Map<String, RemoteOperationResult<ArrayList<RemoteFile>>>>
+
+    fun refreshFolderCompact(
+        remotePath: String,
+        spaceWebDavUrl: String? = null,
+        propfindProfile: PropfindProfile = PropfindProfile.FULL,
+    ): RemoteOperationResult<CompactRemoteFileListing>
+
+    fun searchFiles(
+        query: String,
+        limit: Int = SearchRemoteFilesOperation.DEFAULT_LIMIT,
+        spaceWebDavUrl: String? = null,
+        propfindProfile: PropfindProfile = PropfindProfile.FULL,
+    ): RemoteOperationResult<ArrayList<RemoteFile>>
+
+    fun syncTree(
+        rootPath: String,
+        previousSnapshot: Map<String, RemoteTreeEntry>,
+        spaceWebDavUrl: String? = null,
+    ): RemoteOperationResult<RemoteTreeChanges>
+
     fun removeFile(
         remotePath: String,
         spaceWebDavUrl: String? = null,
@@ -24,18 +24,27 @@
 package com.owncloud.android.lib.resources.files.services.implementation
 
 import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import com.owncloud.android.lib.resources.files.CheckPathExistenceRemoteOperation
+import com.owncloud.android.lib.resources.files.CompactRemoteFileListing
 import com.owncloud.android.lib.resources.files.CopyRemoteFileOperation
 import com.owncloud.android.lib.resources.files.CreateRemoteFolderOperation
 import com.owncloud.android.lib.resources.files.DownloadRemoteFileOperation
 import com.owncloud.android.lib.resources.files.MoveRemoteFileOperation
 import com.owncloud.android.lib.resources.files.ReadRemoteFileOperation
+import com.owncloud.android.lib.resources.files.ReadRemoteFolderCompactOperation
 import com.owncloud.android.lib.resources.files.ReadRemoteFolderOperation
+import com.owncloud.android.lib.resources.files.RefreshRemoteFoldersOperation
 import com.owncloud.android.lib.resources.files.RemoteFile
+import com.owncloud.android.lib.resources.files.RemoteTreeChanges
+import com.owncloud.android.lib.resources.files.RemoteTreeEntry
 import com.owncloud.android.lib.resources.files.RemoveRemoteFileOperation
 import com.owncloud.android.lib.resources.files.RenameRemoteFileOperation
+import com.owncloud.android.lib.resources.files.SearchRemoteFilesOperation
+import com.owncloud.android.lib.resources.files.SyncRemoteTreeOperation
 import com.owncloud.android.lib.resources.files.services.FileService
+import com.owncloud.android.lib.resources.files.thumbnails.GetRemoteThumbnailOperation
 
 class OCFileService(override val client: OwnCloudClient) : FileService {
     override fun checkPathExistence(
@@ -79,11 +88,26 @@ class OCFileService(override val client: OwnCloudClient) : FileService {
 
     override fun downloadFile(
         remotePath: String,
-        localTempPath: String
+        localTempPath: String,
+        knownEtag: String?,
     ): RemoteOperationResult<Unit> =
         DownloadRemoteFileOperation(
             remotePath = remotePath,
-            localFolderPath = localTempPath
+            localFolderPath = localTempPath,
+            knownEtag = knownEtag,
+        ).execute(client)
+
+    override fun getThumbnail(
+        remotePath: String,
+        etag: String?,
+        size: Int,
+        spaceWebDavUrl: String?,
+    ): RemoteOperationResult<ByteArray> =
+        GetRemoteThumbnailOperation(
+            remotePath = remotePath,
+            etag = etag,
+            size = size,
+            spaceWebDavUrl = spaceWebDavUrl,
         ).execute(client)
 
     override fun moveFile(
@@ -102,19 +126,69 @@ class OCFileService(override val client: OwnCloudClient) : FileService {
     override fun readFile(
         remotePath: String,
         spaceWebDavUrl: String?,
+        propfindProfile: PropfindProfile,
     ): RemoteOperationResult<RemoteFile> =
         ReadRemoteFileOperation(
             remotePath = remotePath,
             spaceWebDavUrl = spaceWebDavUrl,
+            propfindProfile = propfindProfile,
         ).execute(client)
 
     override fun refreshFolder(
         remotePath: String,
         spaceWebDavUrl: String?,
+        propfindProfile: PropfindProfile,
     ): RemoteOperationResult<ArrayList<RemoteFile>> =
         ReadRemoteFolderOperation(
             remotePath = remotePath,
             spaceWebDavUrl = spaceWebDavUrl,
+            propfindProfile = propfindProfile,
+        ).execute(client)
+
+    override fun refreshFolders(
+        remotePaths: List<String>,
+        spaceWebDavUrl: String?,
+        propfindProfile: PropfindProfile,
+    ): RemoteOperationResult<Map<String, RemoteOperationResult<ArrayList<RemoteFile>>>> =
+        RefreshRemoteFoldersOperation(
+            remotePaths = remotePaths,
+            spaceWebDavUrl = spaceWebDavUrl,
+            propfindProfile = propfindProfile,
+        ).execute(client)
+
+    override fun refreshFolderCompact(
+        remotePath: String,
+        spaceWebDavUrl: String?,
+        propfindProfile: PropfindProfile,
+    ): RemoteOperationResult<CompactRemoteFileListing> =
+        ReadRemoteFolderCompactOperation(
+            remotePath = remotePath,
+            spaceWebDavUrl = spaceWebDavUrl,
+            propfindProfile = propfindProfile,
+        ).execute(client)
+
+    override fun searchFiles(
+        query: String,
+        limit: Int,
+        spaceWebDavUrl: String?,
+        propfindProfile: PropfindProfile,
+    ): RemoteOperationResult<ArrayList<RemoteFile>> =
+        SearchRemoteFilesOperation(
+            query = query,
+            limit = limit,
+            spaceWebDavUrl = spaceWebDavUrl,
+            propfindProfile = propfindProfile,
+        ).execute(client)
+
+    override fun syncTree(
+        rootPath: String,
+        previousSnapshot: Map<String, RemoteTreeEntry>,
+        spaceWebDavUrl: String?,
+    ): RemoteOperationResult<RemoteTreeChanges> =
+        SyncRemoteTreeOperation(
+            rootPath = rootPath,
+            previousSnapshot = previousSnapshot,
+            spaceWebDavUrl = spaceWebDavUrl,
         ).execute(client)
 
     override fun removeFile(
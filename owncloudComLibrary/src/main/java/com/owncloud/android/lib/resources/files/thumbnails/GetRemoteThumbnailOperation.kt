@@ -0,0 +1,111 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files.thumbnails
+
+import android.net.Uri
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.http.HttpConstants
+import com.owncloud.android.lib.common.http.methods.nonwebdav.GetMethod
+import com.owncloud.android.lib.common.network.WebdavUtils
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import timber.log.Timber
+import java.net.URL
+
+/**
+ * Gets a preview of a file rendered by the server, fitting in a square of [size] pixels.
+ *
+ * The ETag of the file is sent so the server, and any cache in the way, never returns the preview of an older
+ * version. The operation can be cancelled from another thread with [cancel].
+ */
+class GetRemoteThumbnailOperation(
+    val remotePath: String,
+    private val etag: String?,
+    private val size: Int,
+    private val spaceWebDavUrl: String? = null,
+) : RemoteOperation<ByteArray>() {
+
+    @Volatile
+    private var getMethod: GetMethod? = null
+
+    @Volatile
+    private var cancelled = false
+
+    internal val isCancelled: Boolean
+        get() = cancelled
+
+    override fun run(client: OwnCloudClient): RemoteOperationResult<ByteArray> {
+        try {
+            val baseWebDavUrl = spaceWebDavUrl ?: client.userFilesWebDavUri.toString()
+            val getMethod = GetMethod(URL(baseWebDavUrl + WebdavUtils.encodePath(remotePath) + previewQuery()))
+            this.getMethod = getMethod
+            if (cancelled) {
+                return RemoteOperationResult(RemoteOperationResult.ResultCode.CANCELLED)
+            }
+
+            val status = client.executeHttpMethod(getMethod)
+            // Cancelled between the check above and the start of the request, when aborting had no call to cancel
+            if (cancelled) {
+                getMethod.closeResponse()
+                return RemoteOperationResult(RemoteOperationResult.ResultCode.CANCELLED)
+            }
+
+            if (status != HttpConstants.HTTP_OK) {
+                return RemoteOperationResult<ByteArray>(getMethod).also {
+                    Timber.d("Thumbnail of $remotePath not available: ${it.logMessage}")
+                }
+            }
+
+            val mimeType = getMethod.getResponseHeader(HttpConstants.CONTENT_TYPE_HEADER)
+            if (mimeType == null || !mimeType.startsWith("image")) {
+                getMethod.closeResponse()
+                Timber.w("Thumbnail of $remotePath is not an image")
+                return RemoteOperationResult(RemoteOperationResult.ResultCode.FILE_NOT_FOUND)
+            }
+
+            val bytes = getMethod.getResponseBodyAsStream()?.use { it.readBytes() } ?: byteArrayOf()
+            return RemoteOperationResult<ByteArray>(RemoteOperationResult.ResultCode.OK).apply {
+                data = bytes
+            }
+        } catch (e: Exception) {
+            if (cancelled) {
+                return RemoteOperationResult(RemoteOperationResult.ResultCode.CANCELLED)
+            }
+            return RemoteOperationResult<ByteArray>(e).also {
+                Timber.e(e, "Exception while getting thumbnail of $remotePath")
+            }
+        }
+    }
+
+    /**
+     * Aborts the request, if running. The operation finishes with [RemoteOperationResult.ResultCode.CANCELLED].
+     */
+    fun cancel() {
+        cancelled = true
+        getMethod?.abort()
+    }
+
+    private fun previewQuery(): String =
+        "?x=$size&y=$size&a=1&preview=1" + (etag?.let { "&c=" + Uri.encode(it) } ?: "")
+}
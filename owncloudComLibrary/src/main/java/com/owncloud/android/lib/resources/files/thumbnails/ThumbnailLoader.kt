@@ -0,0 +1,199 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files.thumbnails
+
+import android.util.LruCache
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import com.owncloud.android.lib.common.utils.DiskByteCache
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+/**
+ * Loads thumbnails of the files of the account of [client], looking for them in a memory cache bounded to
+ * [memoryCacheBytes], then in [diskCache], and finally fetching them with [GetRemoteThumbnailOperation].
+ *
+ * Requests for a thumbnail already being loaded wait for that load instead of starting a new one. A load is
+ * cancelled, aborting its request if running, once all the requests waiting for it are cancelled, e.g. when
+ * their items scroll off screen.
+ *
+ * Callbacks are invoked in the calling thread when the thumbnail is in memory, and in a loader thread otherwise.
+ * The disk cache should be specific to the account, as thumbnails are identified by remote path when no remote
+ * id is known.
+ */
+class ThumbnailLoader internal constructor(
+    private val diskCache: DiskByteCache?,
+    memoryCacheBytes: Int,
+    parallelism: Int,
+    private val executeOperation: (GetRemoteThumbnailOperation) -> RemoteOperationResult<ByteArray>,
+) {
+
+    constructor(
+        client: OwnCloudClient,
+        diskCache: DiskByteCache? = null,
+        memoryCacheBytes: Int = DEFAULT_MEMORY_CACHE_BYTES,
+        parallelism: Int = DEFAULT_PARALLELISM,
+    ) : this(diskCache, memoryCacheBytes, parallelism, { operation -> operation.execute(client) })
+
+    private val memoryCache = object : LruCache<String, ByteArray>(memoryCacheBytes) {
+        override fun sizeOf(key: String, value: ByteArray): Int = value.size
+    }
+
+    private val executor: ExecutorService = Executors.newFixedThreadPool(parallelism) { runnable ->
+        Thread(runnable, THREAD_NAME).apply { isDaemon = true }
+    }
+
+    // Guarded by itself
+    private val loads = HashMap<String, Load>()
+
+    fun getCached(request: ThumbnailRequest): ByteArray? = memoryCache.get(request.cacheKey)
+
+    fun load(request: ThumbnailRequest, callback: (RemoteOperationResult<ByteArray>) -> Unit): Handle {
+        val cacheKey = request.cacheKey
+        memoryCache.get(cacheKey)?.let {
+            callback(successResult(it))
+            return Waiter(null, callback)
+        }
+        synchronized(loads) {
+            val load = loads.getOrPut(cacheKey) {
+                Load(request).also { load -> load.future = executor.submit { run(load) } }
+            }
+            return Waiter(load, callback).also { load.waiters.add(it) }
+        }
+    }
+
+    fun clearMemoryCache() {
+        memoryCache.evictAll()
+    }
+
+    /**
+     * Cancels all the loads and stops the loader threads.
+     */
+    fun shutdown() {
+        val pendingLoads = synchronized(loads) {
+            loads.values.toList().also { loads.clear() }
+        }
+        pendingLoads.forEach { it.cancel() }
+        executor.shutdownNow()
+    }
+
+    private fun run(load: Load) {
+        if (load.cancelled) {
+            return
+        }
+        val cacheKey = load.request.cacheKey
+        val result = diskCache?.get(cacheKey)?.let { successResult(it) } ?: fetch(load)
+        if (result.isSuccess) {
+            memoryCache.put(cacheKey, result.data)
+        }
+
+        val waiters = synchronized(loads) {
+            if (loads[cacheKey] === load) {
+                loads.remove(cacheKey)
+            }
+            load.waiters.toList().also { load.waiters.clear() }
+        }
+        if (!load.cancelled) {
+            waiters.forEach { it.callback(result) }
+        }
+    }
+
+    private fun fetch(load: Load): RemoteOperationResult<ByteArray> {
+        val request = load.request
+        val operation = GetRemoteThumbnailOperation(
+            remotePath = request.remotePath,
+            etag = request.etag,
+            size = request.size,
+            spaceWebDavUrl = request.spaceWebDavUrl,
+        )
+        load.operation = operation
+        if (load.cancelled) {
+            operation.cancel()
+        }
+        return executeOperation(operation).also { result ->
+            if (result.isSuccess) {
+                diskCache?.put(request.cacheKey, result.data)
+            }
+        }
+    }
+
+    private fun successResult(data: ByteArray) =
+        RemoteOperationResult<ByteArray>(ResultCode.OK).apply { this.data = data }
+
+    private class Load(val request: ThumbnailRequest) {
+        val waiters = mutableListOf<Waiter>()
+
+        @Volatile
+        var future: Future<*>? = null
+
+        @Volatile
+        var operation: GetRemoteThumbnailOperation? = null
+
+        @Volatile
+        var cancelled = false
+
+        fun cancel() {
+            cancelled = true
+            future?.cancel(false)
+            operation?.cancel()
+        }
+    }
+
+    /**
+     * Request waiting for a thumbnail.
+     */
+    interface Handle {
+        /**
+         * Stops waiting for the thumbnail; its callback will not be invoked. The load is cancelled too if no other
+         * request is waiting for it.
+         */
+        fun cancel()
+    }
+
+    private inner class Waiter(
+        private val load: Load?,
+        val callback: (RemoteOperationResult<ByteArray>) -> Unit,
+    ) : Handle {
+        override fun cancel() {
+            load ?: return
+            synchronized(loads) {
+                if (!load.waiters.remove(this) || load.waiters.isNotEmpty()) {
+                    return
+                }
+                if (loads[load.request.cacheKey] === load) {
+                    loads.remove(load.request.cacheKey)
+                }
+            }
+            load.cancel()
+        }
+    }
+
+    companion object {
+        private const val THREAD_NAME = "ThumbnailLoader"
+        private const val DEFAULT_PARALLELISM = 4
+        private const val DEFAULT_MEMORY_CACHE_BYTES = 16 * 1024 * 1024
+    }
+}
@@ -0,0 +1,42 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files.thumbnails
+
+/**
+ * Thumbnail of a file, fitting in a square of [size] pixels.
+ *
+ * @param fileId remote id of the file, preferred to its path to identify cached thumbnails so they survive
+ *               renames and moves
+ * @param etag   ETag of the file, so thumbnails of previous versions are never returned
+ */
+data class ThumbnailRequest(
+    val remotePath: String,
+    val fileId: String?,
+    val etag: String?,
+    val size: Int,
+    val spaceWebDavUrl: String? = null,
+) {
+    val cacheKey: String
+        get() = "${fileId ?: (spaceWebDavUrl.orEmpty() + remotePath)}|$etag|$size"
+}
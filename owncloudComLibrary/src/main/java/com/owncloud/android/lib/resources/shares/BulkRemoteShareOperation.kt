@@ -0,0 +1,122 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.shares
+
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import com.owncloud.android.lib.resources.status.GetRemoteCapabilitiesOperation
+import com.owncloud.android.lib.resources.status.RemoteCapability
+import timber.log.Timber
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Remote operation creating and updating several shares, up to [parallelism] of them at the same time.
+ *
+ * Every item is checked first against the [SharePolicy] of the server, so the ones it would refuse fail without
+ * a request. The operation succeeds whenever the items could be processed; the outcome of each one is in the
+ * result list, in the same order as [specs].
+ *
+ * @param specs                shares to create or update
+ * @param capability           capabilities of the server, already parsed; they are requested once if missing
+ * @param parallelism          maximum number of share requests sent at the same time
+ * @param retrieveShareDetails whether to send an extra request per share to get all of its details
+ */
+class BulkRemoteShareOperation @JvmOverloads constructor(
+    val specs: List<ShareSpec>,
+    val capability: RemoteCapability? = null,
+    val parallelism: Int = DEFAULT_PARALLELISM,
+    val retrieveShareDetails: Boolean = false,
+) : RemoteOperation<List<RemoteOperationResult<ShareResponse>>>() {
+
+    override fun run(client: OwnCloudClient): RemoteOperationResult<List<RemoteOperationResult<ShareResponse>>> {
+        val policy = SharePolicy(
+            capability ?: GetRemoteCapabilitiesOperation().execute(client).let { capabilitiesResult ->
+                if (!capabilitiesResult.isSuccess) {
+                    return RemoteOperationResult(capabilitiesResult)
+                }
+                capabilitiesResult.data
+            }
+        )
+        val nowMillis = System.currentTimeMillis()
+
+        val executor = Executors.newFixedThreadPool(parallelism.coerceIn(1, specs.size.coerceAtLeast(1)))
+        val results = try {
+            specs.map { spec ->
+                executor.submit(Callable { share(client, policy.enforce(spec, nowMillis)) })
+            }.map { it.get() }
+        } catch (e: Exception) {
+            return RemoteOperationResult(e)
+        } finally {
+            executor.shutdownNow()
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        }
+
+        return RemoteOperationResult<List<RemoteOperationResult<ShareResponse>>>(ResultCode.OK).apply {
+            data = results
+            Timber.i("Processed ${specs.size} shares, ${results.count { !it.isSuccess }} failed")
+        }
+    }
+
+    private fun share(client: OwnCloudClient, policyResult: RemoteOperationResult<ShareSpec>): RemoteOperationResult<ShareResponse> {
+        if (!policyResult.isSuccess) {
+            return RemoteOperationResult(policyResult)
+        }
+        return try {
+            when (val spec = policyResult.data) {
+                is ShareSpec.Create -> CreateRemoteShareOperation(
+                    spec.remoteFilePath,
+                    spec.shareType,
+                    spec.shareWith,
+                    spec.permissions
+                ).apply {
+                    name = spec.name
+                    password = spec.password
+                    expirationDateInMillis = spec.expirationDateInMillis
+                    retrieveShareDetails = this@BulkRemoteShareOperation.retrieveShareDetails
+                }
+                is ShareSpec.Update -> UpdateRemoteShareOperation(
+                    spec.remoteId
+                ).apply {
+                    name = spec.name
+                    password = spec.password
+                    expirationDateInMillis = spec.expirationDateInMillis
+                    permissions = spec.permissions
+                    retrieveShareDetails = this@BulkRemoteShareOperation.retrieveShareDetails
+                }
+            }.execute(client)
+        } catch (e: Exception) {
+            RemoteOperationResult(e)
+        }
+    }
+
+    companion object {
+        private const val DEFAULT_PARALLELISM = 4
+        private const val SHUTDOWN_TIMEOUT_SECONDS = 5L
+    }
+}
@@ -36,15 +36,10 @@ import com.owncloud.android.lib.common.http.HttpConstants.VALUE_FORMAT
 import com.owncloud.android.lib.common.http.methods.nonwebdav.PostMethod
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
-import com.owncloud.android.lib.resources.CommonOcsResponse
 import com.owncloud.android.lib.resources.shares.RemoteShare.Companion.INIT_EXPIRATION_DATE_IN_MILLIS
 import com.owncloud.android.lib.resources.shares.responses.ShareItem
-import com.squareup.moshi.JsonAdapter
-import com.squareup.moshi.Moshi
-import com.squareup.moshi.Types
 import okhttp3.FormBody
 import timber.log.Timber
-import java.lang.reflect.Type
 import java.net.URL
 import java.text.SimpleDateFormat
 import java.util.Calendar
@@ -98,10 +93,7 @@ class CreateRemoteShareOperation(
             .build()
 
     private fun parseResponse(response: String): ShareResponse {
-        val moshi = Moshi.Builder().build()
-        val commonOcsType: Type = Types.newParameterizedType(CommonOcsResponse::class.java, ShareItem::class.java)
-        val adapter: JsonAdapter<CommonOcsResponse<ShareItem>> = moshi.adapter(commonOcsType)
-        val remoteShare = adapter.fromJson(response)?.ocs?.data?.toRemoteShare()
+        val remoteShare = ShareItem.OCS_ADAPTER.fromJson(response)?.ocs?.data?.toRemoteShare()
         return ShareResponse(remoteShare?.let { listOf(it) } ?: listOf())
     }
 
@@ -191,7 +183,6 @@ class CreateRemoteShareOperation(
     private fun isSuccess(status: Int): Boolean = status == HttpConstants.HTTP_OK
 
     companion object {
-
         //OCS Route
         private const val OCS_ROUTE = "ocs/v2.php/apps/files_sharing/api/v1/shares"
 
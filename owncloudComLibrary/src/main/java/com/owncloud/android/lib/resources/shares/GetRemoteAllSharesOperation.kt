@@ -0,0 +1,99 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.shares
+
+import android.net.Uri
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.http.HttpConstants
+import com.owncloud.android.lib.common.http.HttpConstants.PARAM_FORMAT
+import com.owncloud.android.lib.common.http.HttpConstants.VALUE_FORMAT
+import com.owncloud.android.lib.common.http.methods.nonwebdav.GetMethod
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.resources.CommonOcsResponse
+import com.owncloud.android.lib.resources.shares.responses.ShareItem
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.Types
+import okio.buffer
+import okio.source
+import timber.log.Timber
+import java.lang.reflect.Type
+import java.net.URL
+
+/**
+ * Gets all the shares of the user in a single request: the shares the user created, or the shares other users
+ * created with the user when [sharedWithMe] is true.
+ *
+ * The response is parsed straight from the network stream, never kept whole in memory.
+ */
+class GetRemoteAllSharesOperation(
+    private val sharedWithMe: Boolean = false,
+) : RemoteOperation<ShareResponse>() {
+
+    private fun buildRequestUri(baseUri: Uri) =
+        baseUri.buildUpon()
+            .appendEncodedPath(OCS_ROUTE)
+            .appendQueryParameter(PARAM_FORMAT, VALUE_FORMAT)
+            .appendQueryParameter(PARAM_SHARED_WITH_ME, sharedWithMe.toString())
+            .build()
+
+    override fun run(client: OwnCloudClient): RemoteOperationResult<ShareResponse> {
+        val getMethod = GetMethod(URL(buildRequestUri(client.baseUri).toString())).apply {
+            addRequestHeader(OCS_API_HEADER, OCS_API_HEADER_VALUE)
+        }
+
+        return try {
+            val status = client.executeHttpMethod(getMethod)
+
+            if (status == HttpConstants.HTTP_OK) {
+                val shares = getMethod.getResponseBodyAsStream()?.source()?.buffer()?.use { source ->
+                    ADAPTER.fromJson(source)?.ocs?.data?.map { it.toRemoteShare() }
+                }.orEmpty()
+                RemoteOperationResult<ShareResponse>(RemoteOperationResult.ResultCode.OK).apply {
+                    data = ShareResponse(shares)
+                    Timber.d("Got ${shares.size} shares, shared with me: $sharedWithMe")
+                }
+            } else {
+                RemoteOperationResult<ShareResponse>(getMethod).also {
+                    Timber.e("Failed getting all shares, shared with me: $sharedWithMe; ${it.logMessage}")
+                }
+            }
+        } catch (e: Exception) {
+            Timber.e(e, "Exception while getting all shares")
+            RemoteOperationResult(e)
+        }
+    }
+
+    companion object {
+        private const val OCS_ROUTE = "ocs/v2.php/apps/files_sharing/api/v1/shares"
+        private const val PARAM_SHARED_WITH_ME = "shared_with_me"
+
+        private val ADAPTER: JsonAdapter<CommonOcsResponse<List<ShareItem>>> by lazy {
+            val listOfShareItemType: Type = Types.newParameterizedType(List::class.java, ShareItem::class.java)
+            val commonOcsType: Type = Types.newParameterizedType(CommonOcsResponse::class.java, listOfShareItemType)
+            Moshi.Builder().build().adapter(commonOcsType)
+        }
+    }
+}
@@ -47,7 +47,8 @@ data class RemoteShare(
     var permissions: Int = DEFAULT_PERMISSION,
     var sharedDate: Long = INIT_SHARED_DATE,
     var expirationDate: Long = INIT_EXPIRATION_DATE_IN_MILLIS,
-    var isFolder: Boolean = (itemType == ItemType.FOLDER.fileValue)
+    var isFolder: Boolean = (itemType == ItemType.FOLDER.fileValue),
+    var fileId: String? = null,
 ) {
 
     companion object {
@@ -0,0 +1,225 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.shares
+
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import java.io.File
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * In-memory index of all the shares of an account, by path and by file id, so the shares of every file in a
+ * folder view are local lookups instead of a request per file.
+ *
+ * [refresh] fetches all the shares with two requests, one for the shares the user created and one for the shares
+ * other users created with the user. Afterwards the index can be kept up to date without fetching everything
+ * again: with [refreshPaths] for some paths, or with the results of the share operations through [put] and
+ * [remove].
+ *
+ * Folder paths end with a slash, as in [RemoteShare.path].
+ *
+ * File ids are compared in their [normalized][normalizeFileId] form, as servers do not use the same one in shares
+ * and in WebDAV: ownCloud 10 returns the numeric file id in [RemoteShare.fileId], but the numeric id padded and
+ * followed by the instance id in [com.owncloud.android.lib.resources.files.RemoteFile.remoteId].
+ */
+class RemoteShareIndex {
+
+    // Share id -> share
+    private val outgoing = HashMap<String, RemoteShare>()
+    private val incoming = HashMap<String, RemoteShare>()
+
+    private val outgoingByPath = HashMap<String, MutableList<RemoteShare>>()
+    private val outgoingByFileId = HashMap<String, MutableList<RemoteShare>>()
+    private val incomingByPath = HashMap<String, MutableList<RemoteShare>>()
+    private val incomingByFileId = HashMap<String, MutableList<RemoteShare>>()
+
+    /**
+     * Shares the user created for the file or folder at [path].
+     */
+    @Synchronized
+    fun getShares(path: String): List<RemoteShare> = outgoingByPath[path]?.toList().orEmpty()
+
+    /**
+     * Shares the user created for the file or folder with [fileId], either its [RemoteShare.fileId] or its
+     * [com.owncloud.android.lib.resources.files.RemoteFile.remoteId].
+     */
+    @Synchronized
+    fun getSharesByFileId(fileId: String): List<RemoteShare> =
+        outgoingByFileId[normalizeFileId(fileId)]?.toList().orEmpty()
+
+    /**
+     * Shares other users created with the user, mounted at [path].
+     */
+    @Synchronized
+    fun getSharesWithMe(path: String): List<RemoteShare> = incomingByPath[path]?.toList().orEmpty()
+
+    /**
+     * Shares other users created with the user for the file or folder with [fileId], either its
+     * [RemoteShare.fileId] or its [com.owncloud.android.lib.resources.files.RemoteFile.remoteId].
+     */
+    @Synchronized
+    fun getSharesWithMeByFileId(fileId: String): List<RemoteShare> =
+        incomingByFileId[normalizeFileId(fileId)]?.toList().orEmpty()
+
+    @Synchronized
+    fun isShared(path: String): Boolean = outgoingByPath.containsKey(path) || incomingByPath.containsKey(path)
+
+    @Synchronized
+    fun replaceAll(shares: List<RemoteShare>, sharesWithMe: List<RemoteShare>) {
+        clear()
+        shares.forEach { add(it, isIncoming = false) }
+        sharesWithMe.forEach { add(it, isIncoming = true) }
+    }
+
+    /**
+     * Replaces the shares the user created for [path] with [shares], e.g. as got by
+     * [GetRemoteSharesForFileOperation].
+     */
+    @Synchronized
+    fun replaceShares(path: String, shares: List<RemoteShare>) {
+        outgoingByPath[path]?.toList()?.forEach { removeById(it.id) }
+        shares.forEach { add(it, isIncoming = false) }
+    }
+
+    /**
+     * Adds or updates a share the user created, e.g. as got by [CreateRemoteShareOperation] or
+     * [UpdateRemoteShareOperation].
+     */
+    @Synchronized
+    fun put(share: RemoteShare) {
+        removeById(share.id)
+        add(share, isIncoming = false)
+    }
+
+    @Synchronized
+    fun remove(shareId: String) {
+        removeById(shareId)
+    }
+
+    @Synchronized
+    fun clear() {
+        outgoing.clear()
+        incoming.clear()
+        outgoingByPath.clear()
+        outgoingByFileId.clear()
+        incomingByPath.clear()
+        incomingByFileId.clear()
+    }
+
+    /**
+     * Fetches all the shares of the account of [client], replacing the content of the index.
+     */
+    fun refresh(client: OwnCloudClient): RemoteOperationResult<Unit> {
+        val executor = Executors.newFixedThreadPool(2)
+        try {
+            val sharesWithMe = executor.submit(Callable { GetRemoteAllSharesOperation(sharedWithMe = true).execute(client) })
+            val shares = GetRemoteAllSharesOperation(sharedWithMe = false).execute(client)
+            val sharesWithMeResult = sharesWithMe.get()
+
+            val failedResult = listOf(shares, sharesWithMeResult).firstOrNull { !it.isSuccess }
+            if (failedResult != null) {
+                return RemoteOperationResult(failedResult)
+            }
+            replaceAll(shares.data.shares, sharesWithMeResult.data.shares)
+            return RemoteOperationResult(ResultCode.OK)
+        } catch (e: Exception) {
+            return RemoteOperationResult(e)
+        } finally {
+            executor.shutdownNow()
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        }
+    }
+
+    /**
+     * Fetches again the shares the user created for some paths, e.g. after they were shared from another device.
+     */
+    fun refreshPaths(client: OwnCloudClient, paths: Collection<String>): RemoteOperationResult<Unit> {
+        paths.forEach { path ->
+            val result = GetRemoteSharesForFileOperation(
+                remoteFilePath = path.removeSuffix(File.separator).ifEmpty { File.separator },
+                reshares = false,
+                subfiles = false,
+            ).execute(client)
+            if (!result.isSuccess) {
+                return RemoteOperationResult(result)
+            }
+            replaceShares(path, result.data.shares)
+        }
+        return RemoteOperationResult(ResultCode.OK)
+    }
+
+    private fun add(share: RemoteShare, isIncoming: Boolean) {
+        if (isIncoming) {
+            incoming[share.id] = share
+            incomingByPath.getOrPut(share.path) { mutableListOf() }.add(share)
+            share.fileId?.let { incomingByFileId.getOrPut(normalizeFileId(it)) { mutableListOf() }.add(share) }
+        } else {
+            outgoing[share.id] = share
+            outgoingByPath.getOrPut(share.path) { mutableListOf() }.add(share)
+            share.fileId?.let { outgoingByFileId.getOrPut(normalizeFileId(it)) { mutableListOf() }.add(share) }
+        }
+    }
+
+    private fun removeById(shareId: String) {
+        outgoing.remove(shareId)?.let { share ->
+            outgoingByPath.removeShare(share.path, share)
+            share.fileId?.let { outgoingByFileId.removeShare(normalizeFileId(it), share) }
+        }
+        incoming.remove(shareId)?.let { share ->
+            incomingByPath.removeShare(share.path, share)
+            share.fileId?.let { incomingByFileId.removeShare(normalizeFileId(it), share) }
+        }
+    }
+
+    private fun HashMap<String, MutableList<RemoteShare>>.removeShare(key: String, share: RemoteShare) {
+        val shares = this[key] ?: return
+        shares.removeAll { it.id == share.id }
+        if (shares.isEmpty()) {
+            remove(key)
+        }
+    }
+
+    companion object {
+        private const val SHUTDOWN_TIMEOUT_SECONDS = 5L
+
+        // ownCloud 10 oc:id, the file id padded to 8 digits followed by the instance id, "oc" and 10 characters
+        private val OC10_REMOTE_ID = Regex("^(\\d+)(oc[a-z0-9]+)$")
+        private val NUMERIC_ID = Regex("^\\d+$")
+
+        /**
+         * Numeric file id of an ownCloud 10 remote id or file id, without padding; any other id, as the resource
+         * ids of oCIS used both in shares and in WebDAV, as is.
+         */
+        @JvmStatic
+        fun normalizeFileId(fileId: String): String {
+            val numericId = OC10_REMOTE_ID.matchEntire(fileId)?.groupValues?.get(1)
+                ?: fileId.takeIf { NUMERIC_ID.matches(it) }
+                ?: return fileId
+            return numericId.trimStart('0').ifEmpty { "0" }
+        }
+    }
+}
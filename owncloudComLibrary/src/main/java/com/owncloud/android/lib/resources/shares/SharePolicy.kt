@@ -0,0 +1,141 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.shares
+
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import com.owncloud.android.lib.resources.shares.RemoteShare.Companion.CREATE_PERMISSION_FLAG
+import com.owncloud.android.lib.resources.shares.RemoteShare.Companion.DELETE_PERMISSION_FLAG
+import com.owncloud.android.lib.resources.shares.RemoteShare.Companion.INIT_EXPIRATION_DATE_IN_MILLIS
+import com.owncloud.android.lib.resources.shares.RemoteShare.Companion.UPDATE_PERMISSION_FLAG
+import com.owncloud.android.lib.resources.status.RemoteCapability
+import com.owncloud.android.lib.resources.status.RemoteCapability.CapabilityBooleanType
+import java.util.Calendar
+
+/**
+ * Sharing policy of a server, taken from its already parsed [RemoteCapability], to reject share requests the
+ * server would refuse before sending them.
+ *
+ * Public links missing an enforced expiration date get the default one of the server; other violations are
+ * reported as [ResultCode.SHARE_FORBIDDEN] when the kind of share is disabled and as
+ * [ResultCode.SHARE_WRONG_PARAMETER] when a password or expiration date does not fit the policy.
+ */
+class SharePolicy(private val capability: RemoteCapability) {
+
+    /**
+     * @param spec      share request to check
+     * @param nowMillis current time, the enforced expiration dates are counted from its day
+     * @return the request to send, with the defaults of the server applied, or the reason to reject it
+     */
+    fun enforce(spec: ShareSpec, nowMillis: Long = System.currentTimeMillis()): RemoteOperationResult<ShareSpec> {
+        if (capability.filesSharingApiEnabled == CapabilityBooleanType.FALSE) {
+            return RemoteOperationResult(ResultCode.SHARE_FORBIDDEN)
+        }
+        return when (spec) {
+            is ShareSpec.Create -> enforceCreate(spec, nowMillis)
+            is ShareSpec.Update -> enforceUpdate(spec, nowMillis)
+        }
+    }
+
+    private fun enforceCreate(spec: ShareSpec.Create, nowMillis: Long): RemoteOperationResult<ShareSpec> {
+        when (spec.shareType) {
+            ShareType.FEDERATED -> if (capability.filesSharingFederationOutgoing == CapabilityBooleanType.FALSE) {
+                return RemoteOperationResult(ResultCode.SHARE_FORBIDDEN)
+            }
+            ShareType.PUBLIC_LINK -> {
+                if (capability.filesSharingPublicEnabled == CapabilityBooleanType.FALSE) {
+                    return RemoteOperationResult(ResultCode.SHARE_FORBIDDEN)
+                }
+                if (spec.password.isEmpty() && isPasswordEnforced(spec.permissions)) {
+                    return RemoteOperationResult(ResultCode.SHARE_WRONG_PARAMETER)
+                }
+                if (isExpirationEnforced()) {
+                    if (spec.expirationDateInMillis <= INIT_EXPIRATION_DATE_IN_MILLIS) {
+                        return success(spec.copy(expirationDateInMillis = defaultExpirationDate(nowMillis)))
+                    }
+                    if (spec.expirationDateInMillis > maxExpirationDate(nowMillis)) {
+                        return RemoteOperationResult(ResultCode.SHARE_WRONG_PARAMETER)
+                    }
+                }
+            }
+            else -> {}
+        }
+        return success(spec)
+    }
+
+    private fun enforceUpdate(spec: ShareSpec.Update, nowMillis: Long): RemoteOperationResult<ShareSpec> {
+        if (spec.shareType == ShareType.PUBLIC_LINK) {
+            // Empty password and negative expiration date clear the current ones
+            if (spec.password?.isEmpty() == true && isPasswordEnforced(spec.permissions)) {
+                return RemoteOperationResult(ResultCode.SHARE_WRONG_PARAMETER)
+            }
+            if (isExpirationEnforced() &&
+                (spec.expirationDateInMillis < INIT_EXPIRATION_DATE_IN_MILLIS ||
+                        spec.expirationDateInMillis > maxExpirationDate(nowMillis))
+            ) {
+                return RemoteOperationResult(ResultCode.SHARE_WRONG_PARAMETER)
+            }
+        }
+        return success(spec)
+    }
+
+    private fun isPasswordEnforced(permissions: Int): Boolean {
+        if (capability.filesSharingPublicPasswordEnforced == CapabilityBooleanType.TRUE) {
+            return true
+        }
+        val enforcedForPermissions = when {
+            permissions == CREATE_PERMISSION_FLAG -> capability.filesSharingPublicPasswordEnforcedUploadOnly
+            permissions > 0 && permissions and WRITE_PERMISSION_FLAGS != 0 -> capability.filesSharingPublicPasswordEnforcedReadWrite
+            else -> capability.filesSharingPublicPasswordEnforcedReadOnly
+        }
+        return enforcedForPermissions == CapabilityBooleanType.TRUE
+    }
+
+    private fun isExpirationEnforced() =
+        capability.filesSharingPublicExpireDateEnforced == CapabilityBooleanType.TRUE &&
+                capability.filesSharingPublicExpireDateDays > 0
+
+    private fun defaultExpirationDate(nowMillis: Long): Long =
+        startOfDay(nowMillis).apply { add(Calendar.DAY_OF_YEAR, capability.filesSharingPublicExpireDateDays) }.timeInMillis
+
+    // Expiration dates are sent as days, so any time within the last allowed day is valid
+    private fun maxExpirationDate(nowMillis: Long): Long =
+        startOfDay(nowMillis).apply { add(Calendar.DAY_OF_YEAR, capability.filesSharingPublicExpireDateDays + 1) }.timeInMillis - 1
+
+    private fun startOfDay(nowMillis: Long): Calendar =
+        Calendar.getInstance().apply {
+            timeInMillis = nowMillis
+            set(Calendar.HOUR_OF_DAY, 0)
+            set(Calendar.MINUTE, 0)
+            set(Calendar.SECOND, 0)
+            set(Calendar.MILLISECOND, 0)
+        }
+
+    private fun success(spec: ShareSpec) = RemoteOperationResult<ShareSpec>(ResultCode.OK).apply { data = spec }
+
+    companion object {
+        private const val WRITE_PERMISSION_FLAGS = UPDATE_PERMISSION_FLAG or CREATE_PERMISSION_FLAG or DELETE_PERMISSION_FLAG
+    }
+}
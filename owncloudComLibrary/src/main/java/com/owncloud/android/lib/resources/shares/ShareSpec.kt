@@ -0,0 +1,62 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.shares
+
+import com.owncloud.android.lib.resources.shares.RemoteShare.Companion.DEFAULT_PERMISSION
+import com.owncloud.android.lib.resources.shares.RemoteShare.Companion.INIT_EXPIRATION_DATE_IN_MILLIS
+
+/**
+ * Single item of a [BulkRemoteShareOperation]: either a share to create or a share to update.
+ */
+sealed class ShareSpec {
+
+    /**
+     * Share to create, with the same meaning as the parameters of [CreateRemoteShareOperation].
+     */
+    data class Create(
+        val remoteFilePath: String,
+        val shareType: ShareType,
+        val shareWith: String,
+        val permissions: Int,
+        val name: String = "",
+        val password: String = "",
+        val expirationDateInMillis: Long = INIT_EXPIRATION_DATE_IN_MILLIS,
+    ) : ShareSpec()
+
+    /**
+     * Share to update, with the same meaning as the properties of [UpdateRemoteShareOperation].
+     *
+     * @param shareType type of the share, when known. It is not sent to the server, but lets the server
+     *                  policy on public links be checked before the request.
+     */
+    data class Update(
+        val remoteId: String,
+        val name: String? = null,
+        val password: String? = null,
+        val expirationDateInMillis: Long = INIT_EXPIRATION_DATE_IN_MILLIS,
+        val permissions: Int = DEFAULT_PERMISSION,
+        val shareType: ShareType? = null,
+    ) : ShareSpec()
+}
@@ -26,14 +26,19 @@
 package com.owncloud.android.lib.resources.shares.responses
 
 import com.owncloud.android.lib.common.network.WebdavUtils
+import com.owncloud.android.lib.resources.CommonOcsResponse
 import com.owncloud.android.lib.resources.shares.RemoteShare
 import com.owncloud.android.lib.resources.shares.RemoteShare.Companion.DEFAULT_PERMISSION
 import com.owncloud.android.lib.resources.shares.RemoteShare.Companion.INIT_EXPIRATION_DATE_IN_MILLIS
 import com.owncloud.android.lib.resources.shares.RemoteShare.Companion.INIT_SHARED_DATE
 import com.owncloud.android.lib.resources.shares.ShareType
 import com.squareup.moshi.Json
+import com.squareup.moshi.JsonAdapter
 import com.squareup.moshi.JsonClass
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.Types
 import java.io.File
+import java.lang.reflect.Type
 
 @JsonClass(generateAdapter = true)
 data class ShareItem(
@@ -69,6 +74,9 @@ data class ShareItem(
 
     @Json(name = "expiration")
     val expirationDate: String? = null,
+
+    @Json(name = "file_source")
+    val fileSource: String? = null,
 ) {
     fun toRemoteShare() = RemoteShare(
         id = id ?: "0",
@@ -86,8 +94,19 @@ data class ShareItem(
         expirationDate = expirationDate?.let {
             WebdavUtils.parseResponseDate(it)?.time
         } ?: INIT_EXPIRATION_DATE_IN_MILLIS,
-        isFolder = itemType?.equals(ItemType.FOLDER.fileValue) ?: false
+        isFolder = itemType?.equals(ItemType.FOLDER.fileValue) ?: false,
+        fileId = fileSource,
     )
+
+    companion object {
+        /**
+         * Adapter of the OCS responses with a single share, as those of creating or updating a share.
+         */
+        internal val OCS_ADAPTER: JsonAdapter<CommonOcsResponse<ShareItem>> by lazy {
+            val commonOcsType: Type = Types.newParameterizedType(CommonOcsResponse::class.java, ShareItem::class.java)
+            Moshi.Builder().build().adapter(commonOcsType)
+        }
+    }
 }
 
 enum class ItemType(val fileValue: String) { FILE("file"), FOLDER("folder") }
@@ -29,7 +29,9 @@ package com.owncloud.android.lib.resources.shares.services
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import com.owncloud.android.lib.resources.Service
 import com.owncloud.android.lib.resources.shares.ShareResponse
+import com.owncloud.android.lib.resources.shares.ShareSpec
 import com.owncloud.android.lib.resources.shares.ShareType
+import com.owncloud.android.lib.resources.status.RemoteCapability
 
 interface ShareService : Service {
     fun getShares(
@@ -38,6 +40,8 @@ interface ShareService : Service {
         subfiles: Boolean
     ): RemoteOperationResult<ShareResponse>
 
+    fun getAllShares(sharedWithMe: Boolean = false): RemoteOperationResult<ShareResponse>
+
     fun insertShare(
         remoteFilePath: String,
         shareType: ShareType,
@@ -56,5 +60,10 @@ interface ShareService : Service {
         permissions: Int,
     ): RemoteOperationResult<ShareResponse>
 
+    fun bulkShare(
+        specs: List<ShareSpec>,
+        capability: RemoteCapability? = null,
+    ): RemoteOperationResult<List<RemoteOperationResult<ShareResponse>>>
+
     fun deleteShare(remoteId: String): RemoteOperationResult<Unit>
 }
@@ -28,13 +28,17 @@ package com.owncloud.android.lib.resources.shares.services.implementation
 
 import com.owncloud.android.lib.common.OwnCloudClient
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.resources.shares.BulkRemoteShareOperation
 import com.owncloud.android.lib.resources.shares.CreateRemoteShareOperation
+import com.owncloud.android.lib.resources.shares.GetRemoteAllSharesOperation
 import com.owncloud.android.lib.resources.shares.GetRemoteSharesForFileOperation
 import com.owncloud.android.lib.resources.shares.RemoveRemoteShareOperation
 import com.owncloud.android.lib.resources.shares.ShareResponse
+import com.owncloud.android.lib.resources.shares.ShareSpec
 import com.owncloud.android.lib.resources.shares.ShareType
 import com.owncloud.android.lib.resources.shares.UpdateRemoteShareOperation
 import com.owncloud.android.lib.resources.shares.services.ShareService
+import com.owncloud.android.lib.resources.status.RemoteCapability
 
 class OCShareService(override val client: OwnCloudClient) : ShareService {
     override fun getShares(
@@ -47,6 +51,9 @@ class OCShareService(override val client: OwnCloudClient) : ShareService {
         subfiles
     ).execute(client)
 
+    override fun getAllShares(sharedWithMe: Boolean): RemoteOperationResult<ShareResponse> =
+        GetRemoteAllSharesOperation(sharedWithMe).execute(client)
+
     override fun insertShare(
         remoteFilePath: String,
         shareType: ShareType,
@@ -85,6 +92,15 @@ class OCShareService(override val client: OwnCloudClient) : ShareService {
             this.retrieveShareDetails = true
         }.execute(client)
 
+    override fun bulkShare(
+        specs: List<ShareSpec>,
+        capability: RemoteCapability?,
+    ): RemoteOperationResult<List<RemoteOperationResult<ShareResponse>>> =
+        BulkRemoteShareOperation(
+            specs = specs,
+            capability = capability,
+        ).execute(client)
+
     override fun deleteShare(remoteId: String): RemoteOperationResult<Unit> =
         RemoveRemoteShareOperation(
             remoteId
@@ -0,0 +1,145 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.status
+
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import com.owncloud.android.lib.resources.spaces.GetRemoteSpacesOperation
+import com.owncloud.android.lib.resources.spaces.responses.SpaceResponse
+import com.owncloud.android.lib.resources.users.AvatarCache
+import com.owncloud.android.lib.resources.users.GetRemoteUserAvatarOperation
+import com.owncloud.android.lib.resources.users.GetRemoteUserInfoOperation
+import com.owncloud.android.lib.resources.users.GetRemoteUserQuotaOperation
+import com.owncloud.android.lib.resources.users.GetRemoteUserQuotaOperation.RemoteQuota
+import com.owncloud.android.lib.resources.users.RemoteAvatarData
+import com.owncloud.android.lib.resources.users.RemoteUserInfo
+import timber.log.Timber
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+/**
+ * Everything needed to show an account after login or at cold start, as got by [BootstrapRemoteAccountOperation].
+ *
+ * Every part has its own result, so a failure in one of them does not hide the others. [spaces] is null when the
+ * server does not enable them, or when the capabilities could not be read; [avatar] is null when not requested.
+ */
+data class RemoteAccountSnapshot(
+    val serverInfo: RemoteServerInfo,
+    val capabilities: RemoteOperationResult<RemoteCapability>,
+    val userInfo: RemoteOperationResult<RemoteUserInfo>,
+    val quota: RemoteOperationResult<RemoteQuota>,
+    val spaces: RemoteOperationResult<List<SpaceResponse>>?,
+    val avatar: RemoteOperationResult<RemoteAvatarData>?,
+)
+
+/**
+ * Gets the status of the server and then, at the same time, the capabilities, user info, quota and avatar of the
+ * account, and its spaces once the capabilities tell they are enabled.
+ *
+ * The status goes first as it may update the base URL of the client; the operation fails if the status cannot be
+ * read. All the other requests share the connections of the client, so they take about as long as the slowest
+ * of them.
+ *
+ * @param avatarDimension dimension of the avatar to get, null to skip it
+ * @param avatarCache     cache to get the avatar from, if any
+ */
+class BootstrapRemoteAccountOperation internal constructor(
+    private val avatarDimension: Int?,
+    private val avatarCache: AvatarCache?,
+    private val executeOperation: (RemoteOperation<*>, OwnCloudClient) -> RemoteOperationResult<*>,
+) : RemoteOperation<RemoteAccountSnapshot>() {
+
+    @JvmOverloads
+    constructor(
+        avatarDimension: Int? = null,
+        avatarCache: AvatarCache? = null,
+    ) : this(avatarDimension, avatarCache, { operation, client -> operation.execute(client) })
+
+    override fun run(client: OwnCloudClient): RemoteOperationResult<RemoteAccountSnapshot> {
+        val statusResult = GetRemoteStatusOperation().executeWith(client)
+        if (!statusResult.isSuccess) {
+            return RemoteOperationResult<RemoteAccountSnapshot>(statusResult).also {
+                Timber.w("Bootstrap of account failed getting status: ${statusResult.logMessage}")
+            }
+        }
+
+        val executor = Executors.newFixedThreadPool(PARALLELISM)
+        try {
+            val capabilities = executor.submit(Callable { GetRemoteCapabilitiesOperation().executeWith(client) })
+            val userInfo = executor.submit(Callable { GetRemoteUserInfoOperation().executeWith(client) })
+            val quota = executor.submit(Callable { GetRemoteUserQuotaOperation().executeWith(client) })
+            val avatar = avatarDimension?.let { dimension ->
+                executor.submit(Callable {
+                    avatarCache?.getAvatar(client, dimension) ?: GetRemoteUserAvatarOperation(dimension).executeWith(client)
+                })
+            }
+
+            // Spaces are requested from this thread while the other requests are still running
+            val capabilitiesResult = capabilities.await()
+            val spacesResult = if (capabilitiesResult.isSuccess && capabilitiesResult.data.spaces?.enabled == true) {
+                GetRemoteSpacesOperation().executeWith(client)
+            } else {
+                null
+            }
+
+            return RemoteOperationResult<RemoteAccountSnapshot>(ResultCode.OK).apply {
+                data = RemoteAccountSnapshot(
+                    serverInfo = statusResult.data,
+                    capabilities = capabilitiesResult,
+                    userInfo = userInfo.await(),
+                    quota = quota.await(),
+                    spaces = spacesResult,
+                    avatar = avatar?.await(),
+                )
+                Timber.i("Bootstrapped account of ${statusResult.data.baseUrl}")
+            }
+        } catch (e: Exception) {
+            return RemoteOperationResult(e)
+        } finally {
+            executor.shutdownNow()
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun <T> RemoteOperation<T>.executeWith(client: OwnCloudClient): RemoteOperationResult<T> =
+        executeOperation(this, client) as RemoteOperationResult<T>
+
+    private fun <T> Future<RemoteOperationResult<T>>.await(): RemoteOperationResult<T> =
+        try {
+            get()
+        } catch (e: ExecutionException) {
+            RemoteOperationResult(e.cause as? Exception ?: e)
+        }
+
+    companion object {
+        private const val PARALLELISM = 4
+        private const val SHUTDOWN_TIMEOUT_SECONDS = 5L
+    }
+}
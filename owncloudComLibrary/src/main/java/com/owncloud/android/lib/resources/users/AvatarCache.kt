@@ -0,0 +1,200 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.users
+
+import android.util.LruCache
+import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import com.owncloud.android.lib.common.utils.DiskByteCache
+import timber.log.Timber
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.FutureTask
+
+/**
+ * Avatars of users, kept in memory and in [diskCache] and keyed by server, user and dimension.
+ *
+ * Cached avatars are returned without any request for [revalidateAfterMillis] after being fetched or validated.
+ * After that they are revalidated with their ETag, which costs a 304 response with no body when unchanged. If the
+ * server cannot be reached the cached avatar is returned anyway; any other failure, e.g. rejected credentials, is
+ * returned as is.
+ *
+ * Concurrent requests for the same avatar share a single request.
+ */
+class AvatarCache(
+    private val diskCache: DiskByteCache? = null,
+    memoryCacheBytes: Int = DEFAULT_MEMORY_CACHE_BYTES,
+    private val revalidateAfterMillis: Long = DEFAULT_REVALIDATE_AFTER_MILLIS,
+) {
+
+    private val memoryCache = object : LruCache<String, CachedAvatar>(memoryCacheBytes) {
+        override fun sizeOf(key: String, value: CachedAvatar): Int = value.avatar.avatarData.size
+    }
+
+    private val inFlight = ConcurrentHashMap<String, FutureTask<RemoteOperationResult<RemoteAvatarData>>>()
+
+    /**
+     * Gets the avatar of [userId], or of the user of [client] if null.
+     */
+    fun getAvatar(
+        client: OwnCloudClient,
+        avatarDimension: Int,
+        userId: String? = null,
+    ): RemoteOperationResult<RemoteAvatarData> {
+        val key = keyOf(client, userId ?: client.credentials.username, avatarDimension)
+        return getAvatar(key) { knownEtag ->
+            GetRemoteUserAvatarOperation(avatarDimension, knownEtag, userId).execute(client)
+        }
+    }
+
+    /**
+     * @param fetchAvatar requests the avatar, conditionally if an ETag is given
+     */
+    internal fun getAvatar(
+        key: String,
+        fetchAvatar: (knownEtag: String?) -> RemoteOperationResult<RemoteAvatarData>,
+    ): RemoteOperationResult<RemoteAvatarData> {
+        val cached = getCached(key)
+        if (cached != null && System.currentTimeMillis() - cached.validatedAt < revalidateAfterMillis) {
+            return successResult(cached.avatar)
+        }
+
+        val task = FutureTask { fetch(key, cached, fetchAvatar) }
+        val runningTask = inFlight.putIfAbsent(key, task)
+        return try {
+            if (runningTask == null) {
+                task.run()
+                task.get()
+            } else {
+                runningTask.get()
+            }
+        } catch (e: ExecutionException) {
+            RemoteOperationResult<RemoteAvatarData>(e.cause as? Exception ?: e)
+        } finally {
+            if (runningTask == null) {
+                inFlight.remove(key, task)
+            }
+        }
+    }
+
+    fun invalidate(client: OwnCloudClient, avatarDimension: Int, userId: String? = null) {
+        val key = keyOf(client, userId ?: client.credentials.username, avatarDimension)
+        memoryCache.remove(key)
+        diskCache?.remove(key)
+    }
+
+    fun clearMemoryCache() {
+        memoryCache.evictAll()
+    }
+
+    private fun fetch(
+        key: String,
+        cached: CachedAvatar?,
+        fetchAvatar: (knownEtag: String?) -> RemoteOperationResult<RemoteAvatarData>,
+    ): RemoteOperationResult<RemoteAvatarData> {
+        val knownEtag = cached?.avatar?.eTag?.takeIf { it.isNotEmpty() }
+        val result = fetchAvatar(knownEtag)
+        when {
+            result.code == ResultCode.OK_NOT_MODIFIED && cached != null -> {
+                store(key, CachedAvatar(cached.avatar, System.currentTimeMillis()))
+                return successResult(cached.avatar)
+            }
+            result.isSuccess -> {
+                store(key, CachedAvatar(result.data, System.currentTimeMillis()))
+            }
+            result.code == ResultCode.FILE_NOT_FOUND -> {
+                memoryCache.remove(key)
+                diskCache?.remove(key)
+            }
+            cached != null && isNetworkFailure(result) -> {
+                Timber.d("Avatar could not be revalidated, returning the cached one: ${result.logMessage}")
+                return successResult(cached.avatar)
+            }
+        }
+        return result
+    }
+
+    private fun isNetworkFailure(result: RemoteOperationResult<*>): Boolean =
+        result.code in NETWORK_FAILURE_CODES || result.exception is IOException
+
+    private fun getCached(key: String): CachedAvatar? =
+        memoryCache.get(key) ?: diskCache?.get(key)?.let { decode(it) }?.also { memoryCache.put(key, it) }
+
+    private fun store(key: String, cachedAvatar: CachedAvatar) {
+        memoryCache.put(key, cachedAvatar)
+        diskCache?.put(key, encode(cachedAvatar))
+    }
+
+    private fun successResult(avatar: RemoteAvatarData) =
+        RemoteOperationResult<RemoteAvatarData>(ResultCode.OK).apply { data = avatar }
+
+    private fun keyOf(client: OwnCloudClient, userId: String, avatarDimension: Int) =
+        "${client.baseUri}|$userId|$avatarDimension"
+
+    private fun encode(cachedAvatar: CachedAvatar): ByteArray =
+        ByteArrayOutputStream(cachedAvatar.avatar.avatarData.size + HEADER_BYTES).apply {
+            DataOutputStream(this).use {
+                it.writeLong(cachedAvatar.validatedAt)
+                it.writeUTF(cachedAvatar.avatar.mimeType)
+                it.writeUTF(cachedAvatar.avatar.eTag)
+                it.write(cachedAvatar.avatar.avatarData)
+            }
+        }.toByteArray()
+
+    private fun decode(bytes: ByteArray): CachedAvatar? =
+        try {
+            DataInputStream(ByteArrayInputStream(bytes)).use {
+                val validatedAt = it.readLong()
+                val mimeType = it.readUTF()
+                val eTag = it.readUTF()
+                CachedAvatar(RemoteAvatarData(it.readBytes(), mimeType, eTag), validatedAt)
+            }
+        } catch (e: IOException) {
+            Timber.w(e, "Discarding unreadable cached avatar")
+            null
+        }
+
+    private class CachedAvatar(val avatar: RemoteAvatarData, val validatedAt: Long)
+
+    companion object {
+        private const val DEFAULT_MEMORY_CACHE_BYTES = 2 * 1024 * 1024
+        private const val DEFAULT_REVALIDATE_AFTER_MILLIS = 10 * 60 * 1000L
+        private const val HEADER_BYTES = 128
+
+        private val NETWORK_FAILURE_CODES = setOf(
+            ResultCode.WRONG_CONNECTION,
+            ResultCode.TIMEOUT,
+            ResultCode.HOST_NOT_AVAILABLE,
+            ResultCode.NETWORK_ERROR,
+            ResultCode.CIRCUIT_BREAKER_OPEN,
+            ResultCode.SERVICE_UNAVAILABLE,
+        )
+    }
+}
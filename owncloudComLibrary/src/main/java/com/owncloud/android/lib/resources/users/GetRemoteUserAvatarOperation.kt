@@ -39,24 +39,38 @@ import java.net.URL
 /**
  * Gets avatar about the user logged in, if available
  *
+ * When [knownEtag] is given the avatar is only downloaded if it changed; otherwise the result is
+ * [RemoteOperationResult.ResultCode.OK_NOT_MODIFIED], with no data.
+ *
+ * @param userId user whose avatar to get, the user logged in if null
+ *
  * @author David A. Velasco
  * @author David González Verdugo
  */
-class GetRemoteUserAvatarOperation(private val avatarDimension: Int) : RemoteOperation<RemoteAvatarData>() {
+class GetRemoteUserAvatarOperation(
+    private val avatarDimension: Int,
+    private val knownEtag: String? = null,
+    private val userId: String? = null,
+) : RemoteOperation<RemoteAvatarData>() {
     override fun run(client: OwnCloudClient): RemoteOperationResult<RemoteAvatarData> {
         var inputStream: InputStream? = null
         var result: RemoteOperationResult<RemoteAvatarData>
 
         try {
             val endPoint =
-                client.baseUri.toString() + NON_OFFICIAL_AVATAR_PATH + client.credentials.username + File.separator + avatarDimension
+                client.baseUri.toString() + NON_OFFICIAL_AVATAR_PATH + (userId ?: client.credentials.username) +
+                        File.separator + avatarDimension
             Timber.d("avatar URI: %s", endPoint)
 
             val getMethod = GetMethod(URL(endPoint))
+            knownEtag?.let { getMethod.setRequestHeader(HttpConstants.IF_NONE_MATCH_HEADER, it) }
 
             val status = client.executeHttpMethod(getMethod)
 
-            if (isSuccess(status)) {
+            if (status == HttpConstants.HTTP_NOT_MODIFIED && knownEtag != null) {
+                result = RemoteOperationResult(RemoteOperationResult.ResultCode.OK_NOT_MODIFIED)
+
+            } else if (isSuccess(status)) {
                 // find out size of file to read
                 val contentLength = getMethod.getResponseHeader(HttpConstants.CONTENT_LENGTH_HEADER)?.toInt()
 
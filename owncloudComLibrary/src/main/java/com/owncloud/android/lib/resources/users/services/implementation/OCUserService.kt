@@ -28,6 +28,7 @@ package com.owncloud.android.lib.resources.users.services.implementation
 
 import com.owncloud.android.lib.common.OwnCloudClient
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.resources.users.AvatarCache
 import com.owncloud.android.lib.resources.users.GetRemoteUserAvatarOperation
 import com.owncloud.android.lib.resources.users.GetRemoteUserInfoOperation
 import com.owncloud.android.lib.resources.users.GetRemoteUserQuotaOperation
@@ -35,7 +36,13 @@ import com.owncloud.android.lib.resources.users.RemoteAvatarData
 import com.owncloud.android.lib.resources.users.RemoteUserInfo
 import com.owncloud.android.lib.resources.users.services.UserService
 
-class OCUserService(override val client: OwnCloudClient) : UserService {
+/**
+ * @param avatarCache cache to get avatars from, if any
+ */
+class OCUserService(
+    override val client: OwnCloudClient,
+    private val avatarCache: AvatarCache? = null,
+) : UserService {
     override fun getUserInfo(): RemoteOperationResult<RemoteUserInfo> =
         GetRemoteUserInfoOperation().execute(client)
 
@@ -43,6 +50,6 @@ class OCUserService(override val client: OwnCloudClient) : UserService {
         GetRemoteUserQuotaOperation().execute(client)
 
     override fun getUserAvatar(avatarDimension: Int): RemoteOperationResult<RemoteAvatarData> =
-        GetRemoteUserAvatarOperation(avatarDimension).execute(client)
+        avatarCache?.getAvatar(client, avatarDimension) ?: GetRemoteUserAvatarOperation(avatarDimension).execute(client)
 
 }
@@ -24,61 +24,122 @@
 package com.owncloud.android.lib
 
 import com.owncloud.android.lib.common.http.CookieJarImpl
+import com.owncloud.android.lib.common.http.CookieStore
 import okhttp3.Cookie
 import okhttp3.HttpUrl.Companion.toHttpUrl
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertFalse
 import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
 import org.junit.Test
+import org.junit.rules.TemporaryFolder
 
 class CookieJarImplTest {
 
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
     private val oldCookies = listOf(COOKIE_A, COOKIE_B_OLD)
     private val newCookies = listOf(COOKIE_B_NEW)
-    private val updatedCookies = listOf(COOKIE_A, COOKIE_B_NEW)
-    private val cookieStore = hashMapOf(SOME_HOST to oldCookies)
+
+    private val cookieStore = CookieStore()
 
     private val cookieJarImpl = CookieJarImpl(cookieStore)
 
+    @Before
+    fun setUp() {
+        cookieStore.saveCookies(SOME_HOST, oldCookies)
+    }
+
     @Test
-    fun `contains cookie with name - ok - true`() {
-        assertTrue(cookieJarImpl.containsCookieWithName(oldCookies, COOKIE_B_OLD.name))
+    fun `store cookie via saveFromResponse - ok`() {
+        cookieJarImpl.saveFromResponse(SOME_URL, newCookies)
+        val generatedUpdatedCookies = cookieStore.loadCookies(SOME_HOST)
+        assertEquals(2, generatedUpdatedCookies.size)
+        assertTrue(generatedUpdatedCookies.contains(COOKIE_A))
+        assertTrue(generatedUpdatedCookies.contains(COOKIE_B_NEW))
     }
 
     @Test
-    fun `contains cookie with name - ok - false`() {
-        assertFalse(cookieJarImpl.containsCookieWithName(newCookies, COOKIE_A.name))
+    fun `load for request - ok`() {
+        val cookies = cookieJarImpl.loadForRequest(SOME_URL)
+        assertEquals(2, cookies.size)
+        assertTrue(cookies.contains(COOKIE_A))
+        assertTrue(cookies.contains(COOKIE_B_OLD))
     }
 
     @Test
-    fun `get updated cookies - ok`() {
-        val generatedUpdatedCookies = cookieJarImpl.getUpdatedCookies(oldCookies, newCookies)
-        assertEquals(2, generatedUpdatedCookies.size)
-        assertEquals(updatedCookies[0], generatedUpdatedCookies[1])
-        assertEquals(updatedCookies[1], generatedUpdatedCookies[0])
+    fun `load for request - ok - unknown host`() {
+        val cookies = cookieJarImpl.loadForRequest(OTHER_URL)
+        assertTrue(cookies.isEmpty())
     }
 
     @Test
-    fun `store cookie via saveFromResponse - ok`() {
+    fun `store expired cookie via saveFromResponse - ok - removes cookie`() {
+        cookieJarImpl.saveFromResponse(SOME_URL, listOf(COOKIE_B_EXPIRED))
+        val cookies = cookieJarImpl.loadForRequest(SOME_URL)
+        assertEquals(listOf(COOKIE_A), cookies)
+    }
+
+    @Test
+    fun `persisted cookies - ok - restored in a new store`() {
+        val cookiesFile = temporaryFolder.root.resolve("cookies")
+        cookieStore.setPersistenceFile(cookiesFile)
         cookieJarImpl.saveFromResponse(SOME_URL, newCookies)
-        val generatedUpdatedCookies = cookieStore[SOME_HOST]
-        assertEquals(2, generatedUpdatedCookies?.size)
-        assertEquals(updatedCookies[0], generatedUpdatedCookies?.get(1))
-        assertEquals(updatedCookies[1], generatedUpdatedCookies?.get(0))
+
+        val restoredStore = CookieStore().apply { setPersistenceFile(cookiesFile) }
+        val cookies = restoredStore.loadCookies(SOME_HOST)
+        assertEquals(2, cookies.size)
+        assertTrue(cookies.contains(COOKIE_A))
+        assertTrue(cookies.contains(COOKIE_B_NEW))
     }
 
     @Test
-    fun `load for request - ok`() {
-        val cookies = cookieJarImpl.loadForRequest(SOME_URL)
-        assertEquals(oldCookies[0], cookies[0])
-        assertEquals(oldCookies[1], cookies[1])
+    fun `clear cookies - ok - cleared in persistence file`() {
+        val cookiesFile = temporaryFolder.root.resolve("cookies")
+        cookieStore.setPersistenceFile(cookiesFile)
+        cookieStore.clear()
+
+        val restoredStore = CookieStore().apply { setPersistenceFile(cookiesFile) }
+        assertTrue(restoredStore.loadCookies(SOME_HOST).isEmpty())
+    }
+
+    @Test
+    fun `persisted cookies - ok - not written again when only the expiration changes`() {
+        val cookiesFile = temporaryFolder.root.resolve("cookies")
+        cookieStore.setPersistenceFile(cookiesFile)
+        cookieJarImpl.saveFromResponse(SOME_URL, listOf(COOKIE_C))
+        assertTrue(cookiesFile.delete())
+
+        cookieJarImpl.saveFromResponse(SOME_URL, listOf(Cookie.parse(SOME_URL, "CookieC=CookieValueC; Max-Age=7200")!!))
+        assertFalse(cookiesFile.exists())
+
+        cookieJarImpl.saveFromResponse(SOME_URL, listOf(Cookie.parse(SOME_URL, "CookieC=OtherValueC; Max-Age=3600")!!))
+        assertTrue(cookiesFile.exists())
+    }
+
+    @Test
+    fun `delete persistence file - ok - deleted and not written again`() {
+        val cookiesFile = temporaryFolder.root.resolve("cookies")
+        cookieStore.setPersistenceFile(cookiesFile)
+        cookieJarImpl.saveFromResponse(SOME_URL, newCookies)
+
+        cookieStore.deletePersistenceFile()
+        cookieJarImpl.saveFromResponse(SOME_URL, listOf(COOKIE_C))
+
+        assertFalse(cookiesFile.exists())
+        assertTrue(cookieStore.loadCookies(SOME_HOST).contains(COOKIE_C))
     }
 
     companion object {
         const val SOME_HOST = "some.host.com"
         val SOME_URL = "https://$SOME_HOST".toHttpUrl()
+        val OTHER_URL = "https://other.host.com".toHttpUrl()
         val COOKIE_A = Cookie.parse(SOME_URL, "CookieA=CookieValueA")!!
         val COOKIE_B_OLD = Cookie.parse(SOME_URL, "CookieB=CookieOldValueB")!!
         val COOKIE_B_NEW = Cookie.parse(SOME_URL, "CookieB=CookieNewValueB")!!
+        val COOKIE_C = Cookie.parse(SOME_URL, "CookieC=CookieValueC; Max-Age=3600")!!
+        val COOKIE_B_EXPIRED = Cookie.parse(SOME_URL, "CookieB=CookieExpiredValueB; Max-Age=0")!!
     }
 }
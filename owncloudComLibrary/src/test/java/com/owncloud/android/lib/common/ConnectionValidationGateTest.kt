@@ -0,0 +1,132 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+class ConnectionValidationGateTest {
+
+    private val gate = ConnectionValidationGate()
+    private val validations = AtomicInteger()
+
+    private fun validation(valid: Boolean) = ConnectionValidationGate.Validation {
+        validations.incrementAndGet()
+        valid
+    }
+
+    @Test
+    fun `requests run in parallel`() {
+        gate.enter()
+        val entered = CountDownLatch(1)
+
+        thread {
+            gate.enter()
+            entered.countDown()
+            gate.exit()
+        }
+
+        assertTrue(entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        gate.exit()
+    }
+
+    @Test
+    fun `validation waits for requests in flight`() {
+        val generation = gate.enter()
+
+        val validator = thread { gate.validate(generation, validation(true)) }
+        validator.join(WAIT_MILLIS)
+
+        assertTrue(validator.isAlive)
+        assertEquals(0, validations.get())
+
+        gate.exit()
+        validator.join(TIMEOUT_SECONDS * 1_000)
+
+        assertFalse(validator.isAlive)
+        assertEquals(1, validations.get())
+    }
+
+    @Test
+    fun `requests wait for an ongoing validation`() {
+        val validationStarted = CountDownLatch(1)
+        val finishValidation = CountDownLatch(1)
+        val validator = thread {
+            gate.validate(0, ConnectionValidationGate.Validation {
+                validationStarted.countDown()
+                finishValidation.await()
+                true
+            })
+        }
+        assertTrue(validationStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+
+        val request = thread {
+            gate.enter()
+            gate.exit()
+        }
+        request.join(WAIT_MILLIS)
+        assertTrue(request.isAlive)
+
+        finishValidation.countDown()
+        validator.join(TIMEOUT_SECONDS * 1_000)
+        request.join(TIMEOUT_SECONDS * 1_000)
+        assertFalse(request.isAlive)
+    }
+
+    @Test
+    fun `request failed before another validation is retried without validating again`() {
+        val generation = gate.enter()
+        gate.exit()
+
+        assertTrue(gate.validate(generation, validation(true)))
+        assertTrue(gate.validate(generation, validation(true)))
+
+        assertEquals(1, validations.get())
+        assertEquals(generation + 1, gate.enter())
+        gate.exit()
+    }
+
+    @Test
+    fun `failed validation does not start a new generation`() {
+        val generation = gate.enter()
+        gate.exit()
+
+        assertFalse(gate.validate(generation, validation(false)))
+        assertTrue(gate.validate(generation, validation(true)))
+
+        assertEquals(2, validations.get())
+    }
+
+    companion object {
+        private const val WAIT_MILLIS = 200L
+        private const val TIMEOUT_SECONDS = 5L
+    }
+}
@@ -0,0 +1,77 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common
+
+import android.net.Uri
+import com.owncloud.android.lib.common.http.HttpConstants
+import com.owncloud.android.lib.common.http.methods.HttpBaseMethod
+import okhttp3.Interceptor
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.ResponseBody.Companion.toResponseBody
+import org.robolectric.RuntimeEnvironment
+
+/**
+ * Client for tests of remote operations. Methods are executed as usual, but every request is answered by
+ * [fakeServer] instead of being sent, and without retries, circuit breakers or connection validation.
+ *
+ * Needs Robolectric, as [OwnCloudClient] is built on an Android context.
+ */
+open class FakeOwnCloudClient(
+    fakeServer: (Request) -> Response,
+    baseUri: String = BASE_URL,
+) : OwnCloudClient(Uri.parse(baseUri), null, false, null, RuntimeEnvironment.getApplication()) {
+
+    private val fakeOkHttpClient = OkHttpClient.Builder()
+        .addInterceptor(Interceptor { chain -> fakeServer(chain.request()) })
+        .build()
+
+    override fun getOkHttpClient(): OkHttpClient = fakeOkHttpClient
+
+    override fun executeHttpMethod(method: HttpBaseMethod): Int = method.execute(this)
+
+    companion object {
+        const val BASE_URL = "https://server.url"
+
+        fun response(
+            request: Request,
+            code: Int,
+            body: String = "",
+            contentType: String = "text/plain",
+            headers: Map<String, String> = emptyMap(),
+        ): Response =
+            Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("HTTP $code")
+                .header(HttpConstants.CONTENT_TYPE_HEADER, contentType)
+                .apply { headers.forEach { (name, value) -> header(name, value) } }
+                .body(body.toResponseBody(contentType.toMediaType()))
+                .build()
+    }
+}
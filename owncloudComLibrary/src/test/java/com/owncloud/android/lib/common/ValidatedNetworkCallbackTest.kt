@@ -0,0 +1,99 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common
+
+import android.net.NetworkCapabilities
+import android.os.Build
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.annotation.Config
+import org.robolectric.shadows.ShadowNetwork
+import org.robolectric.shadows.ShadowNetworkCapabilities
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class ValidatedNetworkCallbackTest {
+
+    private var validations = 0
+    private val callback = SingleSessionManager.ValidatedNetworkCallback { validations++ }
+
+    private val wifi = ShadowNetwork.newInstance(WIFI_NETWORK_ID)
+    private val mobile = ShadowNetwork.newInstance(MOBILE_NETWORK_ID)
+
+    @Test
+    fun `capabilities changed - ok - new validated network`() {
+        callback.onAvailable(wifi)
+        callback.onCapabilitiesChanged(wifi, capabilities(validated = false))
+        assertEquals(0, validations)
+
+        callback.onCapabilitiesChanged(wifi, capabilities(validated = true))
+
+        assertEquals(1, validations)
+    }
+
+    @Test
+    fun `capabilities changed - ok - same validated network only once`() {
+        callback.onCapabilitiesChanged(wifi, capabilities(validated = true))
+        callback.onCapabilitiesChanged(wifi, capabilities(validated = true))
+
+        assertEquals(1, validations)
+    }
+
+    @Test
+    fun `lost - ok - no action until another network is validated`() {
+        callback.onCapabilitiesChanged(wifi, capabilities(validated = true))
+
+        callback.onLost(wifi)
+        assertEquals(1, validations)
+
+        callback.onCapabilitiesChanged(mobile, capabilities(validated = true))
+        assertEquals(2, validations)
+    }
+
+    @Test
+    fun `lost - ok - same network validated again`() {
+        callback.onCapabilitiesChanged(wifi, capabilities(validated = true))
+        callback.onLost(wifi)
+
+        callback.onCapabilitiesChanged(wifi, capabilities(validated = true))
+
+        assertEquals(2, validations)
+    }
+
+    private fun capabilities(validated: Boolean): NetworkCapabilities =
+        ShadowNetworkCapabilities.newInstance().also {
+            shadowOf(it).addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+            if (validated) {
+                shadowOf(it).addCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED)
+            }
+        }
+
+    companion object {
+        private const val WIFI_NETWORK_ID = 100
+        private const val MOBILE_NETWORK_ID = 101
+    }
+}
@@ -0,0 +1,126 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.http
+
+import com.owncloud.android.lib.common.http.CircuitBreaker.Permission
+import com.owncloud.android.lib.common.http.CircuitBreaker.State
+import okhttp3.HttpUrl.Companion.toHttpUrl
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.IOException
+import java.net.ConnectException
+import java.net.SocketTimeoutException
+import java.net.UnknownHostException
+import javax.net.ssl.SSLHandshakeException
+
+class CircuitBreakerTest {
+
+    private val circuitBreaker = CircuitBreaker(failureThreshold = 3, openMillis = 1_000, maxOpenMillis = 3_000)
+
+    @Test
+    fun `opens after consecutive failures`() {
+        repeat(2) { circuitBreaker.onConnectionFailure(NOW) }
+        assertEquals(Permission.ALLOW, circuitBreaker.acquire(NOW))
+
+        circuitBreaker.onConnectionFailure(NOW)
+
+        assertEquals(State.OPEN, circuitBreaker.state)
+        assertEquals(Permission.REJECT, circuitBreaker.acquire(NOW + 999))
+        assertEquals(1_000L, circuitBreaker.remainingOpenMillis(NOW))
+    }
+
+    @Test
+    fun `success resets consecutive failures`() {
+        repeat(2) { circuitBreaker.onConnectionFailure(NOW) }
+        circuitBreaker.onSuccess()
+        repeat(2) { circuitBreaker.onConnectionFailure(NOW) }
+
+        assertEquals(State.CLOSED, circuitBreaker.state)
+    }
+
+    @Test
+    fun `half open - single probe then close on success`() {
+        repeat(3) { circuitBreaker.onConnectionFailure(NOW) }
+
+        assertEquals(Permission.PROBE, circuitBreaker.acquire(NOW + 1_000))
+        assertEquals(Permission.REJECT, circuitBreaker.acquire(NOW + 1_001))
+
+        circuitBreaker.onSuccess()
+
+        assertEquals(State.CLOSED, circuitBreaker.state)
+        assertEquals(Permission.ALLOW, circuitBreaker.acquire(NOW + 1_002))
+    }
+
+    @Test
+    fun `half open - failed probe doubles open time up to max`() {
+        repeat(3) { circuitBreaker.onConnectionFailure(NOW) }
+
+        assertEquals(Permission.PROBE, circuitBreaker.acquire(NOW + 1_000))
+        circuitBreaker.onConnectionFailure(NOW + 1_000)
+        assertEquals(2_000L, circuitBreaker.remainingOpenMillis(NOW + 1_000))
+
+        assertEquals(Permission.PROBE, circuitBreaker.acquire(NOW + 3_000))
+        circuitBreaker.onConnectionFailure(NOW + 3_000)
+        assertEquals(3_000L, circuitBreaker.remainingOpenMillis(NOW + 3_000))
+    }
+
+    @Test
+    fun `connection failures`() {
+        assertTrue(CircuitBreaker.isConnectionFailure(ConnectException()))
+        assertTrue(CircuitBreaker.isConnectionFailure(SocketTimeoutException("connect timed out")))
+        assertTrue(
+            CircuitBreaker.isConnectionFailure(
+                SocketTimeoutException("failed to connect to server.url/10.0.0.1 (port 443) after 10000ms")
+            )
+        )
+    }
+
+    @Test
+    fun `not connection failures`() {
+        assertFalse(CircuitBreaker.isConnectionFailure(SocketTimeoutException("timeout")))
+        assertFalse(CircuitBreaker.isConnectionFailure(SocketTimeoutException("Read timed out")))
+        assertFalse(CircuitBreaker.isConnectionFailure(UnknownHostException("server.url")))
+        assertFalse(CircuitBreaker.isConnectionFailure(SSLHandshakeException("")))
+        assertFalse(CircuitBreaker.isConnectionFailure(IOException("Canceled")))
+    }
+
+    @Test
+    fun `reset all closes every circuit`() {
+        val url = "https://server.url/remote.php/dav".toHttpUrl()
+        val shared = CircuitBreaker.forUrl(url)!!
+        repeat(shared.failureThreshold) { shared.onConnectionFailure(NOW) }
+        assertEquals(State.OPEN, shared.state)
+
+        CircuitBreaker.resetAll()
+
+        assertEquals(State.CLOSED, CircuitBreaker.forUrl(url)!!.state)
+    }
+
+    companion object {
+        private const val NOW = 1_700_000_000_000L
+    }
+}
@@ -0,0 +1,95 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.http
+
+import okhttp3.Cookie
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+
+class CookieStoreTest {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
+    // Persisted expirations keep whole seconds only
+    private val now = System.currentTimeMillis() / 1000 * 1000
+
+    @Test
+    fun `save cookies - ok - new expiration persisted`() {
+        val file = File(temporaryFolder.root, COOKIES_FILE)
+        val extended = cookie(expiresAt = now + HOUR_MILLIS * 2)
+        CookieStore().apply {
+            setPersistenceFile(file)
+            saveCookies(HOST, listOf(cookie(expiresAt = now + HOUR_MILLIS)))
+            saveCookies(HOST, listOf(extended))
+        }
+
+        val restored = CookieStore().apply { setPersistenceFile(file) }.loadCookies(HOST)
+
+        assertEquals(listOf(extended.expiresAt), restored.map { it.expiresAt })
+    }
+
+    @Test
+    fun `save cookies - ok - same cookie does not write the file`() {
+        val file = File(temporaryFolder.root, COOKIES_FILE)
+        val store = CookieStore().apply { setPersistenceFile(file) }
+        store.saveCookies(HOST, listOf(cookie(expiresAt = now + HOUR_MILLIS)))
+        assertTrue(file.delete())
+
+        store.saveCookies(HOST, listOf(cookie(expiresAt = now + HOUR_MILLIS)))
+
+        assertFalse(file.exists())
+    }
+
+    @Test
+    fun `save cookies - ok - expired cookie removes the stored one`() {
+        val store = CookieStore()
+        store.saveCookies(HOST, listOf(cookie(expiresAt = now + HOUR_MILLIS)))
+
+        store.saveCookies(HOST, listOf(cookie(expiresAt = now - HOUR_MILLIS)))
+
+        assertTrue(store.loadCookies(HOST).isEmpty())
+    }
+
+    private fun cookie(expiresAt: Long) =
+        Cookie.Builder()
+            .name(COOKIE_NAME)
+            .value("abc123")
+            .domain(HOST)
+            .path("/")
+            .expiresAt(expiresAt)
+            .build()
+
+    companion object {
+        private const val HOST = "server.url"
+        private const val COOKIE_NAME = "oc_sessionPassphrase"
+        private const val COOKIES_FILE = "cookies"
+        private const val HOUR_MILLIS = 60 * 60 * 1000L
+    }
+}
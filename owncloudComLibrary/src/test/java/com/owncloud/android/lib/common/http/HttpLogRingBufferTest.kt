@@ -0,0 +1,97 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.http
+
+import okhttp3.Headers.Companion.headersOf
+import okhttp3.HttpUrl.Companion.toHttpUrl
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Test
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
+class HttpLogRingBufferTest {
+
+    private val emitted = mutableListOf<Pair<String?, Long>>()
+
+    @Test
+    fun `consume next - ok - records in order`() {
+        val ringBuffer = HttpLogRingBuffer(CAPACITY) { record, discarded -> emitted.add(record.requestId to discarded) }
+
+        ringBuffer.offer(record("1"))
+        ringBuffer.offer(record("2"))
+        ringBuffer.consumeNext()
+        ringBuffer.consumeNext()
+
+        assertEquals(listOf("1" to 0L, "2" to 0L), emitted)
+    }
+
+    @Test
+    fun `offer - ok - oldest records discarded when full`() {
+        val ringBuffer = HttpLogRingBuffer(CAPACITY) { record, discarded -> emitted.add(record.requestId to discarded) }
+
+        (1..CAPACITY + 2).forEach { ringBuffer.offer(record(it.toString())) }
+        repeat(CAPACITY) { ringBuffer.consumeNext() }
+
+        assertEquals(listOf("3" to 2L, "4" to 0L), emitted)
+    }
+
+    @Test
+    fun `consumer - ok - survives a failing record`() {
+        val consumed = LinkedBlockingQueue<HttpLogRecord>()
+        val failing = record("failing")
+        val ringBuffer = HttpLogRingBuffer(CAPACITY) { record, _ ->
+            if (record === failing) throw IllegalStateException("Broken record")
+            consumed.add(record)
+        }
+        val consumer = ringBuffer.startConsumer(THREAD_NAME)
+
+        try {
+            val next = record("next")
+            ringBuffer.offer(failing)
+            ringBuffer.offer(next)
+
+            assertSame(next, consumed.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        } finally {
+            consumer.interrupt()
+        }
+    }
+
+    private fun record(requestId: String) =
+        HttpLogRecord(
+            networkPetition = NetworkPetition.REQUEST,
+            requestId = requestId,
+            method = "GET",
+            url = URL_STRING.toHttpUrl(),
+            headers = headersOf(),
+            body = null,
+        )
+
+    companion object {
+        private const val CAPACITY = 2
+        private const val THREAD_NAME = "HttpLogRingBufferTest"
+        private const val TIMEOUT_SECONDS = 5L
+        private const val URL_STRING = "https://server.url/remote.php/dav/files/admin/"
+    }
+}
@@ -0,0 +1,149 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.http
+
+import okhttp3.Interceptor
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.Response
+import okhttp3.ResponseBody.Companion.toResponseBody
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+class LogInterceptorTest {
+
+    private val records = mutableListOf<HttpLogRecord>()
+
+    // Answers every request without reaching the network
+    private val fakeServer = Interceptor { chain ->
+        Response.Builder()
+            .request(chain.request())
+            .protocol(Protocol.HTTP_1_1)
+            .code(200)
+            .message("OK")
+            .body(RESPONSE_BODY.toResponseBody(JSON))
+            .build()
+    }
+
+    private val client = OkHttpClient.Builder()
+        .addInterceptor(LogInterceptor { records.add(it) })
+        .addInterceptor(fakeServer)
+        .build()
+
+    @Before
+    fun setUp() {
+        LogInterceptor.httpLogsEnabled = true
+    }
+
+    @After
+    fun tearDown() {
+        LogInterceptor.httpLogsEnabled = false
+        LogInterceptor.samplingRate = 1f
+        LogInterceptor.bodyLogEndpoints = emptySet()
+    }
+
+    @Test
+    fun `intercept - ok - request and response logged`() {
+        execute(OCS_URL)
+
+        assertEquals(listOf(NetworkPetition.REQUEST, NetworkPetition.RESPONSE), records.map { it.networkPetition })
+        assertEquals(listOf(REQUEST_ID, REQUEST_ID), records.map { it.requestId })
+        assertEquals(200, records[1].code)
+    }
+
+    @Test
+    fun `intercept - ok - nothing logged when disabled`() {
+        LogInterceptor.httpLogsEnabled = false
+
+        execute(OCS_URL)
+
+        assertTrue(records.isEmpty())
+    }
+
+    @Test
+    fun `intercept - ok - nothing logged out of the sample`() {
+        LogInterceptor.samplingRate = 0f
+
+        repeat(REQUESTS) { execute(OCS_URL) }
+
+        assertTrue(records.isEmpty())
+    }
+
+    @Test
+    fun `intercept - ok - every request logged with full sampling`() {
+        repeat(REQUESTS) { execute(OCS_URL) }
+
+        assertEquals(REQUESTS * 2, records.size)
+    }
+
+    @Test
+    fun `intercept - ok - bodies not captured by default`() {
+        execute(OCS_URL)
+
+        records.forEach {
+            assertNull(it.body?.snapshot)
+            assertTrue(it.body!!.omittedReason!!.startsWith("Body not captured for this endpoint"))
+        }
+    }
+
+    @Test
+    fun `intercept - ok - bodies captured for the configured endpoints`() {
+        LogInterceptor.bodyLogEndpoints = setOf("/ocs/")
+
+        execute(OCS_URL)
+        execute(DAV_URL)
+
+        assertEquals(REQUEST_BODY, records[0].body?.snapshot?.utf8())
+        assertEquals(RESPONSE_BODY, records[1].body?.snapshot?.utf8())
+        assertNull(records[2].body?.snapshot)
+        assertNull(records[3].body?.snapshot)
+    }
+
+    private fun execute(url: String) {
+        val request = Request.Builder()
+            .url(url)
+            .header(HttpConstants.OC_X_REQUEST_ID, REQUEST_ID)
+            .post(REQUEST_BODY.toRequestBody(JSON))
+            .build()
+        client.newCall(request).execute().use { it.body?.string() }
+    }
+
+    companion object {
+        private const val OCS_URL = "https://server.url/ocs/v2.php/apps/files_sharing/api/v1/shares"
+        private const val DAV_URL = "https://server.url/remote.php/dav/files/admin/"
+        private const val REQUEST_ID = "8d1f4bc0-1b0e-4a3f-9c0b-5c2d1b7f0e11"
+        private const val REQUEST_BODY = "{\"path\":\"/Photos\"}"
+        private const val RESPONSE_BODY = "{\"ocs\":{}}"
+        private const val REQUESTS = 20
+
+        private val JSON = "application/json".toMediaType()
+    }
+}
@@ -0,0 +1,112 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.http
+
+import com.owncloud.android.lib.common.authentication.OwnCloudCredentials
+import com.owncloud.android.lib.common.authentication.OwnCloudCredentialsFactory
+import com.owncloud.android.lib.common.http.methods.nonwebdav.GetMethod
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.net.URL
+
+class RequestHeadersTemplateTest {
+
+    private val credentials = OwnCloudCredentialsFactory.newBasicCredentials("admin", "secret")
+
+    @Test
+    fun `template - ok - contains common headers`() {
+        val headers = RequestHeadersTemplate(USER_AGENT, "en", credentials).headers
+
+        assertEquals(USER_AGENT, headers[HttpConstants.USER_AGENT_HEADER])
+        assertEquals("en", headers[HttpConstants.ACCEPT_LANGUAGE_HEADER])
+        assertEquals(HttpConstants.ACCEPT_ENCODING_IDENTITY, headers[HttpConstants.ACCEPT_ENCODING_HEADER])
+        assertEquals(credentials.headerAuth, headers[HttpConstants.AUTHORIZATION_HEADER])
+    }
+
+    @Test
+    fun `template - ok - anonymous credentials without authorization`() {
+        val headers = RequestHeadersTemplate(null, "en", OwnCloudCredentialsFactory.getAnonymousCredentials()).headers
+
+        assertNull(headers[HttpConstants.AUTHORIZATION_HEADER])
+        assertNull(headers[HttpConstants.USER_AGENT_HEADER])
+    }
+
+    @Test
+    fun `matches - ko - credentials or language changed`() {
+        val template = RequestHeadersTemplate(USER_AGENT, "en", credentials)
+
+        assertTrue(template.matches(USER_AGENT, "en", credentials))
+        assertFalse(template.matches(USER_AGENT, "de", credentials))
+        assertFalse(template.matches(USER_AGENT, "en", OwnCloudCredentialsFactory.newBasicCredentials("admin", "secret")))
+    }
+
+    @Test
+    fun `set request headers - ok - replaces existing values`() {
+        val method = GetMethod(URL(URL_STRING)).apply {
+            setRequestHeader(HttpConstants.ACCEPT_LANGUAGE_HEADER, "fr")
+            addRequestHeader(OCS_API_HEADER, "true")
+        }
+
+        method.setRequestHeaders(RequestHeadersTemplate(USER_AGENT, "en", credentials).headers, REQUEST_ID)
+
+        val expectedHeaders = legacyMethod(credentials).getRequestHeadersAsHashMap() + (OCS_API_HEADER to "true")
+        assertEquals(expectedHeaders, method.getRequestHeadersAsHashMap())
+        assertEquals(1, method.request.headers.values(HttpConstants.ACCEPT_LANGUAGE_HEADER).size)
+    }
+
+    @Test
+    fun `set request headers - ok - same headers as one header at a time`() {
+        val template = RequestHeadersTemplate(USER_AGENT, "en", credentials)
+
+        assertEquals(legacyMethod(credentials).getRequestHeadersAsHashMap(), templateMethod(template).getRequestHeadersAsHashMap())
+    }
+
+    companion object {
+        private const val OCS_API_HEADER = "OCS-APIREQUEST"
+        private const val URL_STRING = "https://server.url/remote.php/dav/files/admin/Photos"
+        internal const val USER_AGENT = "Mozilla/5.0 (Android) ownCloud-android/4.0"
+        private const val REQUEST_ID = "8d1f4bc0-1b0e-4a3f-9c0b-5c2d1b7f0e11"
+
+        /**
+         * Headers set as OwnCloudClient did before [RequestHeadersTemplate], one setRequestHeader call at a time.
+         */
+        internal fun legacyMethod(credentials: OwnCloudCredentials) = GetMethod(URL(URL_STRING)).apply {
+            setRequestHeader(HttpConstants.OC_X_REQUEST_ID, REQUEST_ID)
+            setRequestHeader(HttpConstants.USER_AGENT_HEADER, USER_AGENT)
+            setRequestHeader(HttpConstants.ACCEPT_LANGUAGE_HEADER, "en")
+            setRequestHeader(HttpConstants.ACCEPT_ENCODING_HEADER, HttpConstants.ACCEPT_ENCODING_IDENTITY)
+            if (!credentials.headerAuth.isNullOrEmpty()) {
+                setRequestHeader(HttpConstants.AUTHORIZATION_HEADER, credentials.headerAuth)
+            }
+        }
+
+        internal fun templateMethod(template: RequestHeadersTemplate) = GetMethod(URL(URL_STRING)).apply {
+            setRequestHeaders(template.headers, REQUEST_ID)
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.http
+
+import com.owncloud.android.lib.common.http.methods.nonwebdav.GetMethod
+import com.owncloud.android.lib.common.http.methods.nonwebdav.PostMethod
+import com.owncloud.android.lib.common.http.methods.nonwebdav.PutMethod
+import com.owncloud.android.lib.common.network.FileRequestBody
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.RequestBody
+import okhttp3.RequestBody.Companion.toRequestBody
+import okio.BufferedSink
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.File
+import java.io.IOException
+import java.io.InterruptedIOException
+import java.net.ConnectException
+import java.net.SocketException
+import java.net.SocketTimeoutException
+import java.net.URL
+import java.net.UnknownHostException
+import javax.net.ssl.SSLHandshakeException
+
+class RetryPolicyTest {
+
+    private val policy = RetryPolicy(maxAttempts = 3, baseDelayMillis = 100, maxDelayMillis = 1_000)
+
+    @Test
+    fun `idempotent methods - ok`() {
+        assertTrue(GetMethod(URL(URL_STRING)).isIdempotent)
+        assertTrue(PutMethod(URL(URL_STRING), "content".toRequestBody()).isIdempotent)
+        assertTrue(PutMethod(URL(URL_STRING), FileRequestBody(File("any"), "text/plain".toMediaType())).isIdempotent)
+    }
+
+    @Test
+    fun `idempotent methods - ko - post and one shot body`() {
+        assertFalse(PostMethod(URL(URL_STRING), "content".toRequestBody()).isIdempotent)
+        assertFalse(PutMethod(URL(URL_STRING), oneShotBody).isIdempotent)
+    }
+
+    @Test
+    fun `retry delay - ok - transient exception`() {
+        val method = GetMethod(URL(URL_STRING))
+
+        assertTrue(policy.retryDelayMillis(method, 1, SocketTimeoutException()) >= 0)
+        assertTrue(policy.retryDelayMillis(method, 2, ConnectException()) >= 0)
+    }
+
+    @Test
+    fun `retry delay - ko - attempts exhausted or not transient`() {
+        val method = GetMethod(URL(URL_STRING))
+
+        assertEquals(RetryPolicy.NO_RETRY, policy.retryDelayMillis(method, 3, SocketTimeoutException()))
+        assertEquals(RetryPolicy.NO_RETRY, policy.retryDelayMillis(method, 1, UnknownHostException()))
+        assertEquals(RetryPolicy.NO_RETRY, policy.retryDelayMillis(method, 1, SSLHandshakeException("")))
+        assertEquals(RetryPolicy.NO_RETRY, policy.retryDelayMillis(method, 1, InterruptedIOException("canceled")))
+    }
+
+    @Test
+    fun `retry delay - ko - not idempotent`() {
+        val method = PostMethod(URL(URL_STRING), "content".toRequestBody())
+
+        assertEquals(RetryPolicy.NO_RETRY, policy.retryDelayMillis(method, 1, SocketTimeoutException()))
+    }
+
+    @Test
+    fun `retry delay - ok - upload of a repeatable body`() {
+        val method = PutMethod(URL(URL_STRING), FileRequestBody(File("any"), "text/plain".toMediaType())).apply {
+            retryOnConnectionFailure = false
+        }
+
+        assertTrue(policy.retryDelayMillis(method, 1, SocketTimeoutException()) >= 0)
+    }
+
+    @Test
+    fun `retry delay - ko - opted out`() {
+        val method = PutMethod(URL(URL_STRING), "content".toRequestBody()).apply {
+            retryPolicy = RetryPolicy.NEVER
+        }
+
+        assertEquals(RetryPolicy.NO_RETRY, method.retryPolicy!!.retryDelayMillis(method, 1, SocketTimeoutException()))
+    }
+
+    @Test
+    fun `is transient - ok - reset connection`() {
+        assertTrue(RetryPolicy.isTransient(SocketException("Connection reset")))
+        assertTrue(RetryPolicy.isTransient(IOException("unexpected end of stream on https://server.url/...")))
+        assertFalse(RetryPolicy.isTransient(IOException("Canceled")))
+    }
+
+    @Test
+    fun `backoff - ok - grows exponentially within bounds`() {
+        repeat(100) {
+            assertTrue(policy.backoffMillis(1) in 50L..100L)
+            assertTrue(policy.backoffMillis(3) in 200L..400L)
+            assertTrue(policy.backoffMillis(10) in 500L..1_000L)
+        }
+    }
+
+    @Test
+    fun `parse retry after - ok`() {
+        assertEquals(120_000L, RetryPolicy.parseRetryAfterMillis("120", 0))
+        assertEquals(
+            5_000L,
+            RetryPolicy.parseRetryAfterMillis("Sun, 06 Nov 1994 08:49:37 GMT", RFC_1123_MILLIS - 5_000)
+        )
+        assertEquals(0L, RetryPolicy.parseRetryAfterMillis("Sun, 06 Nov 1994 08:49:37 GMT", RFC_1123_MILLIS + 5_000))
+    }
+
+    @Test
+    fun `parse retry after - ko`() {
+        assertNull(RetryPolicy.parseRetryAfterMillis("soon", 0))
+        assertNull(RetryPolicy.parseRetryAfterMillis("-1", 0))
+    }
+
+    private val oneShotBody = object : RequestBody() {
+        override fun contentType() = null
+        override fun isOneShot() = true
+        override fun writeTo(sink: BufferedSink) {}
+    }
+
+    companion object {
+        private const val URL_STRING = "https://server.url/remote.php/dav/files/admin/file.txt"
+        private const val RFC_1123_MILLIS = 784111777000L
+    }
+}
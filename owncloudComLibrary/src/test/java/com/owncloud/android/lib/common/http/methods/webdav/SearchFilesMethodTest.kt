@@ -0,0 +1,206 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.http.methods.webdav
+
+import android.os.Build
+import at.bitfire.dav4jvm.XmlUtils
+import at.bitfire.dav4jvm.property.GetETag
+import at.bitfire.dav4jvm.property.ResourceType
+import com.owncloud.android.lib.common.http.HttpConstants
+import okhttp3.Interceptor
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.ResponseBody.Companion.toResponseBody
+import okio.Buffer
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import org.xmlpull.v1.XmlPullParser
+import java.io.StringReader
+import java.net.URL
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class SearchFilesMethodTest {
+
+    private val requests = mutableListOf<Request>()
+    private val foundPaths = mutableListOf<String>()
+
+    private var responseStatus = HttpConstants.HTTP_MULTI_STATUS
+    private var responseBody = multiStatus()
+
+    // Answers every request without reaching the network
+    private val client = OkHttpClient.Builder()
+        .addInterceptor(Interceptor { chain ->
+            requests.add(chain.request())
+            Response.Builder()
+                .request(chain.request())
+                .protocol(Protocol.HTTP_1_1)
+                .code(responseStatus)
+                .message("Multi-Status")
+                .body(responseBody.toResponseBody(HttpConstants.CONTENT_TYPE_XML.toMediaType()))
+                .build()
+        })
+        .build()
+
+    @Test
+    fun `execute - ok - report with pattern limit and properties`() {
+        searchMethod(FILES_URL).onExecute(client)
+
+        val request = requests.single()
+        val body = Buffer().also { request.body!!.writeTo(it) }.readUtf8()
+        assertEquals("REPORT", request.method)
+        assertEquals(listOf(PATTERN), textsOf(body, XmlUtils.NS_OWNCLOUD, "pattern"))
+        assertEquals(listOf("$LIMIT"), textsOf(body, XmlUtils.NS_OWNCLOUD, "limit"))
+        assertEquals(listOf(GetETag.NAME.name, ResourceType.NAME.name), childrenOf(body, XmlUtils.NS_WEBDAV, "prop"))
+    }
+
+    @Test
+    fun `execute - ok - results found`() {
+        responseBody = multiStatus(
+            response("/remote.php/dav/files/admin/Photos/sunset.jpg"),
+            response("/remote.php/dav/files/admin/Trips/sunset%20beach.jpg"),
+        )
+
+        assertEquals(HttpConstants.HTTP_MULTI_STATUS, searchMethod(FILES_URL).onExecute(client))
+
+        assertEquals(
+            listOf("/remote.php/dav/files/admin/Photos/sunset.jpg", "/remote.php/dav/files/admin/Trips/sunset%20beach.jpg"),
+            foundPaths
+        )
+    }
+
+    @Test
+    fun `execute - ok - searched folder skipped`() {
+        responseBody = multiStatus(
+            response("/remote.php/dav/files/admin/"),
+            response("/remote.php/dav/files/admin/sunset.jpg"),
+        )
+
+        searchMethod(FILES_URL).onExecute(client)
+
+        assertEquals(listOf("/remote.php/dav/files/admin/sunset.jpg"), foundPaths)
+    }
+
+    @Test
+    fun `execute - ok - only responses of the multistatus`() {
+        responseBody = multiStatus(
+            response("/remote.php/dav/files/admin/sunset.jpg"),
+            "<oc:wrapper>${response("/remote.php/dav/files/admin/nested.jpg")}</oc:wrapper>",
+        )
+
+        searchMethod(FILES_URL).onExecute(client)
+
+        assertEquals(listOf("/remote.php/dav/files/admin/sunset.jpg"), foundPaths)
+    }
+
+    @Test
+    fun `execute - ok - space root skipped`() {
+        responseBody = multiStatus(
+            response("/remote.php/dav/spaces/space-id/"),
+            response("/remote.php/dav/spaces/space-id/Photos/sunset.jpg"),
+        )
+
+        searchMethod(SPACE_URL).onExecute(client)
+
+        assertEquals("/remote.php/dav/spaces/space-id", requests.single().url.encodedPath)
+        assertEquals(listOf("/remote.php/dav/spaces/space-id/Photos/sunset.jpg"), foundPaths)
+    }
+
+    @Test
+    fun `execute - ko - no results parsed from an error`() {
+        responseStatus = HttpConstants.HTTP_BAD_REQUEST
+        responseBody = multiStatus(response("/remote.php/dav/files/admin/sunset.jpg"))
+
+        assertEquals(HttpConstants.HTTP_BAD_REQUEST, searchMethod(FILES_URL).onExecute(client))
+        assertTrue(foundPaths.isEmpty())
+    }
+
+    private fun searchMethod(url: String) =
+        SearchFilesMethod(URL(url), PATTERN, LIMIT, arrayOf(GetETag.NAME, ResourceType.NAME)) {
+            foundPaths.add(it.href.encodedPath)
+        }
+
+    /**
+     * Texts of the elements with the given name in [xml], in document order.
+     */
+    private fun textsOf(xml: String, namespace: String, name: String): List<String> {
+        val texts = mutableListOf<String>()
+        parse(xml) { parser ->
+            if (parser.namespace == namespace && parser.name == name) {
+                texts.add(parser.nextText())
+            }
+        }
+        return texts
+    }
+
+    /**
+     * Names of the children of the first element with the given name in [xml].
+     */
+    private fun childrenOf(xml: String, namespace: String, name: String): List<String> {
+        val children = mutableListOf<String>()
+        var parentDepth = -1
+        parse(xml) { parser ->
+            if (parentDepth == -1 && parser.namespace == namespace && parser.name == name) {
+                parentDepth = parser.depth
+            } else if (parentDepth != -1 && parser.depth == parentDepth + 1) {
+                children.add(parser.name)
+            }
+        }
+        return children
+    }
+
+    private fun parse(xml: String, onStartTag: (XmlPullParser) -> Unit) {
+        val parser = XmlUtils.newPullParser().apply { setInput(StringReader(xml)) }
+        var eventType = parser.eventType
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            if (eventType == XmlPullParser.START_TAG) {
+                onStartTag(parser)
+            }
+            eventType = parser.next()
+        }
+    }
+
+    private fun multiStatus(vararg responses: String) =
+        """<?xml version="1.0" encoding="utf-8"?>
+            |<d:multistatus xmlns:d="DAV:" xmlns:oc="http://owncloud.org/ns">${responses.joinToString("")}</d:multistatus>
+            |""".trimMargin()
+
+    private fun response(href: String) =
+        "<d:response><d:href>$href</d:href><d:propstat><d:prop><d:getetag>\"e1\"</d:getetag></d:prop>" +
+                "<d:status>HTTP/1.1 200 OK</d:status></d:propstat></d:response>"
+
+    companion object {
+        private const val FILES_URL = "https://server.url/remote.php/dav/files/admin/"
+        private const val SPACE_URL = "https://server.url/remote.php/dav/spaces/space-id"
+        private const val PATTERN = "sunset"
+        private const val LIMIT = 20
+    }
+}
@@ -0,0 +1,106 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.network
+
+import okio.Buffer
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.RandomAccessFile
+import java.nio.channels.ClosedChannelException
+
+class ChunkFromFileRequestBodyTest {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
+    private val content = ByteArray(10) { it.toByte() }
+
+    @Test
+    fun `content length - ok - same when the chunk is written again`() {
+        val file = temporaryFolder.newFile().apply { writeBytes(content) }
+        RandomAccessFile(file, "r").channel.use { channel ->
+            val body = ChunkFromFileRequestBody(file, null, channel, chunkSize = 4)
+            body.setOffset(8)
+
+            assertEquals(2, body.contentLength())
+            repeat(2) {
+                val sink = Buffer()
+                body.writeTo(sink)
+
+                assertEquals(2, body.contentLength())
+                assertArrayEquals(content.copyOfRange(8, 10), sink.readByteArray())
+            }
+
+            body.setOffset(4)
+            assertEquals(4, body.contentLength())
+        }
+    }
+
+    @Test
+    fun `write to - ok - last chunk sent again after every chunk was sent`() {
+        val file = temporaryFolder.newFile().apply { writeBytes(content) }
+        RandomAccessFile(file, "r").channel.use { channel ->
+            val body = ChunkFromFileRequestBody(file, null, channel, chunkSize = 4)
+            listOf(0L, 4L, 8L).forEach { offset ->
+                body.setOffset(offset)
+                val sink = Buffer()
+                body.writeTo(sink)
+                assertEquals(body.contentLength(), sink.size)
+            }
+
+            val sink = Buffer()
+            body.writeTo(sink)
+
+            assertEquals(2, sink.size)
+            assertArrayEquals(content.copyOfRange(8, 10), sink.readByteArray())
+        }
+    }
+
+    @Test
+    fun `write to - ok - progress counted per attempt`() {
+        val file = temporaryFolder.newFile().apply { writeBytes(content) }
+        RandomAccessFile(file, "r").channel.use { channel ->
+            val body = ChunkFromFileRequestBody(file, null, channel, chunkSize = 4)
+            val totals = mutableListOf<Long>()
+            body.addDatatransferProgressListener(OnDatatransferProgressListener { _, total, _, _ -> totals.add(total) })
+            body.setOffset(4)
+
+            repeat(2) { body.writeTo(Buffer()) }
+
+            assertEquals(listOf(8L, 8L), totals)
+        }
+    }
+
+    @Test(expected = ClosedChannelException::class)
+    fun `write to - ko - write errors are not swallowed`() {
+        val file = temporaryFolder.newFile().apply { writeBytes(content) }
+        val channel = RandomAccessFile(file, "r").channel.apply { close() }
+
+        ChunkFromFileRequestBody(file, null, channel, chunkSize = 4).writeTo(Buffer())
+    }
+}
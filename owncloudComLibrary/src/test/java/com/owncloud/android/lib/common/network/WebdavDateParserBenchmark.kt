@@ -0,0 +1,56 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.network
+
+import com.owncloud.android.lib.common.utils.Benchmark
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * Parse throughput of [WebdavDateParser] against the SimpleDateFormat based parsing it replaced.
+ */
+class WebdavDateParserBenchmark {
+
+    private val dates = WebdavDateParserTest.listingDates(LISTING_SIZE)
+
+    @Before
+    fun setUp() {
+        Benchmark.assumeEnabled()
+    }
+
+    @Test
+    fun `parse large listing - legacy SimpleDateFormat versus WebdavDateParser`() {
+        val legacy = Benchmark.measure("SimpleDateFormat, $LISTING_SIZE dates") {
+            dates.map { WebdavDateParserTest.legacyParse(it) }
+        }
+        val parser = Benchmark.measure("WebdavDateParser, $LISTING_SIZE dates") {
+            dates.map { WebdavDateParser.parse(it) }
+        }
+        println("WebdavDateParser speedup: %.1fx".format(legacy.toDouble() / parser))
+    }
+
+    companion object {
+        private const val LISTING_SIZE = 20_000
+    }
+}
@@ -0,0 +1,133 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.network
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import java.text.ParseException
+import java.text.SimpleDateFormat
+import java.util.Date
+import java.util.Locale
+import java.util.TimeZone
+
+class WebdavDateParserTest {
+
+    @Test
+    fun `parse rfc 1123 - ok`() {
+        assertEquals(EXPECTED_MILLIS, WebdavDateParser.parse("Sun, 06 Nov 1994 08:49:37 GMT")?.time)
+    }
+
+    @Test
+    fun `parse rfc 850 - ok`() {
+        assertEquals(EXPECTED_MILLIS, WebdavDateParser.parse("Sunday, 06-Nov-94 08:49:37 GMT")?.time)
+    }
+
+    @Test
+    fun `parse asctime - ok`() {
+        assertEquals(EXPECTED_MILLIS, WebdavDateParser.parse("Sun Nov  6 08:49:37 1994")?.time)
+    }
+
+    @Test
+    fun `parse date toString - ok`() {
+        assertEquals(EXPECTED_MILLIS, WebdavDateParser.parse("Sun Nov 06 08:49:37 GMT 1994")?.time)
+    }
+
+    @Test
+    fun `parse iso 8601 - ok - utc`() {
+        assertEquals(EXPECTED_MILLIS, WebdavDateParser.parse("1994-11-06T08:49:37Z")?.time)
+    }
+
+    @Test
+    fun `parse iso 8601 - ok - fraction`() {
+        assertEquals(EXPECTED_MILLIS + 123, WebdavDateParser.parse("1994-11-06T08:49:37.123Z")?.time)
+    }
+
+    @Test
+    fun `parse iso 8601 - ok - offset`() {
+        assertEquals(EXPECTED_MILLIS, WebdavDateParser.parse("1994-11-06T09:49:37+0100")?.time)
+        assertEquals(EXPECTED_MILLIS, WebdavDateParser.parse("1994-11-06T03:49:37-05:00")?.time)
+    }
+
+    @Test
+    fun `parse rfc 1123 - ok - named zone`() {
+        assertEquals(EXPECTED_MILLIS, WebdavDateParser.parse("Sun, 06 Nov 1994 03:49:37 EST")?.time)
+    }
+
+    @Test
+    fun `parse local date time - ok`() {
+        val expected = SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).parse("2023-05-10 13:45:00")?.time
+        assertEquals(expected, WebdavDateParser.parse("2023-05-10 13:45:00")?.time)
+    }
+
+    @Test
+    fun `parse - ko - not a date`() {
+        assertNull(WebdavDateParser.parse("not a date"))
+        assertNull(WebdavDateParser.parse(""))
+        assertNull(WebdavDateParser.parse(null))
+    }
+
+    @Test
+    fun `parse large listing - ok - same results as SimpleDateFormat`() {
+        val dates = listingDates(LISTING_SIZE)
+
+        assertEquals(dates.map { legacyParse(it)?.time }, dates.map { WebdavDateParser.parse(it)?.time })
+    }
+
+    companion object {
+        private const val EXPECTED_MILLIS = 784111777000L
+        private const val LISTING_SIZE = 20_000
+
+        private val LEGACY_FORMATS = arrayOf(
+            SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US),
+            SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US),
+        )
+
+        /**
+         * RFC 1123 dates, as servers send them in getlastmodified, one hour and a bit apart.
+         */
+        internal fun listingDates(size: Int): List<String> {
+            val rfc1123 = SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US).apply {
+                timeZone = TimeZone.getTimeZone("GMT")
+            }
+            return List(size) { rfc1123.format(Date(EXPECTED_MILLIS + it * 3_600_017L)) }
+        }
+
+        /**
+         * Parsing as done before [WebdavDateParser], shared SimpleDateFormat instances tried one after another.
+         */
+        internal fun legacyParse(date: String): Date? {
+            for (format in LEGACY_FORMATS) {
+                try {
+                    synchronized(format) {
+                        return format.parse(date)
+                    }
+                } catch (e: ParseException) {
+                    // this is not the format
+                }
+            }
+            return null
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.operations
+
+import android.os.Build
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.ByteArrayInputStream
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class ErrorBodyParserTest {
+
+    private val parser = ErrorBodyParser()
+
+    private fun parse(body: String, maxBytes: Int = MAX_BYTES) =
+        parser.parse(ByteArrayInputStream(body.toByteArray()), maxBytes)
+
+    @Test
+    fun `parse - ok - message extracted`() {
+        val errorBody = parse(sabreError("Sabre\\DAV\\Exception\\Forbidden", "Access to this resource is forbidden"))!!
+
+        assertEquals("Access to this resource is forbidden", errorBody.message)
+        assertFalse(errorBody.isInvalidCharacter)
+    }
+
+    @Test
+    fun `parse - ok - invalid characters`() {
+        assertTrue(parse(sabreError("OC\\Connector\\Sabre\\Exception\\InvalidPath", "Invalid path"))!!.isInvalidCharacter)
+        assertTrue(parse(sabreError("OCP\\Files\\InvalidPathException", "Invalid path"))!!.isInvalidCharacter)
+    }
+
+    @Test
+    fun `parse - ok - body truncated to max bytes`() {
+        val body = sabreError("Sabre\\DAV\\Exception\\NotFound", "File not found") + " ".repeat(2 * MAX_BYTES)
+
+        val errorBody = parse(body)!!
+
+        assertEquals(MAX_BYTES, errorBody.rawSnippet.length)
+        assertEquals(body.substring(0, MAX_BYTES), errorBody.rawSnippet)
+        assertEquals("File not found", errorBody.message)
+    }
+
+    @Test
+    fun `parse - ok - document cut before the message`() {
+        val body = sabreError("Sabre\\DAV\\Exception\\NotFound", "File not found")
+        val maxBytes = body.indexOf("<s:message>")
+
+        val errorBody = parse(body, maxBytes)!!
+
+        assertEquals("", errorBody.message)
+        assertEquals(body.substring(0, maxBytes), errorBody.rawSnippet)
+    }
+
+    @Test
+    fun `parse - ok - not an error document`() {
+        val errorBody = parse("<html><body>Bad gateway</body></html>")!!
+
+        assertEquals("", errorBody.message)
+        assertFalse(errorBody.isInvalidCharacter)
+        assertEquals("<html><body>Bad gateway</body></html>", errorBody.rawSnippet)
+    }
+
+    @Test
+    fun `parse - ok - empty body`() {
+        assertNull(parse(""))
+    }
+
+    private fun sabreError(exception: String, message: String) =
+        """<?xml version="1.0" encoding="utf-8"?>
+            |<d:error xmlns:d="DAV:" xmlns:s="http://sabredav.org/ns">
+            |  <s:exception>$exception</s:exception>
+            |  <s:message>$message</s:message>
+            |</d:error>""".trimMargin()
+
+    companion object {
+        private const val MAX_BYTES = 256
+    }
+}
@@ -0,0 +1,85 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.operations
+
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import org.junit.After
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.io.IOException
+import java.net.SocketTimeoutException
+
+class ErrorLogRateLimiterTest {
+
+    @Before
+    fun setUp() {
+        ErrorLogRateLimiter.reset()
+        ErrorLogRateLimiter.setWindowMillis(WINDOW_MILLIS)
+    }
+
+    @After
+    fun tearDown() {
+        ErrorLogRateLimiter.reset()
+    }
+
+    @Test
+    fun `should log - ok - first failure`() {
+        assertTrue(ErrorLogRateLimiter.shouldLog(ResultCode.TIMEOUT, SocketTimeoutException()))
+    }
+
+    @Test
+    fun `should log - ko - same failure within the window`() {
+        ErrorLogRateLimiter.shouldLog(ResultCode.TIMEOUT, SocketTimeoutException("first"))
+
+        assertFalse(ErrorLogRateLimiter.shouldLog(ResultCode.TIMEOUT, SocketTimeoutException("second")))
+    }
+
+    @Test
+    fun `should log - ok - other result code`() {
+        ErrorLogRateLimiter.shouldLog(ResultCode.TIMEOUT, IOException())
+
+        assertTrue(ErrorLogRateLimiter.shouldLog(ResultCode.HOST_NOT_AVAILABLE, IOException()))
+    }
+
+    @Test
+    fun `should log - ok - other exception class`() {
+        ErrorLogRateLimiter.shouldLog(ResultCode.TIMEOUT, IOException())
+
+        assertTrue(ErrorLogRateLimiter.shouldLog(ResultCode.TIMEOUT, SocketTimeoutException()))
+    }
+
+    @Test
+    fun `should log - ok - every failure without window`() {
+        ErrorLogRateLimiter.setWindowMillis(0)
+
+        assertTrue(ErrorLogRateLimiter.shouldLog(ResultCode.TIMEOUT, SocketTimeoutException()))
+        assertTrue(ErrorLogRateLimiter.shouldLog(ResultCode.TIMEOUT, SocketTimeoutException()))
+    }
+
+    companion object {
+        private const val WINDOW_MILLIS = 60 * 60 * 1000L
+    }
+}
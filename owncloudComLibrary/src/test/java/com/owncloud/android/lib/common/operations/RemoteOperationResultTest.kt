@@ -0,0 +1,99 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.operations
+
+import android.os.Build
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.net.SocketTimeoutException
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class RemoteOperationResultTest {
+
+    @Test
+    fun `exception message - ok - computed from the exception`() {
+        val result = RemoteOperationResult<Unit>(SocketTimeoutException(MESSAGE))
+
+        assertEquals(ResultCode.TIMEOUT, result.code)
+        assertEquals("SocketTimeoutException: $MESSAGE", result.exceptionMessage)
+    }
+
+    @Test
+    fun `exception stack trace - ok - computed once`() {
+        val result = RemoteOperationResult<Unit>(SocketTimeoutException(MESSAGE))
+
+        val stackTrace = result.exceptionStackTrace
+
+        assertTrue(stackTrace.startsWith("java.net.SocketTimeoutException: $MESSAGE"))
+        assertSame(stackTrace, result.exceptionStackTrace)
+    }
+
+    @Test
+    fun `exception diagnostics - ok - none without exception`() {
+        val result = RemoteOperationResult<Unit>(ResultCode.OK)
+
+        assertNull(result.exceptionMessage)
+        assertNull(result.exceptionStackTrace)
+    }
+
+    @Test
+    fun `exception diagnostics - ok - recomputed after deserialization`() {
+        val result = RemoteOperationResult<Unit>(SocketTimeoutException(MESSAGE))
+        val stackTrace = result.exceptionStackTrace
+
+        val deserialized = deserialize(serialize(result))
+
+        assertEquals(ResultCode.TIMEOUT, deserialized.code)
+        assertEquals(result.exceptionMessage, deserialized.exceptionMessage)
+        assertNotNull(deserialized.exceptionStackTrace)
+        assertEquals(stackTrace, deserialized.exceptionStackTrace)
+    }
+
+    private fun serialize(result: RemoteOperationResult<*>): ByteArray =
+        ByteArrayOutputStream().use { bytes ->
+            ObjectOutputStream(bytes).use { it.writeObject(result) }
+            bytes.toByteArray()
+        }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun deserialize(bytes: ByteArray): RemoteOperationResult<Unit> =
+        ObjectInputStream(ByteArrayInputStream(bytes)).use { it.readObject() as RemoteOperationResult<Unit> }
+
+    companion object {
+        private const val MESSAGE = "Read timed out"
+    }
+}
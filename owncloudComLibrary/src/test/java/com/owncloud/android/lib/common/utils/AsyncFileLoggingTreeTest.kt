@@ -0,0 +1,115 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.utils
+
+import android.os.Build
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.File
+import java.util.Random
+import java.util.zip.GZIPInputStream
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class AsyncFileLoggingTreeTest {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
+    private val directory by lazy { temporaryFolder.root }
+
+    @Test
+    fun `log - ok - written to the current file`() {
+        val tree = AsyncFileLoggingTree(directory, FILENAME)
+
+        tree.i("first message")
+        tree.w("second message")
+        tree.stop()
+
+        val lines = File(directory, "$FILENAME.log").readLines()
+        assertEquals(2, lines.size)
+        assertTrue(lines[0].endsWith(" I/: first message"))
+        assertTrue(lines[1].endsWith(" W/: second message"))
+    }
+
+    @Test
+    fun `log - ok - full files rotated into compressed segments`() {
+        val tree = AsyncFileLoggingTree(directory, FILENAME, maxFileSize = 1024)
+
+        repeat(RECORDS) { tree.i(record(it)) }
+        tree.stop()
+
+        assertTrue(segments().size > 1)
+        assertEquals((0 until RECORDS).map { record(it) }.toSet(), loggedRecords().toSet())
+    }
+
+    @Test
+    fun `log - ok - oldest segments deleted over the total size`() {
+        val maxFileSize = 1024L
+        // over the largest segment a single batch can produce, so the newest one is always kept
+        val maxTotalSize = 100 * 1024L
+        val tree = AsyncFileLoggingTree(directory, FILENAME, maxFileSize = maxFileSize, maxTotalSize = maxTotalSize)
+
+        // random text, so it is not compressed below the total size
+        val random = Random(1)
+        repeat(RECORDS_OVER_TOTAL_SIZE) {
+            tree.i(record(it) + " " + (1..80).map { 'a' + random.nextInt(26) }.joinToString(""))
+        }
+        tree.stop()
+
+        val totalSize = directory.listFiles()!!.sumOf { it.length() }
+        assertTrue(totalSize <= maxTotalSize + maxFileSize)
+        val records = loggedRecords()
+        assertTrue(records.size < RECORDS_OVER_TOTAL_SIZE)
+        assertTrue(records.any { it.startsWith(record(RECORDS_OVER_TOTAL_SIZE - 1) + " ") })
+        assertTrue(records.none { it.startsWith(record(0) + " ") })
+    }
+
+    private fun segments(): List<File> =
+        directory.listFiles { file -> file.name.endsWith(".gz") }!!.toList()
+
+    private fun loggedRecords(): List<String> {
+        val segmentLines = segments().flatMap { segment ->
+            GZIPInputStream(segment.inputStream()).bufferedReader().use { it.readLines() }
+        }
+        val currentFile = File(directory, "$FILENAME.log")
+        val currentLines = if (currentFile.exists()) currentFile.readLines() else emptyList()
+        return (segmentLines + currentLines).map { it.substringAfter(" I/: ") }
+    }
+
+    private fun record(index: Int) = "record $index"
+
+    companion object {
+        private const val FILENAME = "owncloud"
+        private const val RECORDS = 2_000
+        private const val RECORDS_OVER_TOTAL_SIZE = 6_000
+    }
+}
@@ -0,0 +1,77 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.common.utils
+
+import org.junit.Assume
+
+/**
+ * Micro benchmarks living next to the unit tests. They are skipped unless the tests run with -Dbenchmarks=true, e.g.
+ * `./gradlew :owncloudComLibrary:testDebugUnitTest -Dbenchmarks=true --tests '*Benchmark'`.
+ *
+ * Every benchmark is warmed up first, so the JIT compiled it, and then measured over several runs; the median is
+ * reported, as single runs on a shared machine vary too much.
+ */
+object Benchmark {
+
+    private const val PROPERTY = "benchmarks"
+    private const val DEFAULT_WARMUP_RUNS = 5
+    private const val DEFAULT_MEASURED_RUNS = 10
+    private const val NANOS_PER_MICRO = 1_000
+
+    // Results of the runs end up here, so the JIT cannot drop the work as unused
+    @Volatile
+    private var sink = 0
+
+    fun assumeEnabled() {
+        Assume.assumeTrue("Benchmarks run with -D$PROPERTY=true", System.getProperty(PROPERTY) == "true")
+    }
+
+    /**
+     * @return median nanoseconds of a measured run of [block]
+     */
+    fun measure(
+        name: String,
+        warmupRuns: Int = DEFAULT_WARMUP_RUNS,
+        measuredRuns: Int = DEFAULT_MEASURED_RUNS,
+        block: () -> Any?,
+    ): Long {
+        repeat(warmupRuns) { consume(block()) }
+        val nanos = LongArray(measuredRuns) {
+            val start = System.nanoTime()
+            consume(block())
+            System.nanoTime() - start
+        }.sorted()
+        val median = nanos[measuredRuns / 2]
+        println(
+            "$name: median ${median / NANOS_PER_MICRO} µs, min ${nanos.first() / NANOS_PER_MICRO} µs, " +
+                    "max ${nanos.last() / NANOS_PER_MICRO} µs over $measuredRuns runs"
+        )
+        return median
+    }
+
+    private fun consume(result: Any?) {
+        sink += System.identityHashCode(result)
+    }
+}
@@ -0,0 +1,107 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.common.utils
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class DiskByteCacheTest {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
+    @Test
+    fun `put and get - ok`() {
+        val cache = DiskByteCache(temporaryFolder.root, MAX_BYTES)
+
+        cache.put("key", byteArrayOf(1, 2, 3))
+
+        assertArrayEquals(byteArrayOf(1, 2, 3), cache.get("key"))
+        assertNull(cache.get("other"))
+        assertEquals(3, cache.size())
+    }
+
+    @Test
+    fun `put - ok - evicts least recently used`() {
+        val cache = DiskByteCache(temporaryFolder.root, MAX_BYTES)
+        cache.put("a", ByteArray(40))
+        cache.put("b", ByteArray(40))
+        cache.get("a")
+
+        cache.put("c", ByteArray(40))
+
+        assertNull(cache.get("b"))
+        assertEquals(40, cache.get("a")?.size)
+        assertEquals(80, cache.size())
+    }
+
+    @Test
+    fun `put - ok - replaces entry`() {
+        val cache = DiskByteCache(temporaryFolder.root, MAX_BYTES)
+        cache.put("a", ByteArray(40))
+
+        cache.put("a", ByteArray(10))
+
+        assertEquals(10, cache.size())
+    }
+
+    @Test
+    fun `put - ko - larger than cache`() {
+        val cache = DiskByteCache(temporaryFolder.root, MAX_BYTES)
+
+        cache.put("a", ByteArray(MAX_BYTES.toInt() + 1))
+
+        assertNull(cache.get("a"))
+    }
+
+    @Test
+    fun `get - ok - entries kept across instances`() {
+        DiskByteCache(temporaryFolder.root, MAX_BYTES).put("a", byteArrayOf(7))
+
+        assertArrayEquals(byteArrayOf(7), DiskByteCache(temporaryFolder.root, MAX_BYTES).get("a"))
+    }
+
+    @Test
+    fun `remove and clear - ok`() {
+        val cache = DiskByteCache(temporaryFolder.root, MAX_BYTES)
+        cache.put("a", byteArrayOf(1))
+        cache.put("b", byteArrayOf(2))
+
+        cache.remove("a")
+        assertNull(cache.get("a"))
+
+        cache.clear()
+        assertNull(cache.get("b"))
+        assertEquals(0, cache.size())
+        assertEquals(0, temporaryFolder.root.listFiles()?.size)
+    }
+
+    companion object {
+        private const val MAX_BYTES = 100L
+    }
+}
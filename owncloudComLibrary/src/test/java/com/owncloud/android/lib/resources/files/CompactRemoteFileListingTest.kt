@@ -0,0 +1,98 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.files
+
+import android.os.Build
+import android.os.Parcel
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class CompactRemoteFileListingTest {
+
+    private val files = listOf(
+        RemoteFile(remotePath = "/", etag = "root", remoteId = "id0", permissions = "RDNVCK", owner = OWNER),
+        RemoteFile(remotePath = "/Photos/", etag = "photos", remoteId = "id1", permissions = "RDNVCK", owner = OWNER),
+        RemoteFile(
+            remotePath = "/Photos/beach.jpg",
+            mimeType = "image/jpeg",
+            length = 1_234,
+            creationTimestamp = 1,
+            modifiedTimestamp = 2,
+            etag = "beach",
+            permissions = null,
+            remoteId = "id2",
+            size = 1_234,
+            privateLink = "https://server.url/f/2",
+            owner = OWNER,
+            sharedByLink = true,
+            sharedWithSharee = false,
+        ),
+    )
+
+    @Test
+    fun `views - same as source files`() {
+        val listing = CompactRemoteFileListing.from(files)
+
+        assertEquals(files, listing)
+        assertEquals("/Photos/beach.jpg", listing.remotePathAt(2))
+        assertTrue(listing.isFolderAt(1))
+        assertFalse(listing.isFolderAt(2))
+        assertEquals("id2", listing.remoteIdAt(2))
+    }
+
+    @Test
+    fun `builder - grows beyond initial capacity`() {
+        val builder = CompactRemoteFileListing.Builder(1)
+        repeat(100) { builder.add(RemoteFile(remotePath = "/Docs/$it.txt", mimeType = "text/plain", owner = OWNER)) }
+
+        val listing = builder.build()
+
+        assertEquals(100, listing.size)
+        assertEquals("/Docs/99.txt", listing[99].remotePath)
+    }
+
+    @Test
+    fun `parcel - round trip`() {
+        val parcel = Parcel.obtain()
+        CompactRemoteFileListing.from(files).writeToParcel(parcel, 0)
+        parcel.setDataPosition(0)
+
+        val listing = CompactRemoteFileListing.CREATOR.createFromParcel(parcel)
+        parcel.recycle()
+
+        assertEquals(files, listing)
+    }
+
+    companion object {
+        private const val OWNER = "admin"
+    }
+}
@@ -0,0 +1,97 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.files
+
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class FolderListingCacheTest {
+
+    private val cache = FolderListingCache(maxEntries = 6)
+
+    @Test
+    fun `get - ok - same etag`() {
+        val listing = listing("/Docs/", "etag1", 2)
+        cache.put(ACCOUNT, "/Docs/", null, PROFILE, listing)
+
+        val cached = cache.get(ACCOUNT, "/Docs", null, PROFILE, "etag1")
+
+        assertEquals(listing, cached)
+        assertNotSame(listing.first(), cached?.first())
+    }
+
+    @Test
+    fun `get - ko - etag changed or other profile`() {
+        cache.put(ACCOUNT, "/Docs/", null, PROFILE, listing("/Docs/", "etag1", 2))
+
+        assertNull(cache.get(ACCOUNT, "/Docs/", null, PropfindProfile.LISTING, "etag1"))
+        assertNull(cache.get(ACCOUNT, "/Docs/", null, PROFILE, "etag2"))
+        assertFalse(cache.contains(ACCOUNT, "/Docs/", null, PROFILE))
+    }
+
+    @Test
+    fun `put - evicts least recently used`() {
+        cache.put(ACCOUNT, "/A/", null, PROFILE, listing("/A/", "a", 2))
+        cache.put(ACCOUNT, "/B/", null, PROFILE, listing("/B/", "b", 2))
+        cache.get(ACCOUNT, "/A/", null, PROFILE, "a")
+
+        cache.put(ACCOUNT, "/C/", null, PROFILE, listing("/C/", "c", 2))
+
+        assertTrue(cache.contains(ACCOUNT, "/A/", null, PROFILE))
+        assertFalse(cache.contains(ACCOUNT, "/B/", null, PROFILE))
+        assertTrue(cache.contains(ACCOUNT, "/C/", null, PROFILE))
+    }
+
+    @Test
+    fun `invalidate - parent own and descendants`() {
+        cache.put(ACCOUNT, "/", null, PROFILE, listing("/", "root", 0))
+        cache.put(ACCOUNT, "/Docs/", null, PROFILE, listing("/Docs/", "docs", 0))
+        cache.put(ACCOUNT, "/Docs/Sub/", null, PROFILE, listing("/Docs/Sub/", "sub", 0))
+        cache.put(ACCOUNT, "/Docs2/", null, PROFILE, listing("/Docs2/", "docs2", 0))
+        cache.put("other", "/", null, PROFILE, listing("/", "root", 0))
+
+        cache.invalidate(ACCOUNT, "/Docs", null)
+
+        assertFalse(cache.contains(ACCOUNT, "/", null, PROFILE))
+        assertFalse(cache.contains(ACCOUNT, "/Docs/", null, PROFILE))
+        assertFalse(cache.contains(ACCOUNT, "/Docs/Sub/", null, PROFILE))
+        assertTrue(cache.contains(ACCOUNT, "/Docs2/", null, PROFILE))
+        assertTrue(cache.contains("other", "/", null, PROFILE))
+    }
+
+    private fun listing(folderPath: String, etag: String, children: Int): List<RemoteFile> =
+        listOf(RemoteFile(remotePath = folderPath, etag = etag, owner = ACCOUNT)) +
+                List(children) { RemoteFile(remotePath = "$folderPath$it.txt", mimeType = "text/plain", etag = "$etag-$it", owner = ACCOUNT) }
+
+    companion object {
+        private const val ACCOUNT = "admin@server.url"
+        private val PROFILE = PropfindProfile.FULL
+    }
+}
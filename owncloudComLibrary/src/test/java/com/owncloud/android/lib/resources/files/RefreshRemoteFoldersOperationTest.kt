@@ -0,0 +1,128 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files
+
+import android.os.Build
+import com.owncloud.android.lib.common.FakeOwnCloudClient
+import com.owncloud.android.lib.common.http.methods.webdav.PropfindProfile
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.concurrent.atomic.AtomicInteger
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class RefreshRemoteFoldersOperationTest {
+
+    // No request reaches it, as folders are read by the fake operation executor
+    private val client = FakeOwnCloudClient({ throw AssertionError("Unexpected request to ${it.url}") })
+
+    private val runningReads = AtomicInteger(0)
+    private val maxRunningReads = AtomicInteger(0)
+
+    @Test
+    fun `run - ok - listings in the order given without duplicates`() {
+        // Later folders are read faster, so they finish first
+        val operation = refreshOperation(listOf("/c/", "/a/", "/b/", "/a/")) { remotePath ->
+            Thread.sleep(if (remotePath == "/c/") SLOW_READ_MILLIS else 0)
+            listing(remotePath)
+        }
+
+        val result = operation.execute(client)
+
+        assertTrue(result.isSuccess)
+        assertEquals(listOf("/c/", "/a/", "/b/"), result.data.keys.toList())
+        assertEquals(listOf("/c/file.txt"), result.data.getValue("/c/").data.map { it.remotePath })
+    }
+
+    @Test
+    fun `run - ok - failures isolated to their folders`() {
+        val crash = IllegalStateException("Crashed reading /c/")
+        val operation = refreshOperation(listOf("/a/", "/b/", "/c/")) { remotePath ->
+            when (remotePath) {
+                "/b/" -> RemoteOperationResult(ResultCode.FILE_NOT_FOUND)
+                "/c/" -> throw crash
+                else -> listing(remotePath)
+            }
+        }
+
+        val result = operation.execute(client)
+
+        assertTrue(result.isSuccess)
+        assertTrue(result.data.getValue("/a/").isSuccess)
+        assertEquals(ResultCode.FILE_NOT_FOUND, result.data.getValue("/b/").code)
+        assertSame(crash, result.data.getValue("/c/").exception)
+    }
+
+    @Test
+    fun `run - ok - no more folders read at the same time than the parallelism`() {
+        val operation = refreshOperation(List(PATHS) { "/folder$it/" }, parallelism = PARALLELISM) { remotePath ->
+            val running = runningReads.incrementAndGet()
+            maxRunningReads.accumulateAndGet(running) { max, current -> maxOf(max, current) }
+            Thread.sleep(READ_MILLIS)
+            runningReads.decrementAndGet()
+            listing(remotePath)
+        }
+
+        val result = operation.execute(client)
+
+        assertEquals(PATHS, result.data.size)
+        assertTrue(maxRunningReads.get() in 1..PARALLELISM)
+    }
+
+    @Test
+    fun `run - ok - no folders`() {
+        val result = refreshOperation(emptyList()) { throw AssertionError("No folder to read") }.execute(client)
+
+        assertTrue(result.isSuccess)
+        assertTrue(result.data.isEmpty())
+    }
+
+    private fun refreshOperation(
+        remotePaths: List<String>,
+        parallelism: Int = PARALLELISM,
+        readFolder: (String) -> RemoteOperationResult<ArrayList<RemoteFile>>,
+    ) = RefreshRemoteFoldersOperation(remotePaths, null, parallelism, PropfindProfile.FULL) { operation, _ ->
+        readFolder(operation.remotePath)
+    }
+
+    private fun listing(remotePath: String) =
+        RemoteOperationResult<ArrayList<RemoteFile>>(ResultCode.OK).apply {
+            data = arrayListOf(RemoteFile(remotePath = remotePath + "file.txt", owner = OWNER))
+        }
+
+    companion object {
+        private const val OWNER = "admin"
+        private const val PARALLELISM = 2
+        private const val PATHS = 8
+        private const val READ_MILLIS = 20L
+        private const val SLOW_READ_MILLIS = 100L
+    }
+}
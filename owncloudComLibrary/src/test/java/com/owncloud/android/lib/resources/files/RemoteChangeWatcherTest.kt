@@ -0,0 +1,107 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class RemoteChangeWatcherTest {
+
+    @Test
+    fun `next interval - backs off while unchanged`() {
+        assertEquals(90_000L, RemoteChangeWatcher.nextIntervalMillis(60_000, false, MIN, MAX))
+        assertEquals(135_000L, RemoteChangeWatcher.nextIntervalMillis(90_000, false, MIN, MAX))
+    }
+
+    @Test
+    fun `next interval - capped`() {
+        assertEquals(MAX, RemoteChangeWatcher.nextIntervalMillis(500_000, false, MIN, MAX))
+    }
+
+    @Test
+    fun `next interval - reset on change`() {
+        assertEquals(MIN, RemoteChangeWatcher.nextIntervalMillis(500_000, true, MIN, MAX))
+    }
+
+    @Test
+    fun `failing listener - ok - other listeners notified and polls go on`() {
+        val polls = AtomicInteger()
+        val watcher = RemoteChangeWatcher({ "etag${polls.incrementAndGet()}" }, 10, 10)
+        val notified = CountDownLatch(2)
+        watcher.watch({ _, _ -> throw IllegalStateException("Listener failed") }, knownEtag = "etag0")
+        watcher.watch({ _, _ -> notified.countDown() }, knownEtag = "etag0")
+
+        watcher.start()
+        try {
+            assertTrue(notified.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        } finally {
+            watcher.stop()
+        }
+    }
+
+    @Test
+    fun `poll now - ok - poll in progress does not schedule another one`() {
+        val pollStarted = CountDownLatch(1)
+        val releasePoll = CountDownLatch(1)
+        val secondPollDone = CountDownLatch(1)
+        val polls = AtomicInteger()
+        val watcher = RemoteChangeWatcher({
+            when (polls.incrementAndGet()) {
+                1 -> {
+                    pollStarted.countDown()
+                    releasePoll.await()
+                }
+                2 -> secondPollDone.countDown()
+            }
+            "etag"
+        }, HOUR, HOUR)
+        watcher.watch({ _, _ -> })
+
+        watcher.start()
+        try {
+            assertTrue(pollStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+            watcher.pollNow()
+            releasePoll.countDown()
+            assertTrue(secondPollDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+
+            // Time for the second poll to schedule the next one after reading the ETag
+            Thread.sleep(100)
+            assertEquals(1, watcher.scheduledPollCount())
+            assertEquals(2, polls.get())
+        } finally {
+            watcher.stop()
+        }
+    }
+
+    companion object {
+        private const val MIN = 60_000L
+        private const val MAX = 600_000L
+        private const val HOUR = 3_600_000L
+        private const val TIMEOUT_SECONDS = 5L
+    }
+}
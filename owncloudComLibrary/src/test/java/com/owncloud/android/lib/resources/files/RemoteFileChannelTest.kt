@@ -0,0 +1,200 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files
+
+import com.owncloud.android.lib.common.http.HttpConstants
+import com.owncloud.android.lib.resources.files.RemoteFileChannel.RangeResponse
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.IOException
+import java.nio.ByteBuffer
+
+class RemoteFileChannelTest {
+
+    private val content = ByteArray(CONTENT_SIZE) { it.toByte() }
+
+    // Ranges and If-Match of the requests sent, in order
+    private val ranges = mutableListOf<LongRange>()
+    private val ifMatches = mutableListOf<String?>()
+
+    private var serverEtag = "\"v1\""
+    private var supportsRanges = true
+    private var sendsTotalSize = true
+
+    // Bytes of every body to drop, as a connection closed early would
+    private var truncatedBytes = 0
+
+    private fun respond(start: Long, end: Long, ifMatch: String?): RangeResponse {
+        ranges.add(start..end)
+        ifMatches.add(ifMatch)
+        if (ifMatch != null && ifMatch != serverEtag) {
+            return RangeResponse(HttpConstants.HTTP_PRECONDITION_FAILED, serverEtag, null, null, null)
+        }
+        if (!supportsRanges) {
+            return RangeResponse(HttpConstants.HTTP_OK, serverEtag, null, CONTENT_SIZE.toLong(), ByteArrayInputStream(content))
+        }
+        val last = minOf(end, CONTENT_SIZE - 1L)
+        return RangeResponse(
+            status = HttpConstants.HTTP_PARTIAL_CONTENT,
+            etag = serverEtag,
+            contentRange = "bytes $start-$last/${if (sendsTotalSize) CONTENT_SIZE else "*"}",
+            contentLength = last - start + 1,
+            body = ByteArrayInputStream(content, start.toInt(), (last - start + 1).toInt() - truncatedBytes),
+        )
+    }
+
+    private fun channel(allowFullResponseFallback: Boolean = false) = RemoteFileChannel(
+        requestRange = ::respond,
+        remotePath = "/video.mp4",
+        etag = null,
+        blockSize = BLOCK_SIZE,
+        maxCachedBlocks = 8,
+        maxReadaheadBlocks = 4,
+        allowFullResponseFallback = allowFullResponseFallback,
+    )
+
+    @Test
+    fun `read - ok - sequential reads double the readahead up to its maximum`() {
+        val channel = channel()
+
+        assertArrayEquals(content, channel.newInputStream().readBytes())
+        assertEquals(listOf(0L..3L, 4L..11L, 12L..27L, 28L..39L), ranges)
+        assertEquals(4, channel.requestCount)
+    }
+
+    @Test
+    fun `read - ok - cached blocks are not requested again`() {
+        val channel = channel()
+
+        assertArrayEquals(content.copyOfRange(0, 2), channel.readAt(0, 2))
+        assertArrayEquals(content.copyOfRange(20, 22), channel.readAt(20, 2))
+        assertArrayEquals(content.copyOfRange(2, 4), channel.readAt(2, 2))
+
+        assertEquals(listOf(0L..3L, 20L..23L), ranges)
+    }
+
+    @Test
+    fun `read - ok - pinned to the etag of the first response`() {
+        val channel = channel()
+
+        channel.readAt(0, 1)
+        channel.readAt(20, 1)
+
+        assertEquals("\"v1\"", channel.etag)
+        assertEquals(listOf(null, "\"v1\""), ifMatches)
+    }
+
+    @Test(expected = RemoteFileChangedException::class)
+    fun `read - ko - file changed after the first response`() {
+        val channel = channel()
+        channel.readAt(0, 1)
+
+        serverEtag = "\"v2\""
+        channel.readAt(20, 1)
+    }
+
+    @Test
+    fun `read - ok - ranges not supported, read from the start`() {
+        supportsRanges = false
+        val channel = channel()
+
+        assertArrayEquals(content.copyOfRange(0, 4), channel.readAt(0, 4))
+        assertEquals(CONTENT_SIZE.toLong(), channel.size())
+    }
+
+    @Test
+    fun `read - ko - ranges not supported, read from a position`() {
+        supportsRanges = false
+        val channel = channel()
+
+        try {
+            channel.readAt(20, 4)
+            throw AssertionError("Read from a position should fail")
+        } catch (e: IOException) {
+            assertFalse(e is RemoteFileChangedException)
+        }
+    }
+
+    @Test
+    fun `read - ok - ranges not supported, read from a position with the fallback`() {
+        supportsRanges = false
+        val channel = channel(allowFullResponseFallback = true)
+
+        assertArrayEquals(content.copyOfRange(20, 24), channel.readAt(20, 4))
+    }
+
+    @Test
+    fun `read - ok - end of file inferred from a short body without total size`() {
+        sendsTotalSize = false
+        val channel = channel()
+
+        assertArrayEquals(content, channel.newInputStream().readBytes())
+        assertEquals(CONTENT_SIZE.toLong(), channel.size())
+    }
+
+    @Test
+    fun `read - ko - short body with total size`() {
+        truncatedBytes = 1
+        val channel = channel()
+
+        try {
+            channel.readAt(0, 4)
+            throw AssertionError("Read of a truncated response should fail")
+        } catch (e: IOException) {
+            assertFalse(e is RemoteFileChangedException)
+        }
+        assertEquals(CONTENT_SIZE.toLong(), channel.size())
+    }
+
+    private fun RemoteFileChannel.readAt(from: Long, length: Int): ByteArray {
+        val buffer = ByteBuffer.allocate(length)
+        position(from)
+        while (buffer.hasRemaining() && read(buffer) > 0) {
+            // Keep reading until the buffer is full
+        }
+        return buffer.array().copyOf(buffer.position())
+    }
+
+    @Test
+    fun `parse total size - ok`() {
+        assertEquals(4_294_967_296L, RemoteFileChannel.parseTotalSize("bytes 0-262143/4294967296"))
+        assertEquals(4096L, RemoteFileChannel.parseTotalSize("bytes */4096"))
+    }
+
+    @Test
+    fun `parse total size - ko - unknown size or malformed`() {
+        assertNull(RemoteFileChannel.parseTotalSize("bytes 0-1023/*"))
+        assertNull(RemoteFileChannel.parseTotalSize("0-1023/4096"))
+        assertNull(RemoteFileChannel.parseTotalSize(null))
+    }
+
+    companion object {
+        private const val CONTENT_SIZE = 40
+        private const val BLOCK_SIZE = 4
+    }
+}
@@ -0,0 +1,85 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files
+
+import android.os.Build
+import com.owncloud.android.lib.common.utils.Benchmark
+import com.owncloud.android.lib.resources.files.RemoteListingDiffTest.Companion.changedListing
+import com.owncloud.android.lib.resources.files.RemoteListingDiffTest.Companion.largeListing
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+/**
+ * [RemoteListingDiff] over plain lists of [RemoteFile] against [CompactRemoteFileListing], on listings changed in one
+ * of every ten entries.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class RemoteListingDiffBenchmark {
+
+    @Before
+    fun setUp() {
+        Benchmark.assumeEnabled()
+    }
+
+    @Test
+    fun `compare large listings - list versus compact`() {
+        val old = largeListing(LARGE_LISTING_SIZE)
+        val new = changedListing(old)
+        val compactOld = CompactRemoteFileListing.from(old)
+        val compactNew = CompactRemoteFileListing.from(new)
+
+        val list = Benchmark.measure("compare lists, $LARGE_LISTING_SIZE entries") {
+            RemoteListingDiff.compare(old, new)
+        }
+        val compact = Benchmark.measure("compare compact listings, $LARGE_LISTING_SIZE entries") {
+            RemoteListingDiff.compare(compactOld, compactNew)
+        }
+        Benchmark.measure("build compact listings, $LARGE_LISTING_SIZE entries") {
+            CompactRemoteFileListing.from(old) to CompactRemoteFileListing.from(new)
+        }
+        println("CompactRemoteFileListing speedup: %.1fx".format(list.toDouble() / compact))
+    }
+
+    @Test
+    fun `compare compact listings - scales linearly`() {
+        LISTING_SIZES.forEach { size ->
+            val old = CompactRemoteFileListing.from(largeListing(size))
+            val new = CompactRemoteFileListing.from(changedListing(largeListing(size)))
+
+            val nanos = Benchmark.measure("compare compact listings, $size entries") {
+                RemoteListingDiff.compare(old, new)
+            }
+            println("$size entries: ${nanos / size} ns per entry")
+        }
+    }
+
+    companion object {
+        private const val LARGE_LISTING_SIZE = 100_000
+        private val LISTING_SIZES = listOf(25_000, 50_000, 100_000, 200_000)
+    }
+}
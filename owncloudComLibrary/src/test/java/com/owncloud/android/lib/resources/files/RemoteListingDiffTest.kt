@@ -0,0 +1,169 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files
+
+import android.os.Build
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class RemoteListingDiffTest {
+
+    @Test
+    fun `compare - ok - no changes`() {
+        val listing = listOf(file("/Docs/", "e0", "id0"), file("/Docs/a.txt", "e1", "id1"))
+
+        assertTrue(RemoteListingDiff.compare(listing, listing.map { it.copy() }).isEmpty)
+    }
+
+    @Test
+    fun `compare - ok - added removed and modified`() {
+        val old = listOf(file("/Docs/a.txt", "e1", "id1"), file("/Docs/b.txt", "e2", "id2"))
+        val new = listOf(file("/Docs/a.txt", "e1-new", "id1"), file("/Docs/c.txt", "e3", "id3"))
+
+        val changes = RemoteListingDiff.compare(old, new)
+
+        assertEquals(listOf("/Docs/c.txt"), changes.added.map { it.remotePath })
+        assertEquals(listOf("/Docs/b.txt"), changes.removed.map { it.remotePath })
+        assertEquals(listOf("/Docs/a.txt"), changes.modified.map { it.remotePath })
+        assertTrue(changes.moved.isEmpty())
+    }
+
+    @Test
+    fun `compare - ok - renamed by remote id`() {
+        val old = listOf(file("/Docs/a.txt", "e1", "id1"))
+        val new = listOf(file("/Docs/renamed.txt", "e1", "id1"))
+
+        val changes = RemoteListingDiff.compare(old, new)
+
+        assertEquals(listOf(MovedRemoteFile("/Docs/a.txt", new[0])), changes.moved)
+        assertTrue(changes.added.isEmpty() && changes.removed.isEmpty() && changes.modified.isEmpty())
+    }
+
+    @Test
+    fun `compare - ok - renamed and modified`() {
+        val old = listOf(file("/Docs/a.txt", "e1", "id1"))
+        val new = listOf(file("/Docs/renamed.txt", "e2", "id1"))
+
+        val changes = RemoteListingDiff.compare(old, new)
+
+        assertEquals(listOf("/Docs/a.txt"), changes.moved.map { it.fromPath })
+        assertEquals(new, changes.modified)
+    }
+
+    @Test
+    fun `compare - ok - path fallback without remote ids`() {
+        val old = listOf(file("/Docs/a.txt", null, null, length = 1), file("/Docs/b.txt", null, null, length = 2))
+        val new = listOf(file("/Docs/a.txt", null, "id1", length = 1), file("/Docs/b.txt", null, null, length = 3))
+
+        val changes = RemoteListingDiff.compare(old, new)
+
+        assertEquals(listOf("/Docs/b.txt"), changes.modified.map { it.remotePath })
+        assertTrue(changes.added.isEmpty() && changes.removed.isEmpty() && changes.moved.isEmpty())
+    }
+
+    @Test
+    fun `compare - ok - file replaced at the same path`() {
+        val old = listOf(file("/Docs/a.txt", "e1", "id1"))
+        val new = listOf(file("/Docs/a.txt", "e2", "id2"))
+
+        val changes = RemoteListingDiff.compare(old, new)
+
+        assertEquals(new, changes.added)
+        assertEquals(old, changes.removed)
+        assertTrue(changes.modified.isEmpty())
+    }
+
+    @Test
+    fun `compare - ok - swapped names`() {
+        val old = listOf(file("/Docs/a.txt", "e1", "id1"), file("/Docs/b.txt", "e2", "id2"))
+        val new = listOf(file("/Docs/b.txt", "e1", "id1"), file("/Docs/a.txt", "e2", "id2"))
+
+        val changes = RemoteListingDiff.compare(old, new)
+
+        assertEquals(listOf("/Docs/a.txt", "/Docs/b.txt"), changes.moved.map { it.fromPath })
+        assertTrue(changes.added.isEmpty() && changes.removed.isEmpty() && changes.modified.isEmpty())
+    }
+
+    @Test
+    fun `compare - ok - compact listings give the same changes`() {
+        val old = largeListing(1_000)
+        val new = changedListing(old)
+
+        assertEquals(
+            RemoteListingDiff.compare(old, new),
+            RemoteListingDiff.compare(CompactRemoteFileListing.from(old), CompactRemoteFileListing.from(new))
+        )
+    }
+
+    @Test
+    fun `compare large listings - ok`() {
+        val old = largeListing(LARGE_LISTING_SIZE)
+        val new = changedListing(old)
+
+        val changes = RemoteListingDiff.compare(old, new)
+
+        assertEquals(LARGE_LISTING_SIZE / STEP, changes.added.size)
+        assertEquals(LARGE_LISTING_SIZE / STEP, changes.removed.size)
+        assertEquals(LARGE_LISTING_SIZE / STEP, changes.moved.size)
+        assertEquals(LARGE_LISTING_SIZE / STEP, changes.modified.size)
+        assertEquals(changes, RemoteListingDiff.compare(CompactRemoteFileListing.from(old), CompactRemoteFileListing.from(new)))
+    }
+
+    companion object {
+        private const val OWNER = "admin"
+        private const val LARGE_LISTING_SIZE = 100_000
+        private const val STEP = 10
+
+        internal fun largeListing(size: Int) = List(size) { file("/Big/file$it.txt", "e$it", "id$it") }
+
+        /**
+         * Removes, renames and modifies one of every [STEP] entries of [listing], and adds as many new ones.
+         */
+        internal fun changedListing(listing: List<RemoteFile>): List<RemoteFile> =
+            listing.mapIndexedNotNull { index, file ->
+                when (index % STEP) {
+                    0 -> null
+                    1 -> file.copy(remotePath = file.remotePath + ".renamed")
+                    2 -> file.copy(etag = file.etag + "-new")
+                    else -> file
+                }
+            } + List(listing.size / STEP) { file("/Big/new$it.txt", "n$it", "new$it") }
+
+        private fun file(remotePath: String, etag: String?, remoteId: String?, length: Long = 0) =
+            RemoteFile(
+                remotePath = remotePath,
+                mimeType = if (remotePath.endsWith("/")) RemoteFile.MIME_DIR else "text/plain",
+                length = length,
+                etag = etag,
+                remoteId = remoteId,
+                owner = OWNER,
+            )
+    }
+}
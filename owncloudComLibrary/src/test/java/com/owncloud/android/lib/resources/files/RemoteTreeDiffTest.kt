@@ -0,0 +1,139 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.files
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class RemoteTreeDiffTest {
+
+    private val snapshot = mapOf(
+        "/" to RemoteTreeEntry("root1", "id-root", true),
+        "/Docs/" to RemoteTreeEntry("docs1", "id-docs", true),
+        "/Docs/a.txt" to RemoteTreeEntry("a1", "id-a", false),
+        "/Docs/Old/" to RemoteTreeEntry("old1", "id-old", true),
+        "/Docs/Old/b.txt" to RemoteTreeEntry("b1", "id-b", false),
+        "/Photos/" to RemoteTreeEntry("photos1", "id-photos", true),
+        "/Photos/c.jpg" to RemoteTreeEntry("c1", "id-c", false),
+    )
+
+    @Test
+    fun `root unchanged - nothing to list`() {
+        val diff = RemoteTreeDiff(snapshot)
+
+        assertFalse(diff.onRootRead(folder("/", "root1", "id-root")))
+        assertTrue(diff.build(1).isEmpty)
+    }
+
+    @Test
+    fun `only changed folders are listed`() {
+        val diff = RemoteTreeDiff(snapshot)
+        assertTrue(diff.onRootRead(folder("/", "root2", "id-root")))
+        diff.onRootListed(folder("/", "root2", "id-root"))
+
+        val toList = diff.onFolderListed(
+            "/", listOf(folder("/Docs/", "docs2", "id-docs"), folder("/Photos/", "photos1", "id-photos"))
+        )
+        assertEquals(listOf("/Docs/"), toList)
+
+        val docsToList = diff.onFolderListed(
+            "/Docs/", listOf(file("/Docs/a.txt", "a2", "id-a"), file("/Docs/new.txt", "n1", "id-new"))
+        )
+        assertTrue(docsToList.isEmpty())
+
+        val changes = diff.build(3)
+        assertEquals(listOf("/Docs/new.txt"), changes.added.map { it.remotePath })
+        assertEquals(listOf("/", "/Docs/", "/Docs/a.txt"), changes.modified.map { it.remotePath })
+        assertEquals(listOf("/Docs/Old/", "/Docs/Old/b.txt"), changes.removed)
+        assertTrue(changes.moved.isEmpty())
+    }
+
+    @Test
+    fun `moved folder is reported as move`() {
+        val diff = RemoteTreeDiff(snapshot)
+        diff.onRootListed(folder("/", "root2", "id-root"))
+
+        val toList = diff.onFolderListed(
+            "/", listOf(folder("/Docs/", "docs2", "id-docs"), folder("/Photos/", "photos2", "id-photos"))
+        )
+        assertEquals(listOf("/Docs/", "/Photos/"), toList)
+        diff.onFolderListed("/Docs/", listOf(file("/Docs/a.txt", "a1", "id-a")))
+        assertEquals(
+            listOf("/Photos/Old/"),
+            diff.onFolderListed(
+                "/Photos/", listOf(file("/Photos/c.jpg", "c1", "id-c"), folder("/Photos/Old/", "old1", "id-old"))
+            )
+        )
+        diff.onFolderListed("/Photos/Old/", listOf(file("/Photos/Old/b.txt", "b1", "id-b")))
+
+        val changes = diff.build(5)
+        assertTrue(changes.added.isEmpty())
+        assertTrue(changes.removed.isEmpty())
+        assertEquals(
+            listOf("/Docs/Old/" to "/Photos/Old/", "/Docs/Old/b.txt" to "/Photos/Old/b.txt"),
+            changes.moved.map { it.fromPath to it.file.remotePath }
+        )
+
+        val nextSnapshot = changes.applyTo(snapshot)
+        assertFalse("/Docs/Old/" in nextSnapshot)
+        assertEquals("id-b", nextSnapshot["/Photos/Old/b.txt"]?.remoteId)
+        assertEquals("photos2", nextSnapshot["/Photos/"]?.etag)
+    }
+
+    @Test
+    fun `folder gone before being listed is removed`() {
+        val diff = RemoteTreeDiff(snapshot)
+        diff.onRootListed(folder("/", "root2", "id-root"))
+
+        val toList = diff.onFolderListed(
+            "/",
+            listOf(
+                folder("/Docs/", "docs2", "id-docs"),
+                folder("/Photos/", "photos1", "id-photos"),
+                folder("/New/", "new1", "id-new"),
+            )
+        )
+        assertEquals(listOf("/Docs/", "/New/"), toList)
+        diff.onFolderGone("/Docs/")
+        diff.onFolderGone("/New/")
+
+        val changes = diff.build(4)
+        assertTrue(changes.added.isEmpty())
+        assertEquals(listOf("/"), changes.modified.map { it.remotePath })
+        assertEquals(listOf("/Docs/", "/Docs/a.txt", "/Docs/Old/", "/Docs/Old/b.txt"), changes.removed)
+    }
+
+    private fun folder(path: String, etag: String, remoteId: String) =
+        RemoteFile(remotePath = path, mimeType = RemoteFile.MIME_DIR, etag = etag, remoteId = remoteId, owner = OWNER)
+
+    private fun file(path: String, etag: String, remoteId: String) =
+        RemoteFile(remotePath = path, mimeType = "text/plain", etag = etag, remoteId = remoteId, owner = OWNER)
+
+    companion object {
+        private const val OWNER = "admin"
+    }
+}
@@ -0,0 +1,101 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.files.thumbnails
+
+import android.os.Build
+import com.owncloud.android.lib.common.FakeOwnCloudClient
+import com.owncloud.android.lib.common.FakeOwnCloudClient.Companion.response
+import com.owncloud.android.lib.common.http.HttpConstants
+import com.owncloud.android.lib.common.http.methods.HttpBaseMethod
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import okhttp3.Request
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class GetRemoteThumbnailOperationTest {
+
+    private val requests = mutableListOf<Request>()
+
+    private val client = FakeOwnCloudClient({ request ->
+        requests.add(request)
+        response(request, HttpConstants.HTTP_OK, THUMBNAIL, contentType = "image/png")
+    })
+
+    private val operation = GetRemoteThumbnailOperation(REMOTE_PATH, ETAG, SIZE, SPACE_WEBDAV_URL)
+
+    @Test
+    fun `run - ok - preview of the given version`() {
+        val result = operation.execute(client)
+
+        assertTrue(result.isSuccess)
+        assertArrayEquals(THUMBNAIL.toByteArray(), result.data)
+        val url = requests.single().url
+        assertEquals("/remote.php/dav/spaces/space-id/Photos/sunset%20beach.jpg", url.encodedPath)
+        assertEquals("$SIZE", url.queryParameter("x"))
+        assertEquals(ETAG, url.queryParameter("c"))
+    }
+
+    @Test
+    fun `run - ko - not an image`() {
+        val textClient = FakeOwnCloudClient({ response(it, HttpConstants.HTTP_OK, "<html/>", contentType = "text/html") })
+
+        assertEquals(ResultCode.FILE_NOT_FOUND, operation.execute(textClient).code)
+    }
+
+    @Test
+    fun `run - ok - cancelled before running`() {
+        operation.cancel()
+
+        assertEquals(ResultCode.CANCELLED, operation.execute(client).code)
+        assertTrue(requests.isEmpty())
+    }
+
+    @Test
+    fun `run - ok - cancelled before the request started`() {
+        // Cancelled once the operation checked it was not, but before the method had a call to abort
+        val racingClient = object : FakeOwnCloudClient({ response(it, HttpConstants.HTTP_OK, THUMBNAIL, contentType = "image/png") }) {
+            override fun executeHttpMethod(method: HttpBaseMethod): Int {
+                operation.cancel()
+                return super.executeHttpMethod(method)
+            }
+        }
+
+        assertEquals(ResultCode.CANCELLED, operation.execute(racingClient).code)
+    }
+
+    companion object {
+        private const val REMOTE_PATH = "/Photos/sunset beach.jpg"
+        private const val ETAG = "\"5f3e6a1b\""
+        private const val SIZE = 256
+        private const val SPACE_WEBDAV_URL = "https://server.url/remote.php/dav/spaces/space-id"
+        private const val THUMBNAIL = "png bytes"
+    }
+}
@@ -0,0 +1,153 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.files.thumbnails
+
+import android.os.Build
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import org.junit.After
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class ThumbnailLoaderTest {
+
+    private val requestA = ThumbnailRequest(remotePath = "/a.jpg", fileId = "id-a", etag = "etag-a", size = SIZE)
+    private val requestB = ThumbnailRequest(remotePath = "/b.jpg", fileId = "id-b", etag = "etag-b", size = SIZE)
+    private val requestC = ThumbnailRequest(remotePath = "/c.jpg", fileId = "id-c", etag = "etag-c", size = SIZE)
+
+    // Remote paths of the executed operations, in order
+    private val executed = Collections.synchronizedList(mutableListOf<String>())
+    private val operations = Collections.synchronizedList(mutableListOf<GetRemoteThumbnailOperation>())
+    private val cancelledCallbacks = AtomicInteger()
+    private val firstStarted = CountDownLatch(1)
+    private val releaseFirst = CountDownLatch(1)
+
+    // A single loader thread, whose first operation waits for releaseFirst
+    private val loader = ThumbnailLoader(diskCache = null, memoryCacheBytes = 1024, parallelism = 1) { operation ->
+        operations.add(operation)
+        if (executed.isEmpty()) {
+            firstStarted.countDown()
+            releaseFirst.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        }
+        executed.add(operation.remotePath)
+        if (operation.isCancelled) {
+            RemoteOperationResult(ResultCode.CANCELLED)
+        } else {
+            RemoteOperationResult<ByteArray>(ResultCode.OK).apply { data = operation.remotePath.toByteArray() }
+        }
+    }
+
+    @After
+    fun tearDown() {
+        releaseFirst.countDown()
+        loader.shutdown()
+    }
+
+    @Test
+    fun `load - ok - concurrent requests for the same thumbnail share one load`() {
+        val loaded = CountDownLatch(2)
+        val results = Collections.synchronizedList(mutableListOf<RemoteOperationResult<ByteArray>>())
+
+        repeat(2) {
+            loader.load(requestA) { result ->
+                results.add(result)
+                loaded.countDown()
+            }
+        }
+        releaseFirst.countDown()
+
+        assertTrue(loaded.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertEquals(listOf("/a.jpg"), executed)
+        results.forEach { assertArrayEquals("/a.jpg".toByteArray(), it.data) }
+        assertArrayEquals("/a.jpg".toByteArray(), loader.getCached(requestA))
+    }
+
+    @Test
+    fun `cancel - ok - queued load cancelled once all its waiters are gone`() {
+        loader.load(requestA) {}
+        assertTrue(firstStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        val handles = List(2) { loader.load(requestB) { cancelledCallbacks.incrementAndGet() } }
+
+        handles.forEach { it.cancel() }
+        releaseFirst.countDown()
+        awaitLoad(requestC)
+
+        assertEquals(listOf("/a.jpg", "/c.jpg"), executed)
+        assertEquals(0, cancelledCallbacks.get())
+    }
+
+    @Test
+    fun `cancel - ok - load goes on while a waiter is left`() {
+        loader.load(requestA) {}
+        assertTrue(firstStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        val loaded = CountDownLatch(1)
+        val cancelled = loader.load(requestB) { cancelledCallbacks.incrementAndGet() }
+        loader.load(requestB) { loaded.countDown() }
+
+        cancelled.cancel()
+        releaseFirst.countDown()
+
+        assertTrue(loaded.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertEquals(listOf("/a.jpg", "/b.jpg"), executed)
+        assertEquals(0, cancelledCallbacks.get())
+    }
+
+    @Test
+    fun `cancel - ok - running request aborted once all its waiters are gone`() {
+        val handle = loader.load(requestA) { cancelledCallbacks.incrementAndGet() }
+        assertTrue(firstStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertFalse(operations.single().isCancelled)
+
+        handle.cancel()
+
+        assertTrue(operations.single().isCancelled)
+        releaseFirst.countDown()
+        awaitLoad(requestC)
+        assertEquals(0, cancelledCallbacks.get())
+    }
+
+    private fun awaitLoad(request: ThumbnailRequest) {
+        val loaded = CountDownLatch(1)
+        loader.load(request) { loaded.countDown() }
+        assertTrue(loaded.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+    }
+
+    companion object {
+        private const val SIZE = 96
+        private const val TIMEOUT_SECONDS = 5L
+    }
+}
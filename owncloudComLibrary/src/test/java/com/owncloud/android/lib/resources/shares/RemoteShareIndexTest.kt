@@ -0,0 +1,135 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.shares
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class RemoteShareIndexTest {
+
+    private val linkShare = RemoteShare(id = "1", path = "/Photos/", shareType = ShareType.PUBLIC_LINK, fileId = "10")
+    private val userShare = RemoteShare(id = "2", path = "/Photos/", shareType = ShareType.USER, fileId = "10")
+    private val fileShare = RemoteShare(id = "3", path = "/doc.txt", shareType = ShareType.GROUP, fileId = "11")
+    private val incomingShare = RemoteShare(id = "4", path = "/Shared/report.pdf", shareType = ShareType.USER, fileId = "20")
+
+    private fun index() = RemoteShareIndex().apply {
+        replaceAll(listOf(linkShare, userShare, fileShare), listOf(incomingShare))
+    }
+
+    @Test
+    fun `lookups - ok`() {
+        val index = index()
+
+        assertEquals(listOf(linkShare, userShare), index.getShares("/Photos/"))
+        assertEquals(listOf(linkShare, userShare), index.getSharesByFileId("10"))
+        assertEquals(listOf(incomingShare), index.getSharesWithMe("/Shared/report.pdf"))
+        assertTrue(index.isShared("/doc.txt"))
+        assertFalse(index.isShared("/other.txt"))
+    }
+
+    @Test
+    fun `put - ok - updates share`() {
+        val index = index()
+        val updatedShare = fileShare.copy(permissions = RemoteShare.READ_PERMISSION_FLAG)
+
+        index.put(updatedShare)
+
+        assertEquals(listOf(updatedShare), index.getShares("/doc.txt"))
+        assertEquals(listOf(updatedShare), index.getSharesByFileId("11"))
+    }
+
+    @Test
+    fun `remove - ok - last share of a path`() {
+        val index = index()
+
+        index.remove("3")
+
+        assertFalse(index.isShared("/doc.txt"))
+        assertTrue(index.getSharesByFileId("11").isEmpty())
+    }
+
+    @Test
+    fun `replace shares - ok - only for the path`() {
+        val index = index()
+        val newShare = RemoteShare(id = "5", path = "/Photos/", shareType = ShareType.GROUP, fileId = "10")
+
+        index.replaceShares("/Photos/", listOf(newShare))
+
+        assertEquals(listOf(newShare), index.getShares("/Photos/"))
+        assertEquals(listOf(newShare), index.getSharesByFileId("10"))
+        assertEquals(listOf(fileShare), index.getShares("/doc.txt"))
+    }
+
+    @Test
+    fun `lookups - ok - by remote id`() {
+        val index = index()
+
+        assertEquals(listOf(linkShare, userShare), index.getSharesByFileId("00000010ocabc123def4"))
+        assertEquals(listOf(fileShare), index.getSharesByFileId("00000011ocabc123def4"))
+    }
+
+    @Test
+    fun `lookups - ok - shared with me by file id`() {
+        val index = index()
+
+        assertEquals(listOf(incomingShare), index.getSharesWithMeByFileId("20"))
+        assertEquals(listOf(incomingShare), index.getSharesWithMeByFileId("00000020ocabc123def4"))
+        assertTrue(index.getSharesWithMeByFileId("10").isEmpty())
+        assertTrue(index.getSharesByFileId("20").isEmpty())
+    }
+
+    @Test
+    fun `remove - ok - share with me by file id`() {
+        val index = index()
+
+        index.remove("4")
+
+        assertTrue(index.getSharesWithMeByFileId("20").isEmpty())
+        assertFalse(index.isShared("/Shared/report.pdf"))
+    }
+
+    @Test
+    fun `clear - ok - shares with me by file id`() {
+        val index = index()
+
+        index.clear()
+
+        assertTrue(index.getSharesWithMeByFileId("20").isEmpty())
+        assertTrue(index.getSharesByFileId("10").isEmpty())
+    }
+
+    @Test
+    fun `normalize file id - ok`() {
+        assertEquals("10", RemoteShareIndex.normalizeFileId("00000010ocabc123def4"))
+        assertEquals("123456789", RemoteShareIndex.normalizeFileId("123456789ocabc123def4"))
+        assertEquals("10", RemoteShareIndex.normalizeFileId("10"))
+        assertEquals(OCIS_ID, RemoteShareIndex.normalizeFileId(OCIS_ID))
+    }
+
+    companion object {
+        private const val OCIS_ID = "1284d238-aa92-42ce-bdc4-0b0000009157\$4c510ada-c86b-4815-8820-42cdf82c3d51!4c510ada"
+    }
+}
@@ -0,0 +1,130 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.shares
+
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import com.owncloud.android.lib.resources.status.RemoteCapability
+import com.owncloud.android.lib.resources.status.RemoteCapability.CapabilityBooleanType
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Calendar
+
+class SharePolicyTest {
+
+    private val now = Calendar.getInstance().apply { set(2023, Calendar.MARCH, 10, 15, 30, 0) }.timeInMillis
+
+    private val linkSpec = ShareSpec.Create(
+        remoteFilePath = "/Photos/",
+        shareType = ShareType.PUBLIC_LINK,
+        shareWith = "",
+        permissions = RemoteShare.READ_PERMISSION_FLAG,
+    )
+
+    private fun daysFromNow(days: Int, hour: Int = 0) = Calendar.getInstance().apply {
+        timeInMillis = now
+        set(Calendar.HOUR_OF_DAY, hour)
+        set(Calendar.MINUTE, 0)
+        set(Calendar.SECOND, 0)
+        set(Calendar.MILLISECOND, 0)
+        add(Calendar.DAY_OF_YEAR, days)
+    }.timeInMillis
+
+    @Test
+    fun `enforce - ok - no restrictions`() {
+        val result = SharePolicy(RemoteCapability()).enforce(linkSpec, now)
+
+        assertTrue(result.isSuccess)
+        assertEquals(linkSpec, result.data)
+    }
+
+    @Test
+    fun `enforce - ko - public links disabled`() {
+        val capability = RemoteCapability(filesSharingPublicEnabled = CapabilityBooleanType.FALSE)
+
+        val result = SharePolicy(capability).enforce(linkSpec, now)
+
+        assertEquals(ResultCode.SHARE_FORBIDDEN, result.code)
+    }
+
+    @Test
+    fun `enforce - ko - federated sharing disabled`() {
+        val capability = RemoteCapability(filesSharingFederationOutgoing = CapabilityBooleanType.FALSE)
+        val spec = linkSpec.copy(shareType = ShareType.FEDERATED, shareWith = "user@server")
+
+        val result = SharePolicy(capability).enforce(spec, now)
+
+        assertEquals(ResultCode.SHARE_FORBIDDEN, result.code)
+    }
+
+    @Test
+    fun `enforce - ko - password enforced for read write links`() {
+        val capability = RemoteCapability(filesSharingPublicPasswordEnforcedReadWrite = CapabilityBooleanType.TRUE)
+        val policy = SharePolicy(capability)
+        val readWriteSpec = linkSpec.copy(permissions = RemoteShare.MAXIMUM_PERMISSIONS_FOR_FOLDER)
+
+        assertEquals(ResultCode.SHARE_WRONG_PARAMETER, policy.enforce(readWriteSpec, now).code)
+        assertTrue(policy.enforce(readWriteSpec.copy(password = "secret"), now).isSuccess)
+        assertTrue(policy.enforce(linkSpec, now).isSuccess)
+    }
+
+    @Test
+    fun `enforce - ok - applies default expiration date`() {
+        val capability = RemoteCapability(
+            filesSharingPublicExpireDateEnforced = CapabilityBooleanType.TRUE,
+            filesSharingPublicExpireDateDays = 7,
+        )
+
+        val result = SharePolicy(capability).enforce(linkSpec, now)
+
+        assertTrue(result.isSuccess)
+        assertEquals(daysFromNow(7), (result.data as ShareSpec.Create).expirationDateInMillis)
+    }
+
+    @Test
+    fun `enforce - ko - expiration date beyond enforced one`() {
+        val capability = RemoteCapability(
+            filesSharingPublicExpireDateEnforced = CapabilityBooleanType.TRUE,
+            filesSharingPublicExpireDateDays = 7,
+        )
+        val policy = SharePolicy(capability)
+
+        assertTrue(policy.enforce(linkSpec.copy(expirationDateInMillis = daysFromNow(7, hour = 23)), now).isSuccess)
+        assertEquals(
+            ResultCode.SHARE_WRONG_PARAMETER,
+            policy.enforce(linkSpec.copy(expirationDateInMillis = daysFromNow(8)), now).code
+        )
+    }
+
+    @Test
+    fun `enforce - ko - update clearing enforced password`() {
+        val capability = RemoteCapability(filesSharingPublicPasswordEnforced = CapabilityBooleanType.TRUE)
+        val policy = SharePolicy(capability)
+        val update = ShareSpec.Update(remoteId = "1", password = "", shareType = ShareType.PUBLIC_LINK)
+
+        assertEquals(ResultCode.SHARE_WRONG_PARAMETER, policy.enforce(update, now).code)
+        assertTrue(policy.enforce(update.copy(shareType = null), now).isSuccess)
+    }
+}
@@ -0,0 +1,145 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+package com.owncloud.android.lib.resources.status
+
+import android.os.Build
+import com.owncloud.android.lib.common.FakeOwnCloudClient
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import com.owncloud.android.lib.resources.spaces.GetRemoteSpacesOperation
+import com.owncloud.android.lib.resources.users.GetRemoteUserAvatarOperation
+import com.owncloud.android.lib.resources.users.GetRemoteUserInfoOperation
+import com.owncloud.android.lib.resources.users.GetRemoteUserQuotaOperation
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.Collections
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class BootstrapRemoteAccountOperationTest {
+
+    // No request reaches it, as operations are run by the fake operation executor
+    private val client = FakeOwnCloudClient({ throw AssertionError("Unexpected request to ${it.url}") })
+
+    private val executed = Collections.synchronizedList(mutableListOf<Class<*>>())
+
+    private var statusResult: RemoteOperationResult<RemoteServerInfo> = ok(SERVER_INFO)
+    private var capabilitiesResult: RemoteOperationResult<RemoteCapability> = ok(capabilities(spacesEnabled = true))
+
+    private fun execute(operation: RemoteOperation<*>): RemoteOperationResult<*> {
+        executed.add(operation.javaClass)
+        return when (operation) {
+            is GetRemoteStatusOperation -> statusResult
+            is GetRemoteCapabilitiesOperation -> capabilitiesResult
+            is GetRemoteUserQuotaOperation -> RemoteOperationResult<Any>(ResultCode.HOST_NOT_AVAILABLE)
+            else -> RemoteOperationResult<Any>(ResultCode.OK)
+        }
+    }
+
+    private fun bootstrapOperation(avatarDimension: Int? = null) =
+        BootstrapRemoteAccountOperation(avatarDimension, null) { operation, _ -> execute(operation) }
+
+    @Test
+    fun `run - ok - every part of the account`() {
+        val result = bootstrapOperation(AVATAR_DIMENSION).execute(client)
+
+        assertTrue(result.isSuccess)
+        val snapshot = result.data
+        assertEquals(SERVER_INFO, snapshot.serverInfo)
+        assertTrue(snapshot.capabilities.isSuccess)
+        assertTrue(snapshot.userInfo.isSuccess)
+        assertNotNull(snapshot.spaces)
+        assertNotNull(snapshot.avatar)
+        assertEquals(GetRemoteStatusOperation::class.java, executed.first())
+    }
+
+    @Test
+    fun `run - ok - failed part does not fail the others`() {
+        val snapshot = bootstrapOperation().execute(client).data
+
+        assertEquals(ResultCode.HOST_NOT_AVAILABLE, snapshot.quota.code)
+        assertTrue(snapshot.userInfo.isSuccess)
+    }
+
+    @Test
+    fun `run - ko - status failed`() {
+        statusResult = RemoteOperationResult(ResultCode.HOST_NOT_AVAILABLE)
+
+        val result = bootstrapOperation(AVATAR_DIMENSION).execute(client)
+
+        assertFalse(result.isSuccess)
+        assertEquals(ResultCode.HOST_NOT_AVAILABLE, result.code)
+        assertEquals(listOf<Class<*>>(GetRemoteStatusOperation::class.java), executed)
+    }
+
+    @Test
+    fun `run - ok - spaces not requested when disabled`() {
+        capabilitiesResult = ok(capabilities(spacesEnabled = false))
+
+        val snapshot = bootstrapOperation().execute(client).data
+
+        assertNull(snapshot.spaces)
+        assertFalse(executed.contains(GetRemoteSpacesOperation::class.java))
+    }
+
+    @Test
+    fun `run - ok - spaces not requested without capabilities`() {
+        capabilitiesResult = RemoteOperationResult(ResultCode.HOST_NOT_AVAILABLE)
+
+        val snapshot = bootstrapOperation().execute(client).data
+
+        assertNull(snapshot.spaces)
+        assertFalse(executed.contains(GetRemoteSpacesOperation::class.java))
+    }
+
+    @Test
+    fun `run - ok - avatar not requested without dimension`() {
+        val snapshot = bootstrapOperation().execute(client).data
+
+        assertNull(snapshot.avatar)
+        assertFalse(executed.contains(GetRemoteUserAvatarOperation::class.java))
+        assertTrue(executed.contains(GetRemoteUserInfoOperation::class.java))
+    }
+
+    private fun <T> ok(data: T) = RemoteOperationResult<T>(ResultCode.OK).apply { this.data = data }
+
+    private fun capabilities(spacesEnabled: Boolean) =
+        RemoteCapability(
+            filesAppProviders = null,
+            spaces = RemoteCapability.RemoteSpaces(enabled = spacesEnabled, projects = false, shareJail = false),
+        )
+
+    companion object {
+        private const val AVATAR_DIMENSION = 128
+        private val SERVER_INFO = RemoteServerInfo(OwnCloudVersion("10.12.0"), FakeOwnCloudClient.BASE_URL, true)
+    }
+}
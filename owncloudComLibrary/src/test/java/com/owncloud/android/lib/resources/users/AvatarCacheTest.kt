@@ -0,0 +1,147 @@
+/* ownCloud Android Library is available under MIT license
+ *   Copyright (C) 2023 ownCloud GmbH.
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in
+ *   all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *   EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *   THE SOFTWARE.
+ *
+ */
+
+package com.owncloud.android.lib.resources.users
+
+import android.os.Build
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCode
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.net.SocketTimeoutException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.O], manifest = Config.NONE)
+class AvatarCacheTest {
+
+    // Every cached avatar is revalidated
+    private val avatarCache = AvatarCache(revalidateAfterMillis = 0)
+
+    private val avatar = RemoteAvatarData(byteArrayOf(1, 2, 3), "image/png", "etag1")
+
+    @Test
+    fun `get avatar - ok - not modified returns the cached avatar`() {
+        avatarCache.getAvatar(KEY) { successResult(avatar) }
+        var sentEtag: String? = null
+
+        val result = avatarCache.getAvatar(KEY) { knownEtag ->
+            sentEtag = knownEtag
+            RemoteOperationResult(ResultCode.OK_NOT_MODIFIED)
+        }
+
+        assertEquals("etag1", sentEtag)
+        assertTrue(result.isSuccess)
+        assertArrayEquals(avatar.avatarData, result.data.avatarData)
+    }
+
+    @Test
+    fun `get avatar - ok - first request is not conditional`() {
+        var sentEtag: String? = "not called"
+
+        avatarCache.getAvatar(KEY) { knownEtag ->
+            sentEtag = knownEtag
+            successResult(avatar)
+        }
+
+        assertNull(sentEtag)
+    }
+
+    @Test
+    fun `get avatar - ok - cached avatar returned when the server cannot be reached`() {
+        avatarCache.getAvatar(KEY) { successResult(avatar) }
+
+        val result = avatarCache.getAvatar(KEY) { RemoteOperationResult(SocketTimeoutException()) }
+
+        assertTrue(result.isSuccess)
+        assertArrayEquals(avatar.avatarData, result.data.avatarData)
+    }
+
+    @Test
+    fun `get avatar - ko - authorization failures not hidden by the cached avatar`() {
+        avatarCache.getAvatar(KEY) { successResult(avatar) }
+
+        listOf(ResultCode.UNAUTHORIZED, ResultCode.FORBIDDEN).forEach { code ->
+            val result = avatarCache.getAvatar(KEY) { RemoteOperationResult(code) }
+
+            assertFalse(result.isSuccess)
+            assertEquals(code, result.code)
+        }
+    }
+
+    @Test
+    fun `get avatar - ok - concurrent requests share one fetch`() {
+        val fetchStarted = CountDownLatch(1)
+        val releaseFetch = CountDownLatch(1)
+        val fetchCount = AtomicInteger()
+        val fetch = { _: String? ->
+            fetchCount.incrementAndGet()
+            fetchStarted.countDown()
+            releaseFetch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            successResult(avatar)
+        }
+
+        var firstResult: RemoteOperationResult<RemoteAvatarData>? = null
+        val first = Thread { firstResult = avatarCache.getAvatar(KEY, fetch) }.apply { start() }
+        assertTrue(fetchStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        var secondResult: RemoteOperationResult<RemoteAvatarData>? = null
+        val second = Thread { secondResult = avatarCache.getAvatar(KEY, fetch) }.apply { start() }
+        awaitWaiting(second)
+
+        releaseFetch.countDown()
+        first.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS))
+        second.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS))
+
+        assertEquals(1, fetchCount.get())
+        assertTrue(firstResult!!.isSuccess)
+        assertTrue(secondResult!!.isSuccess)
+        assertArrayEquals(avatar.avatarData, secondResult!!.data.avatarData)
+    }
+
+    // Until the thread waits for the fetch of the other one
+    private fun awaitWaiting(thread: Thread) {
+        val deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)
+        while (thread.state != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+        assertEquals(Thread.State.WAITING, thread.state)
+    }
+
+    private fun successResult(avatar: RemoteAvatarData) =
+        RemoteOperationResult<RemoteAvatarData>(ResultCode.OK).apply { data = avatar }
+
+    companion object {
+        private const val KEY = "https://server.url|user|128"
+        private const val TIMEOUT_SECONDS = 5L
+    }
+}